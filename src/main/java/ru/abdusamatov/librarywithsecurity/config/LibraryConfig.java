@@ -0,0 +1,22 @@
+package ru.abdusamatov.librarywithsecurity.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.abdusamatov.librarywithsecurity.dto.UserListView;
+
+import java.util.Locale;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(LibraryProperties.class)
+public class LibraryConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addFormatters(final FormatterRegistry registry) {
+        registry.addConverter(String.class, UserListView.class,
+                source -> UserListView.valueOf(source.strip().toUpperCase(Locale.ROOT)));
+    }
+}
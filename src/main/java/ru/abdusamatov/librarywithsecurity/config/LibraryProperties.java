@@ -0,0 +1,254 @@
+package ru.abdusamatov.librarywithsecurity.config;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+import ru.abdusamatov.librarywithsecurity.exception.TooManyIdsException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "library")
+public class LibraryProperties {
+
+    private Pagination pagination = new Pagination();
+
+    private Search search = new Search();
+
+    private Suggest suggest = new Suggest();
+
+    private Export export = new Export();
+
+    private BulkImport bulkImport = new BulkImport();
+
+    private Bulk bulk = new Bulk();
+
+    private Idempotency idempotency = new Idempotency();
+
+    private Batch batch = new Batch();
+
+    private Cache cache = new Cache();
+
+    private WarmUp warmUp = new WarmUp();
+
+    @Data
+    public static class Pagination {
+        @Positive
+        private int maxPageSize = 100;
+
+        public int limit(final int requestedSize) {
+            return Math.max(1, Math.min(requestedSize, maxPageSize));
+        }
+
+        public List<Long> distinctIds(final List<Long> ids) {
+            return LibraryProperties.distinctIds(ids, maxPageSize);
+        }
+    }
+
+    @Data
+    public static class Search {
+        @Positive
+        private int maxResults = 50;
+
+        private Engine engine = Engine.SQL;
+
+        @Positive
+        private int indexBatchSize = 1000;
+
+        private Duration refreshInterval = Duration.ofMinutes(5);
+
+        /**
+         * Size of the requested page once the top-k cap is applied, {@code 0} past the cap.
+         */
+        public int limit(final long offset, final int pageSize) {
+            return (int) Math.max(0, Math.min(pageSize, maxResults - offset));
+        }
+
+        public enum Engine {
+            SQL,
+            IN_MEMORY
+        }
+    }
+
+    @Data
+    public static class Suggest {
+        @Positive
+        private int maxResults = 10;
+
+        private Duration refreshInterval = Duration.ofMinutes(5);
+
+        private boolean backgroundRefresh = true;
+    }
+
+    @Data
+    public static class Export {
+        @Positive
+        private int fetchSize = 1000;
+
+        private Duration idleTimeout = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class BulkImport {
+        @Positive
+        private int chunkSize = 5000;
+
+        @Positive
+        private int maxReportedErrors = 1000;
+    }
+
+    @Data
+    public static class Bulk {
+        @Positive
+        private int maxIds = 1000;
+
+        public List<Long> distinctIds(final List<Long> ids) {
+            return LibraryProperties.distinctIds(ids, maxIds);
+        }
+    }
+
+    @Data
+    public static class Idempotency {
+        private Duration ttl = Duration.ofHours(24);
+
+        private Duration processingTimeout = Duration.ofMinutes(1);
+
+        private Duration waitTimeout = Duration.ofSeconds(30);
+
+        private Duration pollInterval = Duration.ofMillis(100);
+    }
+
+    @Data
+    public static class Batch {
+        @Positive
+        private int maxOperations = 20;
+    }
+
+    @Data
+    public static class Cache {
+        private String invalidationChannel = "library:cache:invalidation";
+
+        private NearCache near = new NearCache();
+
+        private LoadLock loadLock = new LoadLock();
+
+        private Catalogue catalogue = new Catalogue();
+
+        private Serializer serializer = Serializer.BINARY;
+
+        private DataSize compressionThreshold = DataSize.ofKilobytes(1);
+
+        @Positive
+        private int keyVersion = 1;
+
+        /**
+         * Redis key prefix of {@code cacheName}. It changes with the value format and the key version, so a
+         * deploy writing values the running instances cannot read does not share entries with them.
+         */
+        public String keyPrefix(final String cacheName) {
+            return String.format("%s::%s-v%d::", cacheName, serializer.name().toLowerCase(Locale.ROOT), keyVersion);
+        }
+
+        public enum Serializer {
+            JDK,
+            BINARY
+        }
+    }
+
+    @Data
+    public static class NearCache {
+        private boolean enabled = true;
+
+        @Positive
+        private long maximumSize = 10_000;
+
+        private DataSize maximumWeight;
+
+        private Duration ttl = Duration.ofMinutes(1);
+
+        private Map<String, NearCacheOverride> caches = new HashMap<>();
+
+        /**
+         * Settings of the near cache in front of {@code cacheName}: its override where set, these defaults
+         * otherwise.
+         */
+        public NearCache forCache(final String cacheName) {
+            final var override = caches.getOrDefault(cacheName, new NearCacheOverride());
+            final var resolved = new NearCache();
+            resolved.setEnabled(Objects.requireNonNullElse(override.getEnabled(), enabled));
+            resolved.setMaximumSize(Objects.requireNonNullElse(override.getMaximumSize(), maximumSize));
+            resolved.setMaximumWeight(override.getMaximumWeight() == null
+                    ? maximumWeight
+                    : override.getMaximumWeight());
+            resolved.setTtl(Objects.requireNonNullElse(override.getTtl(), ttl));
+            return resolved;
+        }
+    }
+
+    @Data
+    public static class LoadLock {
+        private boolean enabled = false;
+
+        private Duration ttl = Duration.ofSeconds(5);
+
+        private Duration pollInterval = Duration.ofMillis(50);
+    }
+
+    @Data
+    public static class Catalogue {
+        private boolean enabled = false;
+
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class NearCacheOverride {
+        private Boolean enabled;
+
+        @Positive
+        private Long maximumSize;
+
+        private DataSize maximumWeight;
+
+        private Duration ttl;
+    }
+
+    @Data
+    public static class WarmUp {
+        private boolean enabled = false;
+
+        private Path snapshotFile = Path.of("hot-keys.json");
+
+        private Duration snapshotInterval = Duration.ofMinutes(5);
+
+        @Positive
+        private int books = 500;
+
+        @Positive
+        private int users = 500;
+
+        private Duration maxDuration = Duration.ofSeconds(30);
+
+        private Duration compilationSettleTime = Duration.ofMillis(20);
+    }
+
+    private static List<Long> distinctIds(final List<Long> ids, final int max) {
+        final var distinct = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (distinct.size() > max) {
+            throw new TooManyIdsException(distinct.size(), max);
+        }
+        return distinct;
+    }
+}
@@ -1,15 +1,28 @@
 package ru.abdusamatov.librarywithsecurity.config;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+import ru.abdusamatov.librarywithsecurity.service.cache.BinaryCacheSerializer;
+import ru.abdusamatov.librarywithsecurity.service.cache.CatalogueCache;
+import ru.abdusamatov.librarywithsecurity.service.cache.TwoLevelCacheManager;
 
 import java.time.Duration;
+import java.util.List;
 
 @Configuration
 @EnableCaching
@@ -19,14 +32,64 @@ public class RedisConfig {
     private long timeToLiveMs;
 
     @Bean
-    public CacheManager cacheManager(final RedisConnectionFactory redisConnectionFactory) {
-        final var defaultCacheConfig = RedisCacheConfiguration
+    public RedisCacheConfiguration redisCacheConfiguration(final LibraryProperties properties) {
+        final var cache = properties.getCache();
+        return RedisCacheConfiguration
                 .defaultCacheConfig()
-                .entryTtl(Duration.ofMillis(timeToLiveMs));
+                .entryTtl(Duration.ofMillis(timeToLiveMs))
+                .computePrefixWith(cache::keyPrefix)
+                .serializeValuesWith(
+                        RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer(cache)));
+    }
 
-        return RedisCacheManager
+    @Bean
+    public TwoLevelCacheManager cacheManager(
+            final RedisConnectionFactory redisConnectionFactory,
+            final RedisCacheConfiguration redisCacheConfiguration,
+            final StringRedisTemplate redisTemplate,
+            final LibraryProperties properties
+    ) {
+        final var redisCacheManager = RedisCacheManager
                 .builder(redisConnectionFactory)
-                .cacheDefaults(defaultCacheConfig)
+                .cacheDefaults(redisCacheConfiguration)
+                .withCacheConfiguration(
+                        CatalogueCache.CACHE_NAME,
+                        redisCacheConfiguration.entryTtl(properties.getCache().getCatalogue().getTtl()))
+                .build();
+        redisCacheManager.initializeCaches();
+
+        final var valueSerializer = redisCacheConfiguration.getValueSerializationPair();
+        return new TwoLevelCacheManager(
+                redisCacheManager,
+                redisTemplate,
+                properties.getCache(),
+                value -> valueSerializer.write(value).remaining());
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            final RedisConnectionFactory redisConnectionFactory,
+            final TwoLevelCacheManager cacheManager,
+            final LibraryProperties properties
+    ) {
+        final var container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(cacheManager, ChannelTopic.of(properties.getCache().getInvalidationChannel()));
+        return container;
+    }
+
+    private static RedisSerializer<?> valueSerializer(final LibraryProperties.Cache cache) {
+        if (cache.getSerializer() == LibraryProperties.Cache.Serializer.JDK) {
+            return RedisSerializer.java();
+        }
+
+        final ObjectMapper smileMapper = Jackson2ObjectMapperBuilder
+                .smile()
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
                 .build();
+        return new BinaryCacheSerializer(
+                smileMapper,
+                List.of(BookDto.class, UserDto.class, BookDto[].class),
+                (int) cache.getCompressionThreshold().toBytes());
     }
 }
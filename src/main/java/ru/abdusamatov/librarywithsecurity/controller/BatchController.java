@@ -0,0 +1,34 @@
+package ru.abdusamatov.librarywithsecurity.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import ru.abdusamatov.librarywithsecurity.dto.BatchItemDto;
+import ru.abdusamatov.librarywithsecurity.dto.BatchRequestDto;
+import ru.abdusamatov.librarywithsecurity.service.handler.BatchHandler;
+import ru.ilyam.http.Response;
+import ru.ilyam.http.Result;
+
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.OK;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/batch")
+public class BatchController {
+    private final BatchHandler batchHandler;
+
+    @PostMapping
+    public Mono<Response<List<BatchItemDto>>> executeBatch(@Valid @RequestBody final BatchRequestDto request) {
+        return batchHandler
+                .execute(request)
+                .map(items -> Response.buildResponse(
+                        Result.success(OK, String.format("Processed %d operations", items.size())),
+                        items));
+    }
+}
@@ -1,7 +1,11 @@
 package ru.abdusamatov.librarywithsecurity.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -9,13 +13,29 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.BookIdsDto;
+import ru.abdusamatov.librarywithsecurity.dto.BookSearchMode;
+import ru.abdusamatov.librarywithsecurity.dto.BulkAssignDto;
+import ru.abdusamatov.librarywithsecurity.dto.BulkResultDto;
+import ru.abdusamatov.librarywithsecurity.dto.CursorPageDto;
+import ru.abdusamatov.librarywithsecurity.dto.ImportFormat;
+import ru.abdusamatov.librarywithsecurity.dto.ImportReportDto;
+import ru.abdusamatov.librarywithsecurity.dto.MultiGetDto;
+import ru.abdusamatov.librarywithsecurity.dto.SuggestionDto;
 import ru.abdusamatov.librarywithsecurity.dto.UserDto;
 import ru.abdusamatov.librarywithsecurity.service.handler.BookHandler;
+import ru.abdusamatov.librarywithsecurity.service.idempotency.IdempotencyService;
+import ru.abdusamatov.librarywithsecurity.service.patch.JsonMergePatch;
+import ru.abdusamatov.librarywithsecurity.util.EntityTag;
 import ru.ilyam.http.Response;
 import ru.ilyam.http.Result;
 
@@ -31,43 +51,103 @@ import static org.springframework.http.HttpStatus.OK;
 public class BookController {
     private final BookHandler bookHandler;
 
-    @GetMapping
+    @GetMapping(params = {"!cursor", "!ids"})
     public Mono<Response<List<BookDto>>> getBookList(
             @RequestParam(value = "page", required = false, defaultValue = "0") final Integer page,
             @RequestParam(value = "size", required = false, defaultValue = "20") final Integer size,
-            @RequestParam(value = "sort", required = false, defaultValue = "true") final boolean isSorted) {
+            @RequestParam(value = "sort", required = false, defaultValue = "true") final boolean isSorted,
+            @RequestParam(value = "fields", required = false) final String fields,
+            @RequestParam(value = "expand", required = false) final String expand) {
 
         return bookHandler
-                .getBookList(page, size, isSorted)
+                .getBookList(page, size, isSorted, fields, expand)
                 .map(list -> Response.buildResponse(
                         Result.success(OK, "List of books"),
                         list));
     }
 
+    @GetMapping(params = {"cursor", "!ids"})
+    public Mono<Response<CursorPageDto<BookDto>>> getBookPage(
+            @RequestParam(value = "cursor") final String cursor,
+            @RequestParam(value = "size", required = false, defaultValue = "20") final Integer size,
+            @RequestParam(value = "sort", required = false, defaultValue = "true") final boolean isSorted) {
+
+        return bookHandler
+                .getBookPage(cursor, size, isSorted)
+                .map(page -> Response.buildResponse(
+                        Result.success(OK, "Page of books"),
+                        page));
+    }
+
+    @GetMapping(params = {"ids", "!cursor"})
+    public Mono<Response<MultiGetDto<BookDto>>> getBooksByIds(@RequestParam(value = "ids") final List<Long> ids) {
+        return bookHandler
+                .getBooksByIds(ids)
+                .map(books -> Response.buildResponse(
+                        Result.success(OK, "Books by IDs"),
+                        books));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BookDto> exportBooks() {
+        return bookHandler.exportBooks();
+    }
+
     @GetMapping(value = "/{id}")
-    public Mono<Response<BookDto>> showBookById(@PathVariable("id") final Long id) {
+    public Mono<ResponseEntity<Response<BookDto>>> showBookById(
+            @PathVariable("id") final Long id,
+            @RequestParam(value = "fields", required = false) final String fields,
+            @RequestParam(value = "expand", required = false) final String expand,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) {
         return bookHandler
-                .getBookById(id)
-                .map(bookDto -> Response.buildResponse(
+                .getBookById(id, fields, expand)
+                .map(bookDto -> EntityTag.conditional(EntityTag.of(bookDto), ifNoneMatch, () -> Response.buildResponse(
                         Result.success(OK, "Book successfully found"),
-                        bookDto));
+                        bookDto)));
     }
 
     @PostMapping
-    public Mono<Response<BookDto>> createBook(@Valid @RequestBody final BookDto bookDto) {
+    public Mono<Response<BookDto>> createBook(
+            @Valid @RequestBody final BookDto bookDto,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) final String idempotencyKey) {
         return bookHandler
-                .createBook(bookDto)
+                .createBook(bookDto, idempotencyKey)
                 .map(savedBook -> Response.buildResponse(
                         Result.success(CREATED, "Book successfully created"),
                         savedBook));
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Mono<Response<ImportReportDto>> importBooks(
+            @RequestPart("file") final MultipartFile file,
+            @RequestParam(value = "format", required = false) final ImportFormat format) {
+        return bookHandler
+                .importBooks(file, format)
+                .map(report -> Response.buildResponse(
+                        Result.success(OK, String.format(
+                                "Imported %d of %d books", report.getImported(), report.getReceived())),
+                        report));
+    }
+
     @PutMapping
-    public Mono<Response<BookDto>> updateBook(@Valid @RequestBody final BookDto bookDto) {
-        return bookHandler.updateBook(bookDto)
-                .map(updatedBook -> Response.buildResponse(
+    public Mono<ResponseEntity<Response<BookDto>>> updateBook(
+            @Valid @RequestBody final BookDto bookDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch) {
+        return bookHandler.updateBook(bookDto, ifMatch)
+                .map(updatedBook -> EntityTag.tagged(EntityTag.of(updatedBook), Response.buildResponse(
+                        Result.success(OK, "Book successfully updated"),
+                        updatedBook)));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = JsonMergePatch.MEDIA_TYPE)
+    public Mono<ResponseEntity<Response<BookDto>>> patchBook(
+            @PathVariable("id") final Long id,
+            @RequestBody final JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch) {
+        return bookHandler.patchBook(id, patch, ifMatch)
+                .map(patchedBook -> EntityTag.tagged(EntityTag.of(patchedBook), Response.buildResponse(
                         Result.success(OK, "Book successfully updated"),
-                        updatedBook));
+                        patchedBook)));
     }
 
     @DeleteMapping(value = "/{id}")
@@ -79,9 +159,12 @@ public class BookController {
     }
 
     @PatchMapping(value = "/{id}/assign")
-    public Mono<Response<Void>> assignBook(@PathVariable("id") final Long id, @Valid @RequestBody final UserDto newUser) {
+    public Mono<Response<Void>> assignBook(
+            @PathVariable("id") final Long id,
+            @RequestBody final UserDto newUser,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch) {
         return bookHandler
-                .assignBook(id, newUser)
+                .assignBook(id, newUser, ifMatch)
                 .then(Mono.just(Response.buildResponse(
                         Result.success(NO_CONTENT, "Book successfully assigned"))));
     }
@@ -93,11 +176,49 @@ public class BookController {
                         Result.success(NO_CONTENT, "Book successfully released"))));
     }
 
+    @PostMapping(value = "/bulk/assign")
+    public Mono<Response<BulkResultDto>> assignBooks(@Valid @RequestBody final BulkAssignDto request) {
+        return bookHandler.assignBooks(request)
+                .map(result -> Response.buildResponse(
+                        Result.success(OK, String.format("Assigned %d books", result.getProcessedIds().size())),
+                        result));
+    }
+
+    @PostMapping(value = "/bulk/release")
+    public Mono<Response<BulkResultDto>> releaseBooks(@Valid @RequestBody final BookIdsDto request) {
+        return bookHandler.releaseBooks(request)
+                .map(result -> Response.buildResponse(
+                        Result.success(OK, String.format("Released %d books", result.getProcessedIds().size())),
+                        result));
+    }
+
+    @PostMapping(value = "/bulk/delete")
+    public Mono<Response<BulkResultDto>> deleteBooks(@Valid @RequestBody final BookIdsDto request) {
+        return bookHandler.deleteBooks(request)
+                .map(result -> Response.buildResponse(
+                        Result.success(OK, String.format("Deleted %d books", result.getProcessedIds().size())),
+                        result));
+    }
+
     @GetMapping(value = "/search")
-    public Mono<Response<List<BookDto>>> searchBooks(@RequestParam(value = "query") final String query) {
-        return bookHandler.searchByTitle(query)
+    public Mono<Response<List<BookDto>>> searchBooks(
+            @RequestParam(value = "query") final String query,
+            @RequestParam(value = "mode", required = false, defaultValue = "CONTAINS") final BookSearchMode mode,
+            @RequestParam(value = "page", required = false, defaultValue = "0") final Integer page,
+            @RequestParam(value = "size", required = false, defaultValue = "20") final Integer size) {
+        return bookHandler.searchByTitle(query, mode, page, size)
                 .map(boolList -> Response.buildResponse(
                         Result.success(OK, String.format("Found books with title %s", query)),
                         boolList));
     }
+
+    @GetMapping(value = "/suggest")
+    public Mono<Response<List<SuggestionDto>>> suggestBooks(
+            @RequestParam(value = "prefix") final String prefix,
+            @RequestParam(value = "limit", required = false, defaultValue = "10") final Integer limit) {
+        return bookHandler.suggest(prefix, limit)
+                .map(suggestions -> Response.buildResponse(
+                        Result.success(OK, String.format("Suggestions for prefix %s", prefix)),
+                        suggestions));
+    }
 }
@@ -0,0 +1,30 @@
+package ru.abdusamatov.librarywithsecurity.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import ru.abdusamatov.librarywithsecurity.dto.CacheStatsDto;
+import ru.abdusamatov.librarywithsecurity.service.cache.TwoLevelCacheManager;
+import ru.ilyam.http.Response;
+import ru.ilyam.http.Result;
+
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.OK;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/caches")
+public class CacheController {
+    private final TwoLevelCacheManager cacheManager;
+
+    @GetMapping("/stats")
+    public Mono<Response<List<CacheStatsDto>>> getCacheStats() {
+        return Mono.fromSupplier(cacheManager::stats)
+                .map(stats -> Response.buildResponse(
+                        Result.success(OK, "Cache statistics"),
+                        stats));
+    }
+}
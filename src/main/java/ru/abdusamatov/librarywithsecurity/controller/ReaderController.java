@@ -1,22 +1,38 @@
 package ru.abdusamatov.librarywithsecurity.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.CursorPageDto;
 import ru.abdusamatov.librarywithsecurity.dto.FileDto;
+import ru.abdusamatov.librarywithsecurity.dto.MultiGetDto;
+import ru.abdusamatov.librarywithsecurity.dto.UserBookSort;
 import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+import ru.abdusamatov.librarywithsecurity.dto.UserListView;
 import ru.abdusamatov.librarywithsecurity.service.handler.ReaderHandler;
+import ru.abdusamatov.librarywithsecurity.service.idempotency.IdempotencyService;
+import ru.abdusamatov.librarywithsecurity.service.patch.JsonMergePatch;
+import ru.abdusamatov.librarywithsecurity.util.EntityTag;
 import ru.ilyam.http.Response;
 import ru.ilyam.http.Result;
 
@@ -32,25 +48,72 @@ import static org.springframework.http.HttpStatus.OK;
 public class ReaderController {
     private final ReaderHandler readerHandler;
 
-    @GetMapping
+    @GetMapping(params = {"!cursor", "!ids"})
     public Mono<Response<List<UserDto>>> getUserList(
             @RequestParam(value = "page", required = false, defaultValue = "0") final Integer page,
-            @RequestParam(value = "size", required = false, defaultValue = "20") final Integer size) {
+            @RequestParam(value = "size", required = false, defaultValue = "20") final Integer size,
+            @RequestParam(value = "view", required = false) final UserListView view,
+            @RequestParam(value = "fields", required = false) final String fields,
+            @RequestParam(value = "expand", required = false) final String expand) {
 
         return readerHandler
-                .getUserList(page, size)
+                .getUserList(page, size, view, fields, expand)
                 .map(users -> Response.buildResponse(
                         Result.success(OK, "List of users"),
                         users));
     }
 
+    @GetMapping(params = {"cursor", "!ids"})
+    public Mono<Response<CursorPageDto<UserDto>>> getUserPage(
+            @RequestParam(value = "cursor") final String cursor,
+            @RequestParam(value = "size", required = false, defaultValue = "20") final Integer size) {
+
+        return readerHandler
+                .getUserPage(cursor, size)
+                .map(page -> Response.buildResponse(
+                        Result.success(OK, "Page of users"),
+                        page));
+    }
+
+    @GetMapping(params = {"ids", "!cursor"})
+    public Mono<Response<MultiGetDto<UserDto>>> getUsersByIds(@RequestParam(value = "ids") final List<Long> ids) {
+        return readerHandler
+                .getUsersByIds(ids)
+                .map(users -> Response.buildResponse(
+                        Result.success(OK, "Users by IDs"),
+                        users));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserDto> exportUsers() {
+        return readerHandler.exportUsers();
+    }
+
     @GetMapping(value = "/{id}")
-    public Mono<Response<UserDto>> getUserById(@PathVariable("id") final Long id) {
+    public Mono<ResponseEntity<Response<UserDto>>> getUserById(
+            @PathVariable("id") final Long id,
+            @RequestParam(value = "fields", required = false) final String fields,
+            @RequestParam(value = "expand", required = false) final String expand,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) {
         return readerHandler
-                .getUserById(id)
-                .map(user -> Response.buildResponse(
+                .getUserById(id, fields, expand)
+                .map(user -> EntityTag.conditional(EntityTag.of(user), ifNoneMatch, () -> Response.buildResponse(
                         Result.success(OK, "User successfully found"),
-                        user));
+                        user)));
+    }
+
+    @GetMapping(value = "/{id}/books")
+    public Mono<Response<List<BookDto>>> getUserBooks(
+            @PathVariable("id") final Long id,
+            @RequestParam(value = "page", required = false, defaultValue = "0") final Integer page,
+            @RequestParam(value = "size", required = false, defaultValue = "20") final Integer size,
+            @RequestParam(value = "sort", required = false, defaultValue = "ID") final UserBookSort sort,
+            @RequestParam(value = "direction", required = false, defaultValue = "ASC") final Sort.Direction direction) {
+        return readerHandler
+                .getUserBooks(id, page, size, sort, direction)
+                .map(books -> Response.buildResponse(
+                        Result.success(OK, String.format("Books of user with ID %d", id)),
+                        books));
     }
 
     @GetMapping(value = "/{id}/document")
@@ -63,22 +126,38 @@ public class ReaderController {
     }
 
     @PostMapping
-    public Mono<Response<UserDto>> createUser(@RequestPart("file") final MultipartFile file,
-                                              @RequestPart("userDto") @Valid final UserDto userDto) {
+    public Mono<Response<UserDto>> createUser(
+            @RequestPart("file") final MultipartFile file,
+            @RequestPart("userDto") @Valid final UserDto userDto,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) final String idempotencyKey) {
         return readerHandler
-                .createUser(file, userDto)
+                .createUser(file, userDto, idempotencyKey)
                 .map(user -> Response.buildResponse(
                         Result.success(CREATED, "User successfully saved"),
                         user));
     }
 
     @PutMapping
-    public Mono<Response<UserDto>> updateUser(@Valid @RequestBody final UserDto userDto) {
+    public Mono<ResponseEntity<Response<UserDto>>> updateUser(
+            @Valid @RequestBody final UserDto userDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch) {
+        return readerHandler
+                .updateUser(userDto, ifMatch)
+                .map(updatedUser -> EntityTag.tagged(EntityTag.of(updatedUser), Response.buildResponse(
+                        Result.success(OK, "User successfully updated"),
+                        updatedUser)));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = JsonMergePatch.MEDIA_TYPE)
+    public Mono<ResponseEntity<Response<UserDto>>> patchUser(
+            @PathVariable("id") final Long id,
+            @RequestBody final JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch) {
         return readerHandler
-                .updateUser(userDto)
-                .map(updatedUser -> Response.buildResponse(
+                .patchUser(id, patch, ifMatch)
+                .map(patchedUser -> EntityTag.tagged(EntityTag.of(patchedUser), Response.buildResponse(
                         Result.success(OK, "User successfully updated"),
-                        updatedUser));
+                        patchedUser)));
     }
 
     @DeleteMapping(value = "/{id}")
@@ -0,0 +1,23 @@
+package ru.abdusamatov.librarywithsecurity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.ilyam.http.Response;
+
+/**
+ * Result of one batch operation: the HTTP status and response envelope its endpoint would have returned.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchItemDto {
+
+    private String id;
+
+    private int status;
+
+    private Response<?> response;
+}
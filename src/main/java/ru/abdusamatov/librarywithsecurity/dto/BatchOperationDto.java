@@ -0,0 +1,31 @@
+package ru.abdusamatov.librarywithsecurity.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+/**
+ * One sub-request of a batch: an operation of the book or reader API addressed by method and path, with the
+ * JSON body that endpoint expects. {@code id} is echoed back so clients can correlate results.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchOperationDto {
+
+    private String id;
+
+    @NotNull(message = "Operation method should not be null")
+    private RequestMethod method;
+
+    @NotBlank(message = "Operation path should not be empty")
+    private String path;
+
+    private JsonNode body;
+}
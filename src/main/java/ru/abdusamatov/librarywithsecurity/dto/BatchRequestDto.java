@@ -0,0 +1,22 @@
+package ru.abdusamatov.librarywithsecurity.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchRequestDto implements Serializable {
+
+    @Valid
+    @NotEmpty(message = "Batch operations should not be empty")
+    private List<BatchOperationDto> operations;
+}
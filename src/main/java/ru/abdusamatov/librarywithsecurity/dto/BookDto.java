@@ -2,6 +2,7 @@ package ru.abdusamatov.librarywithsecurity.dto;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -31,11 +32,16 @@ public class BookDto implements Serializable {
     @Size(min = 2, max = 30, message = "Author surname must be between 2 and 30 characters long")
     private String authorSurname;
 
+    @NotNull(message = "Year of publication should not be null")
     @Min(value = 1500, message = "Year must be greater than 1500")
-    private int yearOfPublication;
+    private Integer yearOfPublication;
 
     private LocalDateTime takenAt;
 
     private Long userId;
 
+    private UserDto owner;
+
+    private Long version;
+
 }
@@ -0,0 +1,20 @@
+package ru.abdusamatov.librarywithsecurity.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookIdsDto implements Serializable {
+
+    @NotEmpty(message = "Book IDs should not be empty")
+    private List<Long> ids;
+}
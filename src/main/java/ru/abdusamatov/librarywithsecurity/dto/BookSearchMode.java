@@ -0,0 +1,6 @@
+package ru.abdusamatov.librarywithsecurity.dto;
+
+public enum BookSearchMode {
+    CONTAINS,
+    PREFIX
+}
@@ -0,0 +1,24 @@
+package ru.abdusamatov.librarywithsecurity.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkAssignDto implements Serializable {
+
+    @NotNull(message = "User ID should not be null")
+    private Long userId;
+
+    @NotEmpty(message = "Book IDs should not be empty")
+    private List<Long> ids;
+}
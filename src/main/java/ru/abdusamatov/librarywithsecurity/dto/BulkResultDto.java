@@ -0,0 +1,36 @@
+package ru.abdusamatov.librarywithsecurity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Outcome of a bulk book operation: requested IDs split into the ones the operation applied to and the
+ * ones it skipped, because the book does not exist or, for assignment, is already taken.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkResultDto implements Serializable {
+
+    private List<Long> processedIds;
+
+    private List<Long> skippedIds;
+
+    public static BulkResultDto of(final List<Long> requestedIds, final Collection<Long> processedIds) {
+        return BulkResultDto.builder()
+                .processedIds(requestedIds.stream()
+                        .filter(processedIds::contains)
+                        .toList())
+                .skippedIds(requestedIds.stream()
+                        .filter(id -> !processedIds.contains(id))
+                        .toList())
+                .build();
+    }
+}
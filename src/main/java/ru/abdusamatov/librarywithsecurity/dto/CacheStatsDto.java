@@ -0,0 +1,35 @@
+package ru.abdusamatov.librarywithsecurity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Hit counters of one cache since startup, per level: the in-process near cache and Redis behind it. Remote
+ * counters only cover near misses.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheStatsDto {
+
+    private String name;
+
+    private long nearSize;
+
+    private long nearHits;
+
+    private long nearMisses;
+
+    private double nearHitRatio;
+
+    private long nearEvictions;
+
+    private long remoteHits;
+
+    private long remoteMisses;
+
+    private double remoteHitRatio;
+}
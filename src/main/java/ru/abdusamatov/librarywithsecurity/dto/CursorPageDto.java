@@ -0,0 +1,20 @@
+package ru.abdusamatov.librarywithsecurity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageDto<T> implements Serializable {
+
+    private List<T> content;
+
+    private String next;
+}
@@ -0,0 +1,69 @@
+package ru.abdusamatov.librarywithsecurity.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import ru.abdusamatov.librarywithsecurity.exception.InvalidFieldSelectionException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Parsed {@code fields=} and {@code expand=} request parameters. An empty field set stands for every field
+ * of the resource; associations are only loaded when listed in {@code expand}.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class FieldSelection {
+    private static final String ID = "id";
+
+    Set<String> fields;
+    Set<String> expansions;
+
+    public static FieldSelection parse(
+            final String fields,
+            final String expand,
+            final Set<String> allowedFields,
+            final Set<String> allowedExpansions
+    ) {
+        final var selectedFields = split("fields", fields, allowedFields);
+        if (!selectedFields.isEmpty()) {
+            selectedFields.add(ID);
+        }
+        return new FieldSelection(
+                Collections.unmodifiableSet(selectedFields),
+                Collections.unmodifiableSet(split("expand", expand, allowedExpansions)));
+    }
+
+    public static boolean isRequested(final String fields, final String expand) {
+        return fields != null || expand != null;
+    }
+
+    public boolean includes(final String field) {
+        return fields.isEmpty() || fields.contains(field);
+    }
+
+    public boolean expands(final String association) {
+        return expansions.contains(association);
+    }
+
+    private static Set<String> split(final String parameter, final String value, final Set<String> allowed) {
+        final var result = new LinkedHashSet<String>();
+        if (value == null) {
+            return result;
+        }
+
+        Arrays.stream(value.split(","))
+                .map(String::strip)
+                .filter(item -> !item.isEmpty())
+                .forEach(item -> {
+                    if (!allowed.contains(item)) {
+                        throw new InvalidFieldSelectionException(parameter, item, allowed);
+                    }
+                    result.add(item);
+                });
+        return result;
+    }
+}
@@ -0,0 +1,32 @@
+package ru.abdusamatov.librarywithsecurity.dto;
+
+import java.util.Locale;
+import java.util.Optional;
+
+public enum ImportFormat {
+    CSV,
+    NDJSON;
+
+    /**
+     * Format named by the request, otherwise guessed from the file name or content type.
+     */
+    public static Optional<ImportFormat> resolve(
+            final ImportFormat requested,
+            final String fileName,
+            final String contentType
+    ) {
+        if (requested != null) {
+            return Optional.of(requested);
+        }
+
+        final var name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        final var type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv") || type.startsWith("text/csv")) {
+            return Optional.of(CSV);
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || type.startsWith("application/x-ndjson")) {
+            return Optional.of(NDJSON);
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,40 @@
+package ru.abdusamatov.librarywithsecurity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportReportDto implements Serializable {
+
+    private long received;
+
+    private long imported;
+
+    private long failed;
+
+    private long durationMillis;
+
+    private double rowsPerSecond;
+
+    private List<RowError> errors;
+
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError implements Serializable {
+
+        private long line;
+
+        private String message;
+    }
+}
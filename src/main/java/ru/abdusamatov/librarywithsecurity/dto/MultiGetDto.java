@@ -0,0 +1,33 @@
+package ru.abdusamatov.librarywithsecurity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MultiGetDto<T> implements Serializable {
+
+    private List<T> content;
+
+    private List<Long> missingIds;
+
+    public static <T> MultiGetDto<T> of(final List<Long> requestedIds, final Map<Long, T> found) {
+        return MultiGetDto.<T>builder()
+                .content(requestedIds.stream()
+                        .filter(found::containsKey)
+                        .map(found::get)
+                        .toList())
+                .missingIds(requestedIds.stream()
+                        .filter(id -> !found.containsKey(id))
+                        .toList())
+                .build();
+    }
+}
@@ -0,0 +1,24 @@
+package ru.abdusamatov.librarywithsecurity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SuggestionDto implements Serializable {
+
+    private String text;
+
+    private Type type;
+
+    public enum Type {
+        TITLE,
+        AUTHOR
+    }
+}
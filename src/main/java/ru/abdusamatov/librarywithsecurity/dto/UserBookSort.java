@@ -0,0 +1,21 @@
+package ru.abdusamatov.librarywithsecurity.dto;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Orders of the {@code /users/{id}/books} page; ties are broken by ID so pages stay stable.
+ */
+@RequiredArgsConstructor
+public enum UserBookSort {
+    ID("id"),
+    TITLE("title"),
+    TAKEN_AT("takenAt");
+
+    private final String property;
+
+    public Sort toSort(final Sort.Direction direction) {
+        final var sort = Sort.by(direction, property);
+        return this == ID ? sort : sort.and(Sort.by(direction, ID.property));
+    }
+}
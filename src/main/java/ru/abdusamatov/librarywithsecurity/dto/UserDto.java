@@ -9,17 +9,14 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import lombok.ToString;
 import ru.abdusamatov.librarywithsecurity.util.annotation.AnnotationConstants;
 
 import java.io.Serializable;
 import java.time.LocalDate;
-import java.util.List;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@ToString(exclude = "books")
 @Builder
 public class UserDto implements Serializable {
 
@@ -39,5 +36,7 @@ public class UserDto implements Serializable {
 
     private DocumentDto documentDto;
 
-    private List<BookDto> books;
+    private Integer loanCount;
+
+    private Long version;
 }
@@ -0,0 +1,22 @@
+package ru.abdusamatov.librarywithsecurity.event;
+
+import lombok.Value;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+
+@Value
+public class BookChangedEvent {
+    Long bookId;
+
+    /**
+     * State of the book after the change, {@code null} when the book was deleted.
+     */
+    BookDto book;
+
+    public static BookChangedEvent saved(final BookDto book) {
+        return new BookChangedEvent(book.getId(), book);
+    }
+
+    public static BookChangedEvent deleted(final Long bookId) {
+        return new BookChangedEvent(bookId, null);
+    }
+}
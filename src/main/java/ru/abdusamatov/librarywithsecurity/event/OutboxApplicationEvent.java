@@ -3,7 +3,9 @@ package ru.abdusamatov.librarywithsecurity.event;
 import lombok.Value;
 import ru.abdusamatov.librarywithsecurity.model.OutboxDomainEvent;
 
+import java.util.List;
+
 @Value
 public class OutboxApplicationEvent {
-    OutboxDomainEvent outboxDomainEvent;
+    List<OutboxDomainEvent> outboxDomainEvents;
 }
@@ -0,0 +1,7 @@
+package ru.abdusamatov.librarywithsecurity.exception;
+
+public class BookAlreadyAssignedException extends RuntimeException {
+    public BookAlreadyAssignedException(final Long bookId) {
+        super(String.format("Book with ID: %s, is already assigned to another reader", bookId));
+    }
+}
@@ -0,0 +1,7 @@
+package ru.abdusamatov.librarywithsecurity.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(final String key) {
+        super(String.format("Idempotency-Key: %s, was already used with a different request", key));
+    }
+}
@@ -0,0 +1,7 @@
+package ru.abdusamatov.librarywithsecurity.exception;
+
+public class IdempotentRequestInProgressException extends RuntimeException {
+    public IdempotentRequestInProgressException(final String key) {
+        super(String.format("Request with Idempotency-Key: %s, is still being processed", key));
+    }
+}
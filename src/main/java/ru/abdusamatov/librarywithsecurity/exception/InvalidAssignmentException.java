@@ -0,0 +1,7 @@
+package ru.abdusamatov.librarywithsecurity.exception;
+
+public class InvalidAssignmentException extends RuntimeException {
+    public InvalidAssignmentException(final Long bookId) {
+        super(String.format("Book with ID: %s cannot be assigned without a user ID", bookId));
+    }
+}
@@ -0,0 +1,7 @@
+package ru.abdusamatov.librarywithsecurity.exception;
+
+public class InvalidBatchOperationException extends RuntimeException {
+    public InvalidBatchOperationException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.abdusamatov.librarywithsecurity.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(final String cursor) {
+        super(String.format("Cursor %s is malformed or does not match the requested sort", cursor));
+    }
+}
@@ -0,0 +1,13 @@
+package ru.abdusamatov.librarywithsecurity.exception;
+
+import java.util.Set;
+
+public class InvalidFieldSelectionException extends RuntimeException {
+    public InvalidFieldSelectionException(final String message) {
+        super(message);
+    }
+
+    public InvalidFieldSelectionException(final String parameter, final String value, final Set<String> allowed) {
+        super(String.format("Unknown %s value %s, expected one of %s", parameter, value, allowed));
+    }
+}
@@ -0,0 +1,7 @@
+package ru.abdusamatov.librarywithsecurity.exception;
+
+public class InvalidImportFileException extends RuntimeException {
+    public InvalidImportFileException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package ru.abdusamatov.librarywithsecurity.exception;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
+public class InvalidPatchException extends RuntimeException {
+    private final Map<String, String> errors;
+
+    public InvalidPatchException(final Map<String, String> errors) {
+        super("Invalid merge patch: " + errors);
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,7 @@
+package ru.abdusamatov.librarywithsecurity.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(final String resourceName, final Long id) {
+        super(String.format("%s with ID: %s, was modified since the given If-Match version", resourceName, id));
+    }
+}
@@ -0,0 +1,7 @@
+package ru.abdusamatov.librarywithsecurity.exception;
+
+public class TooManyIdsException extends RuntimeException {
+    public TooManyIdsException(final int requested, final int max) {
+        super(String.format("Requested %d IDs, at most %d are allowed per request", requested, max));
+    }
+}
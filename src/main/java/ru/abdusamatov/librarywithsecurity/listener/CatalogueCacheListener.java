@@ -0,0 +1,22 @@
+package ru.abdusamatov.librarywithsecurity.listener;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.abdusamatov.librarywithsecurity.event.BookChangedEvent;
+import ru.abdusamatov.librarywithsecurity.service.cache.CatalogueCache;
+
+@Component
+@RequiredArgsConstructor
+public class CatalogueCacheListener {
+    private final CatalogueCache catalogueCache;
+
+    /**
+     * Runs inside the changing transaction, so the books changed by one transaction move the catalogue
+     * version once, after it commits.
+     */
+    @EventListener
+    public void onBookChanged(final BookChangedEvent event) {
+        catalogueCache.invalidate();
+    }
+}
@@ -0,0 +1,23 @@
+package ru.abdusamatov.librarywithsecurity.listener;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.abdusamatov.librarywithsecurity.event.BookChangedEvent;
+import ru.abdusamatov.librarywithsecurity.service.search.CatalogueSearchEngine;
+
+@Component
+@RequiredArgsConstructor
+public class CatalogueIndexListener {
+    private final CatalogueSearchEngine searchEngine;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getBook() == null) {
+            searchEngine.remove(event.getBookId());
+        } else {
+            searchEngine.index(event.getBook());
+        }
+    }
+}
@@ -14,6 +14,6 @@ public class OutboxApplicationEventListener {
 
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     public void onOutboxApplicationEvent(OutboxApplicationEvent appEvent) {
-        outboxService.sendFromOutbox(appEvent.getOutboxDomainEvent());
+        outboxService.sendFromOutbox(appEvent.getOutboxDomainEvents());
     }
 }
@@ -19,8 +19,14 @@ import lombok.experimental.SuperBuilder;
 @SuperBuilder
 public abstract class BaseEntity {
 
+    /**
+     * Generator name used by {@link #id}; every subclass declares a {@code @SequenceGenerator} with this
+     * name pointing at its own table's sequence.
+     */
+    public static final String ID_GENERATOR = "entity_id_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_GENERATOR)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -2,6 +2,7 @@ package ru.abdusamatov.librarywithsecurity.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -11,6 +12,11 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "outbox_events", schema = "library")
+@SequenceGenerator(
+        name = BaseEntity.ID_GENERATOR,
+        schema = "library",
+        sequenceName = "outbox_events_id_seq",
+        allocationSize = 50)
 @Getter
 @Setter
 @Builder
@@ -9,18 +9,23 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Formula;
 
 import java.time.LocalDate;
 import java.util.List;
 
 @Entity
+@DynamicUpdate
 @Table(name = "user", schema = "library")
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,7 +36,12 @@ import java.util.List;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_id_seq")
+    @SequenceGenerator(
+            name = "user_id_seq",
+            schema = "library",
+            sequenceName = "user_id_seq",
+            allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -44,7 +54,18 @@ public class User {
     @Column(name = "date_of_birth")
     private LocalDate dateOfBirth;
 
-    @OneToMany(mappedBy = "owner", fetch = FetchType.EAGER)
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    /**
+     * Number of books on loan, counted through the {@code owner_id} index whenever the user is loaded; the
+     * books themselves are paged through {@code /users/{id}/books}.
+     */
+    @Formula("(SELECT count(*) FROM library.book b WHERE b.owner_id = id)")
+    private int loanCount;
+
+    @OneToMany(mappedBy = "owner", fetch = FetchType.LAZY)
     private List<Book> books;
 
     @OneToOne(mappedBy = "owner", cascade = {CascadeType.PERSIST, CascadeType.MERGE}, orphanRemoval = true)
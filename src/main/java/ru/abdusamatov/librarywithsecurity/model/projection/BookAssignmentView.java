@@ -0,0 +1,9 @@
+package ru.abdusamatov.librarywithsecurity.model.projection;
+
+/**
+ * Book row returned by the assigning {@code UPDATE}, together with the new owner's name for the
+ * assignment notification.
+ */
+public interface BookAssignmentView extends BookView {
+    String getOwnerFullName();
+}
@@ -0,0 +1,10 @@
+package ru.abdusamatov.librarywithsecurity.model.projection;
+
+/**
+ * ID and owner of a deleted book row.
+ */
+public interface BookOwnerView {
+    Long getId();
+
+    Long getOwnerId();
+}
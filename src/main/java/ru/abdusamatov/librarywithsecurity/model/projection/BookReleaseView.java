@@ -0,0 +1,9 @@
+package ru.abdusamatov.librarywithsecurity.model.projection;
+
+/**
+ * Book row returned by the releasing {@code UPDATE}, together with the owner it was taken from, whose loan
+ * count just changed.
+ */
+public interface BookReleaseView extends BookView {
+    Long getPreviousOwnerId();
+}
@@ -0,0 +1,13 @@
+package ru.abdusamatov.librarywithsecurity.model.projection;
+
+public interface BookSuggestionView {
+    Long getId();
+
+    String getTitle();
+
+    String getAuthorName();
+
+    String getAuthorSurname();
+
+    int getBorrowCount();
+}
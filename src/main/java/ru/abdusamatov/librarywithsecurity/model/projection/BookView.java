@@ -0,0 +1,25 @@
+package ru.abdusamatov.librarywithsecurity.model.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only book row carrying the owner as a plain {@code owner_id}, so reads never load the owner and the
+ * eager {@code User.books} collection behind it.
+ */
+public interface BookView {
+    Long getId();
+
+    String getTitle();
+
+    String getAuthorName();
+
+    String getAuthorSurname();
+
+    int getYearOfPublication();
+
+    LocalDateTime getTakenAt();
+
+    Long getUserId();
+
+    Long getVersion();
+}
@@ -0,0 +1,13 @@
+package ru.abdusamatov.librarywithsecurity.model.projection;
+
+import java.time.LocalDate;
+
+public interface UserSummaryView {
+    Long getId();
+
+    String getFullName();
+
+    String getEmail();
+
+    LocalDate getDateOfBirth();
+}
@@ -0,0 +1,58 @@
+package ru.abdusamatov.librarywithsecurity.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+import org.springframework.stereotype.Repository;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Bulk insert of new books through PostgreSQL {@code COPY ... FROM STDIN}. Every call is a single
+ * statement on an auto-commit connection, so a chunk is stored completely or not at all.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookCopyRepository {
+    private static final String COPY_SQL = """
+            COPY library.book (title, author_name, author_surname, year_of_publication)
+            FROM STDIN WITH (FORMAT csv)""";
+
+    private final DataSource dataSource;
+
+    public long copy(final List<BookDto> books) {
+        try (var connection = dataSource.getConnection()) {
+            final var copyIn = new CopyManager(connection.unwrap(BaseConnection.class)).copyIn(COPY_SQL);
+            try {
+                for (final var book : books) {
+                    final var row = toCsvRow(book).getBytes(StandardCharsets.UTF_8);
+                    copyIn.writeToCopy(row, 0, row.length);
+                }
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        } catch (SQLException ex) {
+            throw new SQLStateSQLExceptionTranslator().translate("COPY books", COPY_SQL, ex);
+        }
+    }
+
+    private static String toCsvRow(final BookDto book) {
+        return String.join(",",
+                quote(book.getTitle()),
+                quote(book.getAuthorName()),
+                quote(book.getAuthorSurname()),
+                String.valueOf(book.getYearOfPublication())) + '\n';
+    }
+
+    private static String quote(final String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,14 +1,201 @@
 package ru.abdusamatov.librarywithsecurity.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.abdusamatov.librarywithsecurity.model.Book;
+import ru.abdusamatov.librarywithsecurity.model.projection.BookAssignmentView;
+import ru.abdusamatov.librarywithsecurity.model.projection.BookOwnerView;
+import ru.abdusamatov.librarywithsecurity.model.projection.BookReleaseView;
+import ru.abdusamatov.librarywithsecurity.model.projection.BookSuggestionView;
+import ru.abdusamatov.librarywithsecurity.model.projection.BookView;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
-    @Query("SELECT b FROM Book b WHERE b.title LIKE CONCAT('%',:query, '%')")
-    List<Book> findByTitleStartingWith(String query);
+public interface BookRepository extends JpaRepository<Book, Long>, BookSelectionRepository {
+    String BOOK_VIEW_COLUMNS = """
+            SELECT id, title, author_name AS "authorName", author_surname AS "authorSurname",
+                   year_of_publication AS "yearOfPublication", taken_at AS "takenAt", owner_id AS "userId",
+                   version
+            FROM library.book
+            """;
+
+    String BOOK_VIEW_SELECT = """
+            SELECT b.id AS id, b.title AS title, b.authorName AS authorName, b.authorSurname AS authorSurname,
+                   b.yearOfPublication AS yearOfPublication, b.takenAt AS takenAt, b.owner.id AS userId,
+                   b.version AS version
+            FROM Book b
+            """;
+
+    String BOOK_VIEW_RETURNING = """
+            RETURNING b.id, b.title, b.author_name AS "authorName", b.author_surname AS "authorSurname",
+                      b.year_of_publication AS "yearOfPublication", b.taken_at AS "takenAt", b.owner_id AS "userId",
+                      b.version
+            """;
+
+    /**
+     * Hands a free book to an existing user in one conditional statement; empty when the book is taken, its
+     * version differs from a non-null {@code version}, or either row does not exist, so concurrent assigners
+     * cannot overwrite each other.
+     */
+    @Query(value = """
+            UPDATE library.book b
+            SET owner_id = u.id, taken_at = LOCALTIMESTAMP, borrow_count = b.borrow_count + 1,
+                version = b.version + 1
+            FROM library.user u
+            WHERE b.id = :id AND b.owner_id IS NULL AND u.id = :userId
+              AND (CAST(:version AS BIGINT) IS NULL OR b.version = :version)
+            """ + BOOK_VIEW_RETURNING + ", u.full_name AS \"ownerFullName\"", nativeQuery = true)
+    Optional<BookAssignmentView> assignIfFree(Long id, Long userId, Long version);
+
+    /**
+     * Frees the book and returns the owner it was taken from. The CTE locks the row first, so under READ
+     * COMMITTED it reads the owner a concurrent assignment committed rather than a stale snapshot of the row.
+     */
+    @Query(value = """
+            WITH previous AS (
+                SELECT id, owner_id FROM library.book WHERE id = :id FOR UPDATE
+            )
+            UPDATE library.book b
+            SET owner_id = NULL, taken_at = NULL, version = b.version + 1
+            FROM previous
+            WHERE b.id = previous.id
+            """ + BOOK_VIEW_RETURNING + ", previous.owner_id AS \"previousOwnerId\"", nativeQuery = true)
+    Optional<BookReleaseView> release(Long id);
+
+    /**
+     * Set-based {@link #assignIfFree}: hands every free book among {@code ids} to the user, skipping taken
+     * and missing ones. Like the other bulk statements it locks the rows in ID order first, so bulk
+     * operations over overlapping IDs wait for each other instead of deadlocking.
+     */
+    @Query(value = """
+            WITH locked AS (
+                SELECT id FROM library.book WHERE id IN (:ids) ORDER BY id FOR UPDATE
+            )
+            UPDATE library.book b
+            SET owner_id = u.id, taken_at = LOCALTIMESTAMP, borrow_count = b.borrow_count + 1,
+                version = b.version + 1
+            FROM locked, library.user u
+            WHERE b.id = locked.id AND b.owner_id IS NULL AND u.id = :userId
+            """ + BOOK_VIEW_RETURNING + ", u.full_name AS \"ownerFullName\"", nativeQuery = true)
+    List<BookAssignmentView> assignAllIfFree(Collection<Long> ids, Long userId);
+
+    /**
+     * Set-based {@link #release}.
+     */
+    @Query(value = """
+            WITH previous AS (
+                SELECT id, owner_id FROM library.book WHERE id IN (:ids) ORDER BY id FOR UPDATE
+            )
+            UPDATE library.book b
+            SET owner_id = NULL, taken_at = NULL, version = b.version + 1
+            FROM previous
+            WHERE b.id = previous.id
+            """ + BOOK_VIEW_RETURNING + ", previous.owner_id AS \"previousOwnerId\"", nativeQuery = true)
+    List<BookReleaseView> releaseAll(Collection<Long> ids);
+
+    /**
+     * Frees every book of the owner, as deleting the owner would through {@code ON DELETE SET NULL}, but
+     * moving their versions and returning them.
+     */
+    @Query(value = """
+            WITH locked AS (
+                SELECT id FROM library.book WHERE owner_id = :ownerId ORDER BY id FOR UPDATE
+            )
+            UPDATE library.book b
+            SET owner_id = NULL, taken_at = NULL, version = b.version + 1
+            FROM locked
+            WHERE b.id = locked.id AND b.owner_id = :ownerId
+            """ + BOOK_VIEW_RETURNING, nativeQuery = true)
+    List<BookView> releaseAllByOwnerId(Long ownerId);
+
+    @Query(value = """
+            WITH locked AS (
+                SELECT id FROM library.book WHERE id IN (:ids) ORDER BY id FOR UPDATE
+            )
+            DELETE FROM library.book b
+            USING locked
+            WHERE b.id = locked.id
+            RETURNING b.id, b.owner_id AS "ownerId"
+            """, nativeQuery = true)
+    List<BookOwnerView> deleteAllReturningOwners(Collection<Long> ids);
+
+    /**
+     * Deletes without loading the book first; empty when no row was deleted.
+     */
+    @Query(value = """
+            DELETE FROM library.book b
+            WHERE b.id = :id
+            RETURNING b.id, b.owner_id AS "ownerId"
+            """, nativeQuery = true)
+    Optional<BookOwnerView> deleteBookById(Long id);
+
+    @Query(BOOK_VIEW_SELECT)
+    List<BookView> findAllViews(Pageable pageable);
+
+    @Query(BOOK_VIEW_SELECT + "WHERE b.id = :id")
+    Optional<BookView> findViewById(Long id);
+
+    @Query(BOOK_VIEW_SELECT + "WHERE b.id IN :ids")
+    List<BookView> findViewsByIdIn(Collection<Long> ids);
+
+    @Query(BOOK_VIEW_SELECT + "WHERE b.owner.id IN :ownerIds ORDER BY b.id")
+    List<BookView> findViewsByOwnerIdIn(Collection<Long> ownerIds);
+
+    @Query(BOOK_VIEW_SELECT + "WHERE b.owner.id = :ownerId")
+    List<BookView> findViewsByOwnerId(Long ownerId, Pageable pageable);
+
+    @Query(value = BOOK_VIEW_COLUMNS + """
+            WHERE title ILIKE '%' || :pattern || '%'
+            ORDER BY similarity(title, :query) DESC, id
+            LIMIT :limit OFFSET :offset""", nativeQuery = true)
+    List<BookView> findByTitleContaining(String pattern, String query, int limit, long offset);
+
+    /**
+     * Books whose title starts with {@code pattern}, compared and ordered bytewise so that both the match and
+     * the order come from {@code idx_book_title_c_id}.
+     */
+    @Query(value = BOOK_VIEW_COLUMNS + """
+            WHERE title COLLATE "C" LIKE :pattern || '%'
+            ORDER BY title COLLATE "C", id
+            LIMIT :limit OFFSET :offset""", nativeQuery = true)
+    List<BookView> findByTitleStartingWith(String pattern, int limit, long offset);
+
+    @Query(value = BOOK_VIEW_COLUMNS + "ORDER BY title, id LIMIT :limit", nativeQuery = true)
+    List<BookView> findFirstOrderByTitle(int limit);
+
+    @Query(value = BOOK_VIEW_COLUMNS + """
+            WHERE (title, id) > (:title, :id)
+            ORDER BY title, id
+            LIMIT :limit""", nativeQuery = true)
+    List<BookView> findAfterOrderByTitle(String title, long id, int limit);
+
+    @Query(value = BOOK_VIEW_COLUMNS + "WHERE id > :id ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<BookView> findAfterOrderById(long id, int limit);
+
+    @Query("""
+            SELECT b.id AS id, b.title AS title, b.authorName AS authorName,
+                   b.authorSurname AS authorSurname, b.borrowCount AS borrowCount
+            FROM Book b
+            WHERE b.id > :id
+            ORDER BY b.id""")
+    List<BookSuggestionView> findSuggestionViewsAfter(long id, Pageable pageable);
+
+    @Query("SELECT b.id FROM Book b ORDER BY b.borrowCount DESC, b.id")
+    List<Long> findMostBorrowedIds(Pageable pageable);
+
+    /**
+     * Readers holding the most books right now.
+     */
+    @Query("""
+            SELECT b.owner.id
+            FROM Book b
+            WHERE b.owner IS NOT NULL
+            GROUP BY b.owner.id
+            ORDER BY count(b) DESC, b.owner.id""")
+    List<Long> findMostActiveOwnerIds(Pageable pageable);
 }
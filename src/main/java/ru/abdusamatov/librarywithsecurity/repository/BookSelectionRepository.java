@@ -0,0 +1,23 @@
+package ru.abdusamatov.librarywithsecurity.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.FieldSelection;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Book reads that select only the requested columns and join the owner only when it is expanded.
+ */
+public interface BookSelectionRepository {
+    Set<String> FIELDS = Set.of(
+            "id", "title", "authorName", "authorSurname", "yearOfPublication", "takenAt", "userId");
+
+    Set<String> EXPANSIONS = Set.of("owner");
+
+    List<BookDto> findSelected(FieldSelection selection, Pageable pageable);
+
+    Optional<BookDto> findSelectedById(Long id, FieldSelection selection);
+}
@@ -0,0 +1,106 @@
+package ru.abdusamatov.librarywithsecurity.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.FieldSelection;
+import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+import ru.abdusamatov.librarywithsecurity.model.Book;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+public class BookSelectionRepositoryImpl implements BookSelectionRepository {
+    private static final String OWNER = "owner";
+    private static final String OWNER_ALIAS_PREFIX = "owner_";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookDto> findSelected(final FieldSelection selection, final Pageable pageable) {
+        final var builder = entityManager.getCriteriaBuilder();
+        final var query = builder.createTupleQuery();
+        final var book = select(query, selection);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), book, builder));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultStream()
+                .map(tuple -> toDto(tuple, selection))
+                .toList();
+    }
+
+    @Override
+    public Optional<BookDto> findSelectedById(final Long id, final FieldSelection selection) {
+        final var builder = entityManager.getCriteriaBuilder();
+        final var query = builder.createTupleQuery();
+        final var book = select(query, selection);
+        query.where(builder.equal(book.get("id"), id));
+
+        return entityManager.createQuery(query)
+                .getResultStream()
+                .findFirst()
+                .map(tuple -> toDto(tuple, selection));
+    }
+
+    private static Root<Book> select(final CriteriaQuery<Tuple> query, final FieldSelection selection) {
+        final var book = query.from(Book.class);
+        final var selections = new ArrayList<Selection<?>>();
+
+        FIELDS.stream()
+                .filter(selection::includes)
+                .forEach(field -> selections.add(column(book, field).alias(field)));
+
+        if (selection.expands(OWNER)) {
+            final var owner = book.join(OWNER, JoinType.LEFT);
+            UserSelectionRepository.FIELDS
+                    .forEach(field -> selections.add(owner.get(field).alias(OWNER_ALIAS_PREFIX + field)));
+        }
+
+        query.multiselect(selections);
+        return book;
+    }
+
+    private static Path<?> column(final Root<Book> book, final String field) {
+        return "userId".equals(field)
+                ? book.get(OWNER).get("id")
+                : book.get(field);
+    }
+
+    private static BookDto toDto(final Tuple tuple, final FieldSelection selection) {
+        final var dto = new BookDto();
+        final Function<String, Object> value = field -> selection.includes(field) ? tuple.get(field) : null;
+
+        dto.setId((Long) value.apply("id"));
+        dto.setTitle((String) value.apply("title"));
+        dto.setAuthorName((String) value.apply("authorName"));
+        dto.setAuthorSurname((String) value.apply("authorSurname"));
+        dto.setYearOfPublication((Integer) value.apply("yearOfPublication"));
+        dto.setTakenAt((LocalDateTime) value.apply("takenAt"));
+        dto.setUserId((Long) value.apply("userId"));
+
+        if (selection.expands(OWNER) && tuple.get(OWNER_ALIAS_PREFIX + "id") != null) {
+            dto.setOwner(UserDto.builder()
+                    .id(tuple.get(OWNER_ALIAS_PREFIX + "id", Long.class))
+                    .fullName(tuple.get(OWNER_ALIAS_PREFIX + "fullName", String.class))
+                    .email(tuple.get(OWNER_ALIAS_PREFIX + "email", String.class))
+                    .dateOfBirth(tuple.get(OWNER_ALIAS_PREFIX + "dateOfBirth", LocalDate.class))
+                    .build());
+        }
+        return dto;
+    }
+}
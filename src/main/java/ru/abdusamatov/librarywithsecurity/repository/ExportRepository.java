@@ -0,0 +1,155 @@
+package ru.abdusamatov.librarywithsecurity.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Schedulers;
+import ru.abdusamatov.librarywithsecurity.config.LibraryProperties;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.DocumentDto;
+import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Full-table reads for the NDJSON export. Each export runs on its own connection in a read-only
+ * {@code REPEATABLE READ} transaction, so it sees one snapshot, and pulls rows through a server-side cursor
+ * one fetch at a time as the HTTP writer requests them.
+ *
+ * <p>Spring MVC streams NDJSON without the async request timeout, so an export may run as long as it needs;
+ * it is only ended, closing its cursor, when no row arrives within {@code library.export.idle-timeout},
+ * e.g. because the client stopped reading.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class ExportRepository {
+    private static final String BOOKS_SQL = """
+            SELECT id, title, author_name, author_surname, year_of_publication, taken_at, owner_id
+            FROM library.book
+            ORDER BY id""";
+
+    private static final String USERS_SQL = """
+            SELECT u.id, u.full_name, u.email, u.date_of_birth,
+                   (SELECT count(*) FROM library.book b WHERE b.owner_id = u.id) AS loan_count,
+                   d.id AS document_id, d.bucket_name, d.file_name
+            FROM library.user u
+            LEFT JOIN library.document d ON d.user_id = u.id
+            ORDER BY u.id""";
+
+    private final DataSource dataSource;
+    private final LibraryProperties properties;
+
+    public Flux<BookDto> streamBooks() {
+        return stream(BOOKS_SQL, (rs, rowNum) -> BookDto.builder()
+                .id(rs.getLong("id"))
+                .title(rs.getString("title"))
+                .authorName(rs.getString("author_name"))
+                .authorSurname(rs.getString("author_surname"))
+                .yearOfPublication(rs.getInt("year_of_publication"))
+                .takenAt(Optional.ofNullable(rs.getTimestamp("taken_at"))
+                        .map(Timestamp::toLocalDateTime)
+                        .orElse(null))
+                .userId(rs.getObject("owner_id", Long.class))
+                .build());
+    }
+
+    public Flux<UserDto> streamUsers() {
+        return stream(USERS_SQL, (rs, rowNum) -> {
+            final var user = UserDto.builder()
+                    .id(rs.getLong("id"))
+                    .fullName(rs.getString("full_name"))
+                    .email(rs.getString("email"))
+                    .dateOfBirth(rs.getObject("date_of_birth", LocalDate.class))
+                    .loanCount(rs.getInt("loan_count"))
+                    .build();
+            final var documentId = rs.getObject("document_id", Long.class);
+            if (documentId != null) {
+                user.setDocumentDto(DocumentDto.builder()
+                        .id(documentId)
+                        .bucketName(rs.getString("bucket_name"))
+                        .fileName(rs.getString("file_name"))
+                        .userId(user.getId())
+                        .build());
+            }
+            return user;
+        });
+    }
+
+    private <T> Flux<T> stream(final String sql, final RowMapper<T> rowMapper) {
+        return Flux.using(
+                        () -> Cursor.open(dataSource, sql, properties.getExport().getFetchSize()),
+                        cursor -> Flux.<T>generate(sink -> cursor.next(sink, rowMapper)),
+                        Cursor::close)
+                .subscribeOn(Schedulers.boundedElastic())
+                .timeout(properties.getExport().getIdleTimeout());
+    }
+
+    private static final class Cursor {
+        private final String sql;
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private int rowNum;
+
+        private Cursor(
+                final String sql,
+                final Connection connection,
+                final PreparedStatement statement,
+                final ResultSet resultSet
+        ) {
+            this.sql = sql;
+            this.connection = connection;
+            this.statement = statement;
+            this.resultSet = resultSet;
+        }
+
+        static Cursor open(final DataSource dataSource, final String sql, final int fetchSize) throws SQLException {
+            final var connection = dataSource.getConnection();
+            try {
+                connection.setAutoCommit(false);
+                connection.setReadOnly(true);
+                connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+
+                final var statement = connection.prepareStatement(
+                        sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return new Cursor(sql, connection, statement, statement.executeQuery());
+            } catch (SQLException ex) {
+                connection.close();
+                throw ex;
+            }
+        }
+
+        <T> void next(final SynchronousSink<T> sink, final RowMapper<T> rowMapper) {
+            try {
+                if (resultSet.next()) {
+                    sink.next(rowMapper.mapRow(resultSet, rowNum++));
+                } else {
+                    sink.complete();
+                }
+            } catch (SQLException ex) {
+                sink.error(new UncategorizedSQLException("Export", sql, ex));
+            }
+        }
+
+        void close() {
+            try (connection; statement; resultSet) {
+                connection.rollback();
+            } catch (SQLException ex) {
+                log.warn("Failed to close export cursor after {} rows", rowNum, ex);
+            }
+        }
+    }
+}
@@ -1,9 +1,40 @@
 package ru.abdusamatov.librarywithsecurity.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.abdusamatov.librarywithsecurity.model.User;
+import ru.abdusamatov.librarywithsecurity.model.projection.UserSummaryView;
+
+import java.util.Collection;
+import java.util.List;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserSelectionRepository {
+
+    @Query("SELECT u.id FROM User u")
+    List<Long> findIds(Pageable pageable);
+
+    @Query(value = "SELECT id FROM library.user WHERE id > :id ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsAfter(long id, int limit);
+
+    /**
+     * Deletes without loading the user first; the database cascades to the document and detaches the books.
+     * Returns the number of deleted rows.
+     */
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = :id")
+    int deleteUserById(Long id);
+
+    @EntityGraph(attributePaths = "document")
+    @Query("SELECT u FROM User u WHERE u.id IN :ids ORDER BY u.id")
+    List<User> findAllWithDocumentByIdIn(Collection<Long> ids);
+
+    @Query("""
+            SELECT u.id AS id, u.fullName AS fullName, u.email AS email, u.dateOfBirth AS dateOfBirth
+            FROM User u""")
+    List<UserSummaryView> findSummaries(Pageable pageable);
 }
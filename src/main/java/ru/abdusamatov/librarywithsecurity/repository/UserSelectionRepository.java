@@ -0,0 +1,22 @@
+package ru.abdusamatov.librarywithsecurity.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.abdusamatov.librarywithsecurity.dto.FieldSelection;
+import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * User reads that select only the requested columns and join the document only when it is expanded.
+ */
+public interface UserSelectionRepository {
+    Set<String> FIELDS = Set.of("id", "fullName", "email", "dateOfBirth", "loanCount");
+
+    Set<String> EXPANSIONS = Set.of("document");
+
+    List<UserDto> findSelected(FieldSelection selection, Pageable pageable);
+
+    Optional<UserDto> findSelectedById(Long id, FieldSelection selection);
+}
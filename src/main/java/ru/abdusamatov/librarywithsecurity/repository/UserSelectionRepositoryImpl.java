@@ -0,0 +1,98 @@
+package ru.abdusamatov.librarywithsecurity.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import ru.abdusamatov.librarywithsecurity.dto.DocumentDto;
+import ru.abdusamatov.librarywithsecurity.dto.FieldSelection;
+import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+import ru.abdusamatov.librarywithsecurity.model.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+public class UserSelectionRepositoryImpl implements UserSelectionRepository {
+    private static final String DOCUMENT = "document";
+    private static final String DOCUMENT_ALIAS_PREFIX = "document_";
+    private static final Set<String> DOCUMENT_FIELDS = Set.of("id", "bucketName", "fileName");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserDto> findSelected(final FieldSelection selection, final Pageable pageable) {
+        final var builder = entityManager.getCriteriaBuilder();
+        final var query = builder.createTupleQuery();
+        final var user = select(query, selection);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), user, builder));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultStream()
+                .map(tuple -> toDto(tuple, selection))
+                .toList();
+    }
+
+    @Override
+    public Optional<UserDto> findSelectedById(final Long id, final FieldSelection selection) {
+        final var builder = entityManager.getCriteriaBuilder();
+        final var query = builder.createTupleQuery();
+        final var user = select(query, selection);
+        query.where(builder.equal(user.get("id"), id));
+
+        return entityManager.createQuery(query)
+                .getResultStream()
+                .findFirst()
+                .map(tuple -> toDto(tuple, selection));
+    }
+
+    private static Root<User> select(final CriteriaQuery<Tuple> query, final FieldSelection selection) {
+        final var user = query.from(User.class);
+        final var selections = new ArrayList<Selection<?>>();
+
+        FIELDS.stream()
+                .filter(selection::includes)
+                .forEach(field -> selections.add(user.get(field).alias(field)));
+
+        if (selection.expands(DOCUMENT)) {
+            final var document = user.join(DOCUMENT, JoinType.LEFT);
+            DOCUMENT_FIELDS
+                    .forEach(field -> selections.add(document.get(field).alias(DOCUMENT_ALIAS_PREFIX + field)));
+        }
+
+        query.multiselect(selections);
+        return user;
+    }
+
+    private static UserDto toDto(final Tuple tuple, final FieldSelection selection) {
+        final var dto = new UserDto();
+        final Function<String, Object> value = field -> selection.includes(field) ? tuple.get(field) : null;
+
+        dto.setId((Long) value.apply("id"));
+        dto.setFullName((String) value.apply("fullName"));
+        dto.setEmail((String) value.apply("email"));
+        dto.setDateOfBirth((LocalDate) value.apply("dateOfBirth"));
+        dto.setLoanCount((Integer) value.apply("loanCount"));
+
+        if (selection.expands(DOCUMENT) && tuple.get(DOCUMENT_ALIAS_PREFIX + "id") != null) {
+            dto.setDocumentDto(DocumentDto.builder()
+                    .id(tuple.get(DOCUMENT_ALIAS_PREFIX + "id", Long.class))
+                    .bucketName(tuple.get(DOCUMENT_ALIAS_PREFIX + "bucketName", String.class))
+                    .fileName(tuple.get(DOCUMENT_ALIAS_PREFIX + "fileName", String.class))
+                    .userId(dto.getId())
+                    .build());
+        }
+        return dto;
+    }
+}
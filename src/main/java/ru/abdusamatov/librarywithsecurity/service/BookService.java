@@ -1,135 +1,431 @@
 package ru.abdusamatov.librarywithsecurity.service;
 
 
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import ru.abdusamatov.librarywithsecurity.config.LibraryProperties;
 import ru.abdusamatov.librarywithsecurity.dto.BookDto;
-import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+import ru.abdusamatov.librarywithsecurity.dto.BookSearchMode;
+import ru.abdusamatov.librarywithsecurity.dto.BulkResultDto;
+import ru.abdusamatov.librarywithsecurity.dto.CursorPageDto;
+import ru.abdusamatov.librarywithsecurity.dto.FieldSelection;
+import ru.abdusamatov.librarywithsecurity.dto.MultiGetDto;
+import ru.abdusamatov.librarywithsecurity.event.BookChangedEvent;
+import ru.abdusamatov.librarywithsecurity.exception.BookAlreadyAssignedException;
+import ru.abdusamatov.librarywithsecurity.exception.InvalidAssignmentException;
+import ru.abdusamatov.librarywithsecurity.exception.PreconditionFailedException;
 import ru.abdusamatov.librarywithsecurity.exception.ResourceNotFoundException;
+import ru.abdusamatov.librarywithsecurity.model.Book;
+import ru.abdusamatov.librarywithsecurity.model.User;
+import ru.abdusamatov.librarywithsecurity.model.projection.BookOwnerView;
+import ru.abdusamatov.librarywithsecurity.model.projection.BookReleaseView;
+import ru.abdusamatov.librarywithsecurity.model.projection.BookView;
 import ru.abdusamatov.librarywithsecurity.repository.BookRepository;
+import ru.abdusamatov.librarywithsecurity.repository.BookSelectionRepository;
+import ru.abdusamatov.librarywithsecurity.repository.ExportRepository;
 import ru.abdusamatov.librarywithsecurity.repository.UserRepository;
+import ru.abdusamatov.librarywithsecurity.service.cache.CatalogueCache;
+import ru.abdusamatov.librarywithsecurity.service.cache.RedisBatchCache;
+import ru.abdusamatov.librarywithsecurity.service.cache.TransactionalCacheWriter;
 import ru.abdusamatov.librarywithsecurity.service.mapper.BookMapper;
-import ru.abdusamatov.librarywithsecurity.service.mapper.UserMapper;
 import ru.abdusamatov.librarywithsecurity.service.notification.LibraryEventPublisher;
+import ru.abdusamatov.librarywithsecurity.service.patch.JsonMergePatch;
+import ru.abdusamatov.librarywithsecurity.util.EntityTag;
+import ru.abdusamatov.librarywithsecurity.util.KeysetCursor;
 
-import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@CacheConfig(cacheNames = "book")
+@CacheConfig(cacheNames = BookService.CACHE_NAME)
 public class BookService {
+    public static final String CACHE_NAME = "book";
+    private static final Set<String> PATCHABLE_FIELDS = Set.of(
+            "title", "authorName", "authorSurname", "yearOfPublication");
+
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final BookMapper bookMapper;
-    private final UserMapper userMapper;
     private final LibraryEventPublisher eventPublisher;
+    private final LibraryProperties properties;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final RedisBatchCache batchCache;
+    private final ExportRepository exportRepository;
+    private final JsonMergePatch mergePatch;
+    private final CatalogueCache catalogueCache;
+    private final TransactionalCacheWriter cacheWriter;
 
     @Transactional(readOnly = true)
     public List<BookDto> getBookList(final Integer page, final Integer size, final boolean isSorted) {
         final var sort = isSorted ? Sort.by("title").ascending() : Sort.unsorted();
+        final var limit = properties.getPagination().limit(size);
 
-        return bookRepository
-                .findAll(PageRequest.of(page, size, sort))
-                .map(bookMapper::bookToBookDto)
-                .getContent();
+        return catalogueCache.get(String.format("list:%d:%d:%b", page, limit, isSorted), () -> bookRepository
+                .findAllViews(PageRequest.of(page, limit, sort))
+                .stream()
+                .map(bookMapper::bookViewToBookDto)
+                .toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<BookDto> getSelectedBookList(
+            final Integer page,
+            final Integer size,
+            final boolean isSorted,
+            final String fields,
+            final String expand
+    ) {
+        final var sort = isSorted ? Sort.by("title").ascending() : Sort.unsorted();
+        final var limit = properties.getPagination().limit(size);
+
+        return bookRepository.findSelected(parseSelection(fields, expand), PageRequest.of(page, limit, sort));
     }
 
-    @Cacheable(key = "#id")
+    @Transactional(readOnly = true)
+    public CursorPageDto<BookDto> getBookPage(final String cursor, final Integer size, final boolean isSorted) {
+        final var limit = properties.getPagination().limit(size);
+        final var position = KeysetCursor.decode(cursor, isSorted);
+
+        final var books = isSorted
+                ? position
+                        .map(after -> bookRepository.findAfterOrderByTitle(after.getTitle(), after.getId(), limit + 1))
+                        .orElseGet(() -> bookRepository.findFirstOrderByTitle(limit + 1))
+                : bookRepository.findAfterOrderById(position.map(KeysetCursor::getId).orElse(0L), limit + 1);
+
+        final var hasNext = books.size() > limit;
+        final var content = hasNext ? books.subList(0, limit) : books;
+
+        return CursorPageDto.<BookDto>builder()
+                .content(content.stream()
+                        .map(bookMapper::bookViewToBookDto)
+                        .toList())
+                .next(hasNext ? nextCursor(content.getLast(), isSorted) : null)
+                .build();
+    }
+
+    @Cacheable(key = "#id", sync = true)
     @Transactional(readOnly = true)
     public BookDto getBookById(final Long id) {
-        return bookRepository.findById(id)
-                .map(bookMapper::bookToBookDto)
+        return bookRepository.findViewById(id)
+                .map(bookMapper::bookViewToBookDto)
                 .orElseThrow(() -> new ResourceNotFoundException("Book", "ID", id));
     }
 
+    @Transactional(readOnly = true)
+    public BookDto getSelectedBookById(final Long id, final String fields, final String expand) {
+        return bookRepository.findSelectedById(id, parseSelection(fields, expand))
+                .orElseThrow(() -> new ResourceNotFoundException("Book", "ID", id));
+    }
+
+    @Transactional(readOnly = true)
+    public MultiGetDto<BookDto> getBooksByIds(final List<Long> ids) {
+        final var requestedIds = properties.getPagination().distinctIds(ids);
+        final var found = batchCache.getAll(CACHE_NAME, requestedIds, BookDto::getId, this::loadBooks);
+
+        return MultiGetDto.of(requestedIds, found);
+    }
+
+    /**
+     * Cache lookup of {@code ids} for {@link RedisBatchCache#getAll(List)}; misses are loaded in the caller's
+     * transaction.
+     */
+    public RedisBatchCache.Lookup<BookDto> cacheLookup(final List<Long> ids) {
+        return new RedisBatchCache.Lookup<>(CACHE_NAME, ids, BookDto::getId, this::loadBooks);
+    }
+
+    /**
+     * Streams every book ordered by ID; the stream manages its own snapshot transaction.
+     */
+    public Flux<BookDto> exportBooks() {
+        return exportRepository.streamBooks();
+    }
+
     @Transactional
     public BookDto createBook(final BookDto dto) {
         var book = bookMapper.bookDtoToBook(dto);
+        book.setId(null);
         book.setOwner(null);
 
-        final var savedBook = bookRepository.save(book);
+        final var savedBook = bookMapper.bookToBookDto(bookRepository.save(book));
         log.info("Save book with ID: {}", savedBook.getId());
 
-        return bookMapper.bookToBookDto(savedBook);
+        applicationEventPublisher.publishEvent(BookChangedEvent.saved(savedBook));
+        return savedBook;
     }
 
-    @CachePut(key = "#dto.id")
+    /**
+     * Replaces the book; a non-null {@code ifMatch} must match the current entity tag, and the versioned
+     * UPDATE rejects writes that raced with another one after the check.
+     */
     @Transactional
-    public BookDto updateBook(final BookDto dto) {
-        final var updatedBook = bookRepository.findById(dto.getId())
-                .map(book -> {
-                    bookMapper.updateBookFromDto(dto, book);
-                    if (dto.getUserId() != null) {
-                        final var owner = userRepository.findById(dto.getUserId())
-                                .orElseThrow(() -> new ResourceNotFoundException("User", "ID", dto.getUserId()));
-                        book.setOwner(owner);
-                    } else {
-                        book.setOwner(null);
-                    }
-                    return book;
-                })
-                .map(bookRepository::save)
+    public BookDto updateBook(final BookDto dto, final String ifMatch) {
+        final var book = bookRepository.findById(dto.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Book", "ID", dto.getId()));
+        checkPrecondition(book, ifMatch);
+        final var previousOwnerId = book.getOwner() == null ? null : book.getOwner().getId();
+
+        bookMapper.updateBookFromDto(dto, book);
+        book.setOwner(ownerReference(book, dto.getUserId()));
+        final var updatedBook = bookRepository.save(book);
+        bookRepository.flush();
 
         log.info("Updated book with ID: {}", updatedBook.getId());
-        return bookMapper.bookToBookDto(updatedBook);
+
+        final var updatedDto = bookMapper.bookToBookDto(updatedBook);
+        if (!Objects.equals(previousOwnerId, updatedDto.getUserId())) {
+            evictOwners(Arrays.asList(previousOwnerId, updatedDto.getUserId()));
+        }
+        cacheWriter.evict(CACHE_NAME, updatedDto.getId());
+        applicationEventPublisher.publishEvent(BookChangedEvent.saved(updatedDto));
+        return updatedDto;
     }
 
-    @CacheEvict(key = "#id")
+    /**
+     * Applies a JSON Merge Patch to the book's descriptive fields; only changed columns are written.
+     * Ownership changes go through assignment and release.
+     */
     @Transactional
-    public void deleteBook(final Long id) {
+    public BookDto patchBook(final Long id, final JsonNode patch, final String ifMatch) {
         final var book = bookRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book", "ID", id));
+        checkPrecondition(book, ifMatch);
 
-        bookRepository.delete(book);
+        final var patchedBook = mergePatch.apply(bookMapper.bookToBookDto(book), patch, PATCHABLE_FIELDS);
+        bookMapper.updateBookFromDto(patchedBook, book);
+        bookRepository.flush();
+        patchedBook.setVersion(book.getVersion());
+        log.info("Patched book with ID: {}", id);
+
+        applicationEventPublisher.publishEvent(BookChangedEvent.saved(patchedBook));
+        cacheWriter.evict(CACHE_NAME, id);
+        return patchedBook;
+    }
+
+    @Transactional
+    public void deleteBook(final Long id) {
+        final var deletedBook = bookRepository.deleteBookById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Book", "ID", id));
+        cacheWriter.evict(CACHE_NAME, id);
+        evictOwners(Collections.singletonList(deletedBook.getOwnerId()));
         log.info("Deleted book with ID: {}", id);
+
+        applicationEventPublisher.publishEvent(BookChangedEvent.deleted(id));
     }
 
-    @CachePut(key = "#id")
     @Transactional
-    public void assignBook(final Long id, final UserDto userDto) {
-        final var book = bookRepository
-                .findById(id).orElseThrow(() -> new ResourceNotFoundException("Book", "ID", id));
+    public BookDto assignBook(final Long id, final Long userId, final String ifMatch) {
+        if (userId == null) {
+            throw new InvalidAssignmentException(id);
+        }
+        final var expectedVersion = EntityTag.expectedVersion(ifMatch, "Book", id);
+        final var assignment = bookRepository.assignIfFree(id, userId, expectedVersion)
+                .orElseThrow(() -> assignmentFailure(id, userId, expectedVersion));
+        final var assignedBook = bookMapper.bookViewToBookDto(assignment);
 
-        book.setOwner(userMapper.dtoToUser(userDto));
-        book.setTakenAt(LocalDateTime.now());
-        bookRepository.save(book);
+        log.info("Book with id {},has new owner with id {}", id, userId);
+        cacheWriter.evict(CACHE_NAME, id);
+        evictOwners(List.of(userId));
 
-        log.info("Book with id {},has new owner with id {}", book.getId(), userDto.getId());
+        applicationEventPublisher.publishEvent(BookChangedEvent.saved(assignedBook));
 
-        eventPublisher.publishEvent(userDto.getFullName(), book.getTitle());
+        eventPublisher.publishEvent(assignment.getOwnerFullName(), assignment.getTitle());
+        return assignedBook;
     }
 
-    @CachePut(key = "#id")
     @Transactional
-    public void releaseBook(final Long id) {
-        final var book = bookRepository.findById(id)
+    public BookDto releaseBook(final Long id) {
+        final var release = bookRepository.release(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book", "ID", id));
-
-        book.setOwner(null);
-        book.setTakenAt(null);
-        bookRepository.save(book);
+        final var releasedBook = bookMapper.bookViewToBookDto(release);
+        cacheWriter.evict(CACHE_NAME, id);
+        evictOwners(Collections.singletonList(release.getPreviousOwnerId()));
 
         log.info("Book with id {}, has been successfully released", id);
+
+        applicationEventPublisher.publishEvent(BookChangedEvent.saved(releasedBook));
+        return releasedBook;
+    }
+
+    /**
+     * Assigns every free book among {@code ids} in one statement, then writes the outbox rows in one batched
+     * insert; the cache entries are evicted with the other changes of the transaction after it commits.
+     */
+    @Transactional
+    public BulkResultDto assignBooks(final Long userId, final List<Long> ids) {
+        final var requestedIds = properties.getBulk().distinctIds(ids);
+        final var assignments = bookRepository.assignAllIfFree(requestedIds, userId);
+        if (assignments.isEmpty() && !userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "ID", userId);
+        }
+
+        final var assignedBooks = toBookDtos(assignments);
+        cacheWriter.evictAll(CACHE_NAME, assignedBooks.keySet());
+        if (!assignments.isEmpty()) {
+            evictOwners(List.of(userId));
+        }
+        assignedBooks.values().forEach(book -> applicationEventPublisher.publishEvent(BookChangedEvent.saved(book)));
+        if (!assignments.isEmpty()) {
+            eventPublisher.publishEvents(
+                    assignments.getFirst().getOwnerFullName(),
+                    assignments.stream().map(BookView::getTitle).toList());
+        }
+
+        log.info("Assigned {} of {} books to user with ID: {}", assignedBooks.size(), requestedIds.size(), userId);
+        return BulkResultDto.of(requestedIds, assignedBooks.keySet());
+    }
+
+    @Transactional
+    public BulkResultDto releaseBooks(final List<Long> ids) {
+        final var requestedIds = properties.getBulk().distinctIds(ids);
+        final var releases = bookRepository.releaseAll(requestedIds);
+        final var releasedBooks = toBookDtos(releases);
+
+        cacheWriter.evictAll(CACHE_NAME, releasedBooks.keySet());
+        evictOwners(releases.stream().map(BookReleaseView::getPreviousOwnerId).toList());
+        releasedBooks.values().forEach(book -> applicationEventPublisher.publishEvent(BookChangedEvent.saved(book)));
+
+        log.info("Released {} of {} books", releasedBooks.size(), requestedIds.size());
+        return BulkResultDto.of(requestedIds, releasedBooks.keySet());
+    }
+
+    @Transactional
+    public BulkResultDto deleteBooks(final List<Long> ids) {
+        final var requestedIds = properties.getBulk().distinctIds(ids);
+        final var deletedBooks = bookRepository.deleteAllReturningOwners(requestedIds);
+        final var deletedIds = deletedBooks.stream().map(BookOwnerView::getId).toList();
+
+        cacheWriter.evictAll(CACHE_NAME, deletedIds);
+        evictOwners(deletedBooks.stream().map(BookOwnerView::getOwnerId).toList());
+        deletedIds.forEach(id -> applicationEventPublisher.publishEvent(BookChangedEvent.deleted(id)));
+
+        log.info("Deleted {} of {} books", deletedIds.size(), requestedIds.size());
+        return BulkResultDto.of(requestedIds, Set.copyOf(deletedIds));
     }
 
     @Transactional(readOnly = true)
-    public List<BookDto> searchByTitle(final String query) {
+    public List<BookDto> searchByTitle(
+            final String query,
+            final BookSearchMode mode,
+            final Integer page,
+            final Integer size
+    ) {
+        final var pageSize = properties.getPagination().limit(size);
+        final var offset = (long) Math.max(page, 0) * pageSize;
+        final var limit = properties.getSearch().limit(offset, pageSize);
+        if (limit == 0) {
+            return List.of();
+        }
+
+        // The query goes last, as it may contain the separator.
+        return catalogueCache.get(String.format("search:%s:%d:%d:%s", mode, offset, limit, query), () -> {
+            final var pattern = escapeLikePattern(query);
+            final var books = mode == BookSearchMode.PREFIX
+                    ? bookRepository.findByTitleStartingWith(pattern, limit, offset)
+                    : bookRepository.findByTitleContaining(pattern, query, limit, offset);
+
+            return books.stream()
+                    .map(bookMapper::bookViewToBookDto)
+                    .toList();
+        });
+    }
+
+    private static void checkPrecondition(final Book book, final String ifMatch) {
+        if (!EntityTag.matchesIfMatch(ifMatch, EntityTag.ofVersion(book.getVersion()))) {
+            throw new PreconditionFailedException("Book", book.getId());
+        }
+    }
+
+    private List<BookDto> loadBooks(final List<Long> ids) {
         return bookRepository
-                .findByTitleStartingWith(query)
+                .findViewsByIdIn(ids)
                 .stream()
-                .map(bookMapper::bookToBookDto)
+                .map(bookMapper::bookViewToBookDto)
                 .toList();
     }
+
+    /**
+     * Drops the cached users whose loan count changed with the owner of a book.
+     */
+    private void evictOwners(final Collection<Long> ownerIds) {
+        cacheWriter.evictAll(UserService.CACHE_NAME, ownerIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList());
+    }
+
+    private Map<Long, BookDto> toBookDtos(final List<? extends BookView> books) {
+        final var dtos = new LinkedHashMap<Long, BookDto>();
+        books.forEach(book -> dtos.put(book.getId(), bookMapper.bookViewToBookDto(book)));
+        return dtos;
+    }
+
+    /**
+     * Returns an unloaded reference to the requested owner. Existence is only checked when the owner
+     * actually changes, so an update that keeps the owner stays one select plus one update.
+     */
+    private User ownerReference(final Book book, final Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        final var currentOwner = book.getOwner();
+        if (currentOwner != null && userId.equals(currentOwner.getId())) {
+            return currentOwner;
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "ID", userId);
+        }
+        return userRepository.getReferenceById(userId);
+    }
+
+    /**
+     * Explains an assignment that updated nothing; only runs on the failure path.
+     */
+    private RuntimeException assignmentFailure(final Long id, final Long userId, final Long expectedVersion) {
+        final var book = bookRepository.findViewById(id);
+        if (book.isEmpty()) {
+            return new ResourceNotFoundException("Book", "ID", id);
+        }
+        if (!userRepository.existsById(userId)) {
+            return new ResourceNotFoundException("User", "ID", userId);
+        }
+        if (expectedVersion != null && !expectedVersion.equals(book.get().getVersion())) {
+            return new PreconditionFailedException("Book", id);
+        }
+        return new BookAlreadyAssignedException(id);
+    }
+
+    private static FieldSelection parseSelection(final String fields, final String expand) {
+        return FieldSelection.parse(fields, expand, BookSelectionRepository.FIELDS, BookSelectionRepository.EXPANSIONS);
+    }
+
+    private static String escapeLikePattern(final String query) {
+        return query
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    private static String nextCursor(final BookView last, final boolean isSorted) {
+        return isSorted
+                ? KeysetCursor.encode(last.getTitle(), last.getId())
+                : KeysetCursor.encode(last.getId());
+    }
 }
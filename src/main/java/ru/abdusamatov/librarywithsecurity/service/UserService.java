@@ -1,43 +1,117 @@
 package ru.abdusamatov.librarywithsecurity.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import ru.abdusamatov.librarywithsecurity.config.LibraryProperties;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.CursorPageDto;
+import ru.abdusamatov.librarywithsecurity.dto.FieldSelection;
+import ru.abdusamatov.librarywithsecurity.dto.MultiGetDto;
+import ru.abdusamatov.librarywithsecurity.dto.UserBookSort;
 import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+import ru.abdusamatov.librarywithsecurity.dto.UserListView;
+import ru.abdusamatov.librarywithsecurity.event.BookChangedEvent;
+import ru.abdusamatov.librarywithsecurity.exception.InvalidFieldSelectionException;
+import ru.abdusamatov.librarywithsecurity.exception.PreconditionFailedException;
 import ru.abdusamatov.librarywithsecurity.exception.ResourceNotFoundException;
+import ru.abdusamatov.librarywithsecurity.model.User;
+import ru.abdusamatov.librarywithsecurity.repository.BookRepository;
+import ru.abdusamatov.librarywithsecurity.repository.ExportRepository;
 import ru.abdusamatov.librarywithsecurity.repository.UserRepository;
+import ru.abdusamatov.librarywithsecurity.repository.UserSelectionRepository;
+import ru.abdusamatov.librarywithsecurity.service.cache.RedisBatchCache;
+import ru.abdusamatov.librarywithsecurity.service.cache.TransactionalCacheWriter;
+import ru.abdusamatov.librarywithsecurity.service.mapper.BookMapper;
 import ru.abdusamatov.librarywithsecurity.service.mapper.DocumentMapper;
 import ru.abdusamatov.librarywithsecurity.service.mapper.UserMapper;
+import ru.abdusamatov.librarywithsecurity.service.patch.JsonMergePatch;
+import ru.abdusamatov.librarywithsecurity.util.EntityTag;
+import ru.abdusamatov.librarywithsecurity.util.KeysetCursor;
 
 import java.util.List;
+import java.util.Set;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
-@CacheConfig(cacheNames = "user")
+@CacheConfig(cacheNames = UserService.CACHE_NAME)
 public class UserService {
+    public static final String CACHE_NAME = "user";
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("fullName", "email", "dateOfBirth");
+
     private final UserRepository userRepository;
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
     private final UserMapper userMapper;
     private final DocumentMapper documentMapper;
+    private final LibraryProperties properties;
+    private final RedisBatchCache batchCache;
+    private final ExportRepository exportRepository;
+    private final JsonMergePatch mergePatch;
+    private final TransactionalCacheWriter cacheWriter;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Transactional(readOnly = true)
-    public List<UserDto> getUserList(final Integer page, final Integer size) {
-        return userRepository
-                .findAll(PageRequest.of(page, size, Sort.by("id").ascending()))
-                .getContent()
-                .stream()
-                .map(userMapper::userToDto)
-                .toList();
+    public List<UserDto> getUserList(final Integer page, final Integer size, final UserListView view) {
+        final var pageable = PageRequest.of(page, properties.getPagination().limit(size), Sort.by("id").ascending());
+
+        if (view == UserListView.SUMMARY) {
+            return userRepository.findSummaries(pageable)
+                    .stream()
+                    .map(userMapper::userSummaryViewToDto)
+                    .toList();
+        }
+        return getUsersWithDocument(userRepository.findIds(pageable));
+    }
+
+    /**
+     * Returns a page of users with only the selected fields. A {@code view} names a fixed field set of its own,
+     * so combining it with {@code fields} or {@code expand} is rejected rather than one silently winning.
+     */
+    @Transactional(readOnly = true)
+    public List<UserDto> getSelectedUserList(
+            final Integer page,
+            final Integer size,
+            final UserListView view,
+            final String fields,
+            final String expand
+    ) {
+        if (view != null) {
+            throw new InvalidFieldSelectionException("Parameter view cannot be combined with fields or expand");
+        }
+        final var selection = parseSelection(fields, expand);
+        final var pageable = PageRequest.of(page, properties.getPagination().limit(size), Sort.by("id").ascending());
+
+        return userRepository.findSelected(selection, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDto<UserDto> getUserPage(final String cursor, final Integer size) {
+        final var limit = properties.getPagination().limit(size);
+        final var afterId = KeysetCursor.decode(cursor, false)
+                .map(KeysetCursor::getId)
+                .orElse(0L);
+
+        final var ids = userRepository.findIdsAfter(afterId, limit + 1);
+        final var hasNext = ids.size() > limit;
+        final var content = hasNext ? ids.subList(0, limit) : ids;
+
+        return CursorPageDto.<UserDto>builder()
+                .content(getUsersWithDocument(content))
+                .next(hasNext ? KeysetCursor.encode(content.getLast()) : null)
+                .build();
     }
 
-    @Cacheable(key = "#id")
+    @Cacheable(key = "#id", sync = true)
     @Transactional(readOnly = true)
     public UserDto getUserById(final Long id) {
         return userRepository.findById(id)
@@ -45,10 +119,64 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "ID", id));
     }
 
+    @Transactional(readOnly = true)
+    public UserDto getSelectedUserById(final Long id, final String fields, final String expand) {
+        return userRepository.findSelectedById(id, parseSelection(fields, expand))
+                .orElseThrow(() -> new ResourceNotFoundException("User", "ID", id));
+    }
+
+    /**
+     * Returns a page of the books the user holds, read through the {@code owner_id} index; the user's
+     * existence is only checked when the page is empty.
+     */
+    @Transactional(readOnly = true)
+    public List<BookDto> getUserBooks(
+            final Long id,
+            final Integer page,
+            final Integer size,
+            final UserBookSort sort,
+            final Sort.Direction direction
+    ) {
+        final var pageable = PageRequest.of(page, properties.getPagination().limit(size), sort.toSort(direction));
+        final var books = bookRepository.findViewsByOwnerId(id, pageable)
+                .stream()
+                .map(bookMapper::bookViewToBookDto)
+                .toList();
+        if (books.isEmpty() && !userRepository.existsById(id)) {
+            throw new ResourceNotFoundException("User", "ID", id);
+        }
+        return books;
+    }
+
+    @Transactional(readOnly = true)
+    public MultiGetDto<UserDto> getUsersByIds(final List<Long> ids) {
+        final var requestedIds = properties.getPagination().distinctIds(ids);
+        final var found = batchCache
+                .getAll(CACHE_NAME, requestedIds, UserDto::getId, this::getUsersWithDocument);
+
+        return MultiGetDto.of(requestedIds, found);
+    }
+
+    /**
+     * Cache lookup of {@code ids} for {@link RedisBatchCache#getAll(List)}; misses are loaded in the caller's
+     * transaction.
+     */
+    public RedisBatchCache.Lookup<UserDto> cacheLookup(final List<Long> ids) {
+        return new RedisBatchCache.Lookup<>(CACHE_NAME, ids, UserDto::getId, this::getUsersWithDocument);
+    }
+
+    /**
+     * Streams every user with their document ordered by ID; the stream manages its own snapshot transaction.
+     */
+    public Flux<UserDto> exportUsers() {
+        return exportRepository.streamUsers();
+    }
+
     @Transactional
     public UserDto createUser(final UserDto dto) {
         final var document = documentMapper.dtoToDocument(dto.getDocumentDto());
         final var user = userMapper.dtoToUser(dto);
+        user.setId(null);
         user.setDocument(document);
 
         final var createdUser = userRepository.save(user);
@@ -57,29 +185,89 @@ public class UserService {
         return userMapper.userToDto(createdUser);
     }
 
-    @CachePut(key = "#dtoToBeUpdated.id")
     @Transactional
-    public UserDto updateUser(final UserDto dtoToBeUpdated) {
+    public UserDto updateUser(final UserDto dtoToBeUpdated, final String ifMatch) {
         final var updatedUser = userRepository.findById(dtoToBeUpdated.getId())
                 .map(user -> {
+                    checkPrecondition(user, ifMatch);
                     final var updatedUserEntity = userMapper.updateUserFromDto(dtoToBeUpdated, user);
 
-                    return userRepository.save(updatedUserEntity);
+                    final var savedUser = userRepository.save(updatedUserEntity);
+                    userRepository.flush();
+                    return savedUser;
                 })
                 .map(userMapper::userToDto)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "ID", dtoToBeUpdated.getId()));
 
         log.info("Updated user with ID: {}", dtoToBeUpdated.getId());
+        cacheWriter.evict(CACHE_NAME, updatedUser.getId());
         return updatedUser;
     }
 
-    @CacheEvict(key = "#id")
+    /**
+     * Applies a JSON Merge Patch to the user's own fields, leaving loans and document untouched; only changed
+     * columns are written.
+     */
     @Transactional
-    public void deleteUserById(final Long id) {
+    public UserDto patchUser(final Long id, final JsonNode patch, final String ifMatch) {
         final var user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "ID", id));
+        checkPrecondition(user, ifMatch);
+
+        final var patchedUser = mergePatch.apply(userMapper.userToDto(user), patch, PATCHABLE_FIELDS);
+        userMapper.patchUserFromDto(patchedUser, user);
+        userRepository.flush();
+        patchedUser.setVersion(user.getVersion());
+        log.info("Patched user with ID: {}", id);
+
+        cacheWriter.evict(CACHE_NAME, id);
+        return patchedUser;
+    }
+
+    /**
+     * Deletes the user after freeing their books, so the freed books leave the book cache and are announced
+     * like any other release.
+     */
+    @Transactional
+    public void deleteUserById(final Long id) {
+        final var releasedBooks = bookRepository.releaseAllByOwnerId(id)
+                .stream()
+                .map(bookMapper::bookViewToBookDto)
+                .toList();
+        if (userRepository.deleteUserById(id) == 0) {
+            throw new ResourceNotFoundException("User", "ID", id);
+        }
+        cacheWriter.evict(CACHE_NAME, id);
+        cacheWriter.evictAll(BookService.CACHE_NAME, releasedBooks.stream().map(BookDto::getId).toList());
+        releasedBooks.forEach(book -> applicationEventPublisher.publishEvent(BookChangedEvent.saved(book)));
+        log.info("Deleted user with ID: {}, released {} books", id, releasedBooks.size());
+    }
+
+    /**
+     * Loads a page of users with their document and loan count in a single fetch-joined query, instead of
+     * one query per user for the document.
+     */
+    private List<UserDto> getUsersWithDocument(final List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return userRepository.findAllWithDocumentByIdIn(ids)
+                .stream()
+                .map(userMapper::userToDto)
+                .toList();
+    }
+
+    /**
+     * Compares {@code ifMatch} with the tag of the user as currently stored; the loan count is part of the
+     * tag, so the representation is only built when a precondition is sent.
+     */
+    private void checkPrecondition(final User user, final String ifMatch) {
+        if (ifMatch != null && !EntityTag.matchesIfMatch(ifMatch, EntityTag.of(userMapper.userToDto(user)))) {
+            throw new PreconditionFailedException("User", user.getId());
+        }
+    }
 
-        userRepository.delete(user);
-        log.info("Deleted user with ID: {}", id);
+    private static FieldSelection parseSelection(final String fields, final String expand) {
+        return FieldSelection.parse(fields, expand, UserSelectionRepository.FIELDS, UserSelectionRepository.EXPANSIONS);
     }
 }
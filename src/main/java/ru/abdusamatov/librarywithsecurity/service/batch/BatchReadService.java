@@ -0,0 +1,39 @@
+package ru.abdusamatov.librarywithsecurity.service.batch;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+import ru.abdusamatov.librarywithsecurity.service.BookService;
+import ru.abdusamatov.librarywithsecurity.service.UserService;
+import ru.abdusamatov.librarywithsecurity.service.cache.RedisBatchCache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the book and user reads of a batch together: one MGET over both caches, the misses of each loaded
+ * with one query inside a single read-only transaction, and one pipelined write-back.
+ */
+@Service
+@RequiredArgsConstructor
+public class BatchReadService {
+    private final BookService bookService;
+    private final UserService userService;
+    private final RedisBatchCache batchCache;
+
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public Reads read(final Collection<Long> bookIds, final Collection<Long> userIds) {
+        final var found = batchCache.getAll(List.of(
+                bookService.cacheLookup(List.copyOf(bookIds)),
+                userService.cacheLookup(List.copyOf(userIds))));
+
+        return new Reads((Map<Long, BookDto>) found.get(0), (Map<Long, UserDto>) found.get(1));
+    }
+
+    public record Reads(Map<Long, BookDto> books, Map<Long, UserDto> users) {
+    }
+}
@@ -0,0 +1,65 @@
+package ru.abdusamatov.librarywithsecurity.service.batch;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.NO_CONTENT;
+import static org.springframework.http.HttpStatus.OK;
+
+/**
+ * Book and reader operations that can be sent through {@code POST /batch}, with the envelope status and
+ * description of the endpoint each one mirrors.
+ */
+@Getter
+public enum BatchRoute {
+    GET_BOOK(RequestMethod.GET, "/books/{id}", OK, "Book successfully found"),
+    CREATE_BOOK(RequestMethod.POST, "/books", CREATED, "Book successfully created"),
+    UPDATE_BOOK(RequestMethod.PUT, "/books", OK, "Book successfully updated"),
+    DELETE_BOOK(RequestMethod.DELETE, "/books/{id}", NO_CONTENT, "Successfully deleted"),
+    ASSIGN_BOOK(RequestMethod.PATCH, "/books/{id}/assign", NO_CONTENT, "Book successfully assigned"),
+    RELEASE_BOOK(RequestMethod.PATCH, "/books/{id}/release", NO_CONTENT, "Book successfully released"),
+    GET_USER(RequestMethod.GET, "/users/{id}", OK, "User successfully found"),
+    GET_USER_DOCUMENT(RequestMethod.GET, "/users/{id}/document", OK, "User document successfully found"),
+    UPDATE_USER(RequestMethod.PUT, "/users", OK, "User successfully updated"),
+    DELETE_USER(RequestMethod.DELETE, "/users/{id}", NO_CONTENT, "Successfully deleted");
+
+    private final RequestMethod method;
+    private final PathPattern pattern;
+    private final HttpStatus status;
+    private final String description;
+
+    BatchRoute(final RequestMethod method, final String pattern, final HttpStatus status, final String description) {
+        this.method = method;
+        this.pattern = PathPatternParser.defaultInstance.parse(pattern);
+        this.status = status;
+        this.description = description;
+    }
+
+    /**
+     * Reads answered from the shared read-only transaction and Redis round trip of a batch.
+     */
+    public boolean isSharedRead() {
+        return this == GET_BOOK || this == GET_USER;
+    }
+
+    public static Optional<Match> match(final RequestMethod method, final String path) {
+        final var container = PathContainer.parsePath(path);
+        return Arrays.stream(values())
+                .filter(route -> route.method == method)
+                .map(route -> Optional.ofNullable(route.pattern.matchAndExtract(container))
+                        .map(info -> new Match(route, info.getUriVariables().get("id"))))
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    public record Match(BatchRoute route, String id) {
+    }
+}
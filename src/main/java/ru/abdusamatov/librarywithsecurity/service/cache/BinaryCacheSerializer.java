@@ -0,0 +1,142 @@
+package ru.abdusamatov.librarywithsecurity.service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Cache value serializer writing Jackson Smile instead of JDK serialization. A value is a three byte header,
+ * format version, flags and type tag, followed by the Smile document of the value, Deflate-compressed when
+ * it is at least {@code compressionThreshold} bytes long and compression pays off.
+ *
+ * <p>Type tags are positions in {@code types}, starting at one; zero is the cached {@code null}. New types go
+ * at the end of the list. Values written by another format version or with an unknown tag read as a miss,
+ * so they are simply replaced; incompatible DTO changes are handled by bumping the key version instead.
+ */
+@Slf4j
+public class BinaryCacheSerializer implements RedisSerializer<Object> {
+    static final byte FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 3;
+    private static final byte NULL_TAG = 0;
+    private static final byte COMPRESSED = 1;
+
+    private final ObjectMapper objectMapper;
+    private final List<Class<?>> types;
+    private final Map<Class<?>, Byte> tags = new HashMap<>();
+    private final int compressionThreshold;
+
+    public BinaryCacheSerializer(
+            final ObjectMapper objectMapper,
+            final List<Class<?>> types,
+            final int compressionThreshold
+    ) {
+        this.objectMapper = objectMapper;
+        this.types = List.copyOf(types);
+        this.compressionThreshold = compressionThreshold;
+        for (var i = 0; i < types.size(); i++) {
+            tags.put(types.get(i), (byte) (i + 1));
+        }
+    }
+
+    @Override
+    public byte[] serialize(final Object value) {
+        if (value == null || value instanceof NullValue) {
+            return new byte[]{FORMAT_VERSION, 0, NULL_TAG};
+        }
+
+        final var tag = tags.get(value.getClass());
+        if (tag == null) {
+            throw new SerializationException("Type is not registered for caching: " + value.getClass().getName());
+        }
+
+        final byte[] document;
+        try {
+            document = objectMapper.writeValueAsBytes(value);
+        } catch (IOException ex) {
+            throw new SerializationException("Could not write cache value: " + ex.getMessage(), ex);
+        }
+
+        final var compressed = document.length >= compressionThreshold ? deflate(document) : null;
+        final var payload = compressed == null ? document : compressed;
+        final var bytes = new byte[HEADER_SIZE + payload.length];
+        bytes[0] = FORMAT_VERSION;
+        bytes[1] = compressed == null ? 0 : COMPRESSED;
+        bytes[2] = tag;
+        System.arraycopy(payload, 0, bytes, HEADER_SIZE, payload.length);
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(final byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length < HEADER_SIZE || bytes[0] != FORMAT_VERSION || bytes[2] < 0 || bytes[2] > types.size()) {
+            log.debug("Ignoring cache value of unknown format, {} bytes", bytes.length);
+            return null;
+        }
+        if (bytes[2] == NULL_TAG) {
+            return NullValue.INSTANCE;
+        }
+
+        try {
+            final var type = types.get(bytes[2] - 1);
+            if ((bytes[1] & COMPRESSED) != 0) {
+                return objectMapper.readValue(inflate(bytes), type);
+            }
+            return objectMapper.readValue(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE, type);
+        } catch (IOException | DataFormatException ex) {
+            throw new SerializationException("Could not read cache value: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Returns the compressed document, or {@code null} when it would not be smaller.
+     */
+    private static byte[] deflate(final byte[] document) {
+        final var deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(document);
+            deflater.finish();
+            final var buffer = new byte[document.length];
+            final var length = deflater.deflate(buffer);
+            return deflater.finished() && length < document.length
+                    ? Arrays.copyOf(buffer, length)
+                    : null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(final byte[] bytes) throws DataFormatException {
+        final var inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+            final var output = new ByteArrayOutputStream(2 * bytes.length);
+            final var buffer = new byte[Math.max(256, 2 * bytes.length)];
+            while (!inflater.finished()) {
+                final var length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated compressed cache value");
+                }
+                output.write(buffer, 0, length);
+            }
+            return output.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
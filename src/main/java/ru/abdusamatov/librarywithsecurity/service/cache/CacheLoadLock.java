@@ -0,0 +1,74 @@
+package ru.abdusamatov.librarywithsecurity.service.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import ru.abdusamatov.librarywithsecurity.config.LibraryProperties;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * Short Redis lock letting one instance at a time load a missing cache entry. The holder loads and stores
+ * the value before releasing the lock; the other instances poll the cache for it and load it themselves once
+ * the lock is gone without a value, e.g. because the holder failed, or its TTL has passed.
+ */
+@Slf4j
+public class CacheLoadLock {
+    private static final String KEY_PREFIX = "cache-load::";
+    private static final RedisScript<Long> RELEASE = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final LibraryProperties.LoadLock properties;
+
+    public CacheLoadLock(final StringRedisTemplate redisTemplate, final LibraryProperties.LoadLock properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Runs {@code loader}, which must store what it loads, once the lock on {@code key} of {@code cacheName}
+     * is held, or returns the value {@code cached} finds while another instance holds it.
+     */
+    public Object load(
+            final String cacheName,
+            final String key,
+            final Callable<Cache.ValueWrapper> cached,
+            final Callable<?> loader
+    ) throws Exception {
+        if (!properties.isEnabled()) {
+            return loader.call();
+        }
+
+        final var lockKey = KEY_PREFIX + cacheName + "::" + key;
+        final var token = UUID.randomUUID().toString();
+        if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, token, properties.getTtl()))) {
+            try {
+                return loader.call();
+            } finally {
+                redisTemplate.execute(RELEASE, List.of(lockKey), token);
+            }
+        }
+
+        final var deadline = Instant.now().plus(properties.getTtl());
+        while (Instant.now().isBefore(deadline)) {
+            Thread.sleep(properties.getPollInterval().toMillis());
+            final var wrapper = cached.call();
+            if (wrapper != null) {
+                return wrapper.get();
+            }
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(lockKey))) {
+                // The holder failed, e.g. the entity does not exist; its error is ours to reproduce.
+                return loader.call();
+            }
+        }
+        log.warn("Cache {} entry {} was not loaded by the lock holder in {}, loading it here",
+                cacheName, key, properties.getTtl());
+        return loader.call();
+    }
+}
@@ -0,0 +1,90 @@
+package ru.abdusamatov.librarywithsecurity.service.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.abdusamatov.librarywithsecurity.config.LibraryProperties;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Caches book list pages and search results under the current catalogue version, a Redis counter every
+ * catalogue change increments once. Incrementing it moves all readers to new keys at once, with no scan or
+ * multi-key delete; entries of older versions are never read again and expire after
+ * {@code library.cache.catalogue.ttl}.
+ *
+ * <p>The version moves after the change commits: a reader still seeing the old rows can only store them under
+ * the old version. A failing increment is logged rather than thrown, as the change is already committed; the
+ * stale pages last until their TTL.
+ */
+@Slf4j
+@Component
+public class CatalogueCache {
+    public static final String CACHE_NAME = "catalogue";
+    static final String VERSION_KEY = "catalogue::version";
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final LibraryProperties.Catalogue properties;
+    private final TransactionSynchronization incrementAfterCommit = new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+            increment();
+        }
+    };
+
+    public CatalogueCache(
+            final CacheManager cacheManager,
+            final StringRedisTemplate redisTemplate,
+            final LibraryProperties properties
+    ) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.properties = properties.getCache().getCatalogue();
+    }
+
+    /**
+     * Returns the books cached under {@code key} for the current catalogue version, loading and caching them
+     * on a miss.
+     */
+    public List<BookDto> get(final String key, final Supplier<List<BookDto>> loader) {
+        final var cache = properties.isEnabled() ? cacheManager.getCache(CACHE_NAME) : null;
+        if (cache == null) {
+            return loader.get();
+        }
+
+        final var books = cache.get(version() + "::" + key, () -> loader.get().toArray(BookDto[]::new));
+        return List.of(books);
+    }
+
+    /**
+     * Moves to a new catalogue version when the current transaction commits, once however many books it
+     * changed, or right away outside a transaction.
+     */
+    public void invalidate() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment();
+        } else if (!TransactionSynchronizationManager.getSynchronizations().contains(incrementAfterCommit)) {
+            TransactionSynchronizationManager.registerSynchronization(incrementAfterCommit);
+        }
+    }
+
+    public long version() {
+        final var version = redisTemplate.opsForValue().get(VERSION_KEY);
+        return version == null ? 0 : Long.parseLong(version);
+    }
+
+    private void increment() {
+        try {
+            final var version = redisTemplate.opsForValue().increment(VERSION_KEY);
+            log.debug("Catalogue version moved to {}", version);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to move catalogue version: {}", ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.abdusamatov.librarywithsecurity.service.cache;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts explicit evictions per cache key on this instance, so a value loaded from the database can be
+ * checked against the evictions made while it was loading: a value read before a change committed must not
+ * be stored after the change evicted the key. Keys share a fixed set of counters, so a colliding eviction
+ * only skips a write needlessly.
+ */
+final class EvictionGenerations {
+    private static final int STRIPES = 4096;
+
+    private final AtomicLongArray counters = new AtomicLongArray(STRIPES);
+
+    long current(final String cacheName, final Object key) {
+        return counters.get(stripe(cacheName, key));
+    }
+
+    /**
+     * Marks {@code key} as evicted; must be called before the entry is deleted.
+     */
+    void advance(final String cacheName, final Object key) {
+        counters.incrementAndGet(stripe(cacheName, key));
+    }
+
+    boolean changedSince(final String cacheName, final Object key, final long generation) {
+        return current(cacheName, key) != generation;
+    }
+
+    private static int stripe(final String cacheName, final Object key) {
+        return Math.floorMod(Objects.hash(cacheName, String.valueOf(key)), STRIPES);
+    }
+}
@@ -0,0 +1,221 @@
+package ru.abdusamatov.librarywithsecurity.service.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Multi-key access to the Spring caches backed by Redis. Keys and values are written in the same format as
+ * {@link org.springframework.data.redis.cache.RedisCache}, so entries are shared with {@code @Cacheable} reads.
+ * Explicit evictions, see {@link TransactionalCacheWriter}, drop the keys from the near caches of
+ * {@link TwoLevelCacheManager}, and loaded values are not written back over an eviction made while they
+ * loaded, see {@link EvictionGenerations}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisBatchCache {
+    private final RedisConnectionFactory connectionFactory;
+    private final RedisCacheConfiguration cacheConfiguration;
+    private final TwoLevelCacheManager cacheManager;
+
+    /**
+     * Resolves all {@code ids} with a single MGET, loads the misses with one {@code loader} call and writes
+     * them back in one pipelined batch. IDs the loader does not return are absent from the result.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Map<Long, T> getAll(
+            final String cacheName,
+            final List<Long> ids,
+            final Function<T, Long> idOf,
+            final Function<List<Long>, List<T>> loader
+    ) {
+        return (Map<Long, T>) getAll(List.of(new Lookup<>(cacheName, ids, idOf, loader))).getFirst();
+    }
+
+    /**
+     * Multi-cache {@link #getAll(String, List, Function, Function)}: the IDs of every lookup are resolved with
+     * one MGET and all loaded misses are written back in one pipeline. Results are in lookup order.
+     */
+    public List<Map<Long, ?>> getAll(final List<? extends Lookup<?>> lookups) {
+        final var keys = lookups.stream()
+                .flatMap(lookup -> lookup.ids().stream().map(id -> key(lookup.cacheName(), id)))
+                .toArray(byte[][]::new);
+        final List<byte[]> cached;
+        if (keys.length == 0) {
+            cached = List.of();
+        } else {
+            try (var connection = connectionFactory.getConnection()) {
+                cached = connection.stringCommands().mGet(keys);
+            }
+        }
+
+        final var results = new ArrayList<Map<Long, ?>>(lookups.size());
+        final var loadedByCache = new LinkedHashMap<String, Map<Long, ?>>();
+        final var generationsByCache = new HashMap<String, Map<Long, Long>>();
+        var position = 0;
+        for (final var lookup : lookups) {
+            final var found = new HashMap<Long, Object>();
+            final var misses = new ArrayList<Long>();
+            for (final var id : lookup.ids()) {
+                final var bytes = cached == null ? null : cached.get(position++);
+                final var value = bytes == null ? null : read(bytes);
+                if (value == null) {
+                    misses.add(id);
+                } else {
+                    found.put(id, value);
+                }
+            }
+            log.debug("Cache {} multi-get: {} hits, {} misses", lookup.cacheName(), found.size(), misses.size());
+
+            if (!misses.isEmpty()) {
+                final var generations = generationsByCache
+                        .computeIfAbsent(lookup.cacheName(), ignored -> new HashMap<>());
+                misses.forEach(id -> generations.putIfAbsent(id, evictions().current(lookup.cacheName(), id)));
+                final var loaded = lookup.load(misses);
+                loadedByCache.merge(lookup.cacheName(), loaded, RedisBatchCache::union);
+                found.putAll(loaded);
+            }
+            results.add(found);
+        }
+
+        write(loadedByCache, generationsByCache);
+        return results;
+    }
+
+    /**
+     * Evicts all {@code evictionsByCache} with a single DEL, then drops the keys from the near caches.
+     */
+    public void evictAll(final Map<String, ? extends Collection<Long>> evictionsByCache) {
+        final var keys = evictionsByCache.entrySet().stream()
+                .flatMap(evictions -> evictions.getValue().stream().map(id -> key(evictions.getKey(), id)))
+                .toArray(byte[][]::new);
+        if (keys.length == 0) {
+            return;
+        }
+
+        evictionsByCache.forEach(cacheManager::beforeEvict);
+        delete(keys);
+        evictionsByCache.forEach(cacheManager::invalidate);
+    }
+
+    /**
+     * Writes the loaded values back, except those whose key was evicted since {@code generationsByCache} was
+     * taken before their load.
+     */
+    private void write(
+            final Map<String, ? extends Map<Long, ?>> valuesByCache,
+            final Map<String, Map<Long, Long>> generationsByCache
+    ) {
+        final var unchanged = select(valuesByCache, generationsByCache, false);
+        if (unchanged.isEmpty()) {
+            return;
+        }
+
+        try (var connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            unchanged.forEach((cacheName, values) -> values.forEach((id, value) ->
+                    connection.stringCommands().set(
+                            key(cacheName, id),
+                            ByteUtils.getBytes(cacheConfiguration.getValueSerializationPair().write(value)),
+                            expiration(id, value),
+                            SetOption.upsert())));
+            connection.closePipeline();
+        }
+
+        // An eviction running between the check and the SET deleted nothing, so undo those writes here.
+        final var overtaken = select(unchanged, generationsByCache, true).entrySet().stream()
+                .flatMap(values -> values.getValue().keySet().stream().map(id -> key(values.getKey(), id)))
+                .toArray(byte[][]::new);
+        if (overtaken.length > 0) {
+            delete(overtaken);
+        }
+    }
+
+    private Map<String, Map<Long, ?>> select(
+            final Map<String, ? extends Map<Long, ?>> valuesByCache,
+            final Map<String, Map<Long, Long>> generationsByCache,
+            final boolean evicted
+    ) {
+        final var selected = new LinkedHashMap<String, Map<Long, ?>>();
+        valuesByCache.forEach((cacheName, values) -> {
+            final var generations = generationsByCache.get(cacheName);
+            final var matching = new HashMap<Long, Object>();
+            values.forEach((id, value) -> {
+                final var generation = generations.get(id);
+                // A value for an ID that was not asked for has no generation and is not written.
+                final var changed = generation == null || evictions().changedSince(cacheName, id, generation);
+                if (changed == evicted) {
+                    matching.put(id, value);
+                }
+            });
+            if (!matching.isEmpty()) {
+                selected.put(cacheName, matching);
+            }
+        });
+        return selected;
+    }
+
+    private void delete(final byte[][] keys) {
+        try (var connection = connectionFactory.getConnection()) {
+            connection.keyCommands().del(keys);
+        }
+    }
+
+    private EvictionGenerations evictions() {
+        return cacheManager.evictions();
+    }
+
+    private static Map<Long, ?> union(final Map<Long, ?> left, final Map<Long, ?> right) {
+        final var union = new HashMap<Long, Object>(left);
+        union.putAll(right);
+        return union;
+    }
+
+    private byte[] key(final String cacheName, final Long id) {
+        final var key = cacheConfiguration.getKeyPrefixFor(cacheName) + id;
+        return ByteUtils.getBytes(cacheConfiguration.getKeySerializationPair().write(key));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T read(final byte[] value) {
+        return (T) cacheConfiguration.getValueSerializationPair().read(ByteBuffer.wrap(value));
+    }
+
+    private Expiration expiration(final Long id, final Object value) {
+        final var ttl = cacheConfiguration.getTtlFunction().getTimeToLive(id, value);
+        return ttl.isZero() || ttl.isNegative()
+                ? Expiration.persistent()
+                : Expiration.from(ttl);
+    }
+
+    /**
+     * IDs to resolve in one cache, with the function that loads the ones missing from it.
+     */
+    public record Lookup<T>(
+            String cacheName,
+            List<Long> ids,
+            Function<T, Long> idOf,
+            Function<List<Long>, List<T>> loader
+    ) {
+        private Map<Long, T> load(final List<Long> misses) {
+            final var loaded = new HashMap<Long, T>();
+            loader.apply(misses).forEach(value -> loaded.put(idOf.apply(value), value));
+            return loaded;
+        }
+    }
+}
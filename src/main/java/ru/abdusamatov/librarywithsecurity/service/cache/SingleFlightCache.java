@@ -0,0 +1,143 @@
+package ru.abdusamatov.librarywithsecurity.service.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads a missing entry of the decorated cache once per key: concurrent callers on this instance wait for
+ * the first one's result or error, and with {@link CacheLoadLock} enabled so do callers on other instances.
+ * Loads of different keys run in parallel, unlike the {@code synchronized} load of
+ * {@link org.springframework.data.redis.cache.RedisCache}.
+ *
+ * <p>A loaded value is not stored when the key was evicted while it loaded, see {@link EvictionGenerations}:
+ * it may have been read before the change behind the eviction committed.
+ *
+ * <p>{@link TwoLevelCacheManager} puts it around every Redis cache, under the near cache when there is one.
+ * Everything but loading and eviction is passed to the decorated cache unchanged.
+ */
+public class SingleFlightCache implements Cache {
+    private final Cache delegate;
+    private final CacheLoadLock loadLock;
+    private final EvictionGenerations evictions;
+    private final Map<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    SingleFlightCache(final Cache delegate, final CacheLoadLock loadLock, final EvictionGenerations evictions) {
+        this.delegate = delegate;
+        this.loadLock = loadLock;
+        this.evictions = evictions;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(final Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(final Object key, final Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(final Object key, final Callable<T> valueLoader) {
+        final var wrapper = delegate.get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+
+        // Keyed by the string form of the key, the same form Redis keys and load locks are built from.
+        final var loadKey = String.valueOf(key);
+        final var call = new CompletableFuture<Object>();
+        final var running = loading.putIfAbsent(loadKey, call);
+        if (running != null) {
+            try {
+                return (T) running.join();
+            } catch (CompletionException ex) {
+                throw new ValueRetrievalException(key, valueLoader, ex.getCause());
+            }
+        }
+
+        try {
+            final var value = loadLock.load(getName(), loadKey, () -> delegate.get(key), () -> load(key, valueLoader));
+            call.complete(value);
+            return (T) value;
+        } catch (Throwable ex) {
+            // Waiting callers must not hang, whatever the loader threw.
+            call.completeExceptionally(ex);
+            if (ex instanceof Error error) {
+                throw error;
+            }
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        } finally {
+            loading.remove(loadKey, call);
+        }
+    }
+
+    private Object load(final Object key, final Callable<?> valueLoader) throws Exception {
+        // A load finishing right before this one started has already stored the value.
+        final var cached = delegate.get(key);
+        if (cached != null) {
+            return cached.get();
+        }
+
+        final var generation = evictions.current(getName(), key);
+        final var value = valueLoader.call();
+        if (evictions.changedSince(getName(), key, generation)) {
+            return value;
+        }
+
+        delegate.put(key, value);
+        // An eviction running between the check and the put deleted nothing, so undo the put here.
+        if (evictions.changedSince(getName(), key, generation)) {
+            delegate.evict(key);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(final Object key, final Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(final Object key, final Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(final Object key) {
+        evictions.advance(getName(), key);
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(final Object key) {
+        evictions.advance(getName(), key);
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+}
@@ -0,0 +1,72 @@
+package ru.abdusamatov.librarywithsecurity.service.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Evicts the cache entries of the changes made in a transaction once it completes, all in one Redis call.
+ * Entries are evicted rather than written with the new values: two transactions finishing close together
+ * could otherwise store their values in the opposite order to their commits and leave the older one cached.
+ * Evicting on rollback too drops whatever a read inside the transaction cached from rows that never
+ * committed, and a read that loaded a row before the commit does not store it after the eviction, see
+ * {@link EvictionGenerations}. Outside a transaction keys are evicted right away.
+ *
+ * <p>A failing eviction is logged rather than thrown, as the change it follows is already committed; the
+ * stale entry lasts until its TTL.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransactionalCacheWriter {
+    private final RedisBatchCache batchCache;
+
+    public void evict(final String cacheName, final Long id) {
+        evictAll(cacheName, Set.of(id));
+    }
+
+    public void evictAll(final String cacheName, final Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            batchCache.evictAll(Map.of(cacheName, ids));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        var pending = (Map<String, Set<Long>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new Flush(pending));
+        }
+        pending.computeIfAbsent(cacheName, ignored -> new LinkedHashSet<>()).addAll(ids);
+    }
+
+    private final class Flush implements TransactionSynchronization {
+        private final Map<String, Set<Long>> evictions;
+
+        private Flush(final Map<String, Set<Long>> evictions) {
+            this.evictions = evictions;
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TransactionalCacheWriter.this);
+            try {
+                batchCache.evictAll(evictions);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to evict cache entries after transaction completion: {}", ex.getMessage(), ex);
+            }
+        }
+    }
+}
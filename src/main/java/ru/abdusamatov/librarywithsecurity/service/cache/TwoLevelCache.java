@@ -0,0 +1,197 @@
+package ru.abdusamatov.librarywithsecurity.service.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import ru.abdusamatov.librarywithsecurity.dto.CacheStatsDto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Cache answering from an in-process near cache first and from the shared Redis cache on a near miss.
+ * Every write and eviction goes to Redis and is announced through {@code invalidation}, so other instances
+ * drop their near copy; a lost announcement is bounded by the near cache TTL.
+ *
+ * <p>Near entries are keyed by the string form of the cache key, the same form Redis keys are built from,
+ * which keeps invalidation messages plain text.
+ */
+public class TwoLevelCache implements Cache {
+    private final Cache remote;
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> near;
+    private final Consumer<Collection<String>> invalidation;
+    private final EvictionGenerations evictions;
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+
+    TwoLevelCache(
+            final Cache remote,
+            final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> near,
+            final Consumer<Collection<String>> invalidation,
+            final EvictionGenerations evictions
+    ) {
+        this.remote = remote;
+        this.near = near;
+        this.invalidation = invalidation;
+        this.evictions = evictions;
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(final Object key) {
+        final var nearKey = nearKey(key);
+        final var cached = near.getIfPresent(nearKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        final var value = remote.get(key);
+        if (value == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        // Does not replace a value a concurrent put stored meanwhile, which is newer than the one read here.
+        final var previous = near.asMap().putIfAbsent(nearKey, new SimpleValueWrapper(value.get()));
+        return previous == null ? value : previous;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(final Object key, final Class<T> type) {
+        final var wrapper = get(key);
+        final var value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(String.format(
+                    "Cached value is not of required type [%s]: %s", type.getName(), value));
+        }
+        return (T) value;
+    }
+
+    /**
+     * Loads a missing entry through the remote cache, which {@link TwoLevelCacheManager} makes a
+     * {@link SingleFlightCache}, and keeps the result in the near cache of this instance unless the key was
+     * evicted meanwhile.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(final Object key, final Callable<T> valueLoader) {
+        final var wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+
+        final var generation = evictions.current(getName(), key);
+        final var value = remote.get(key, valueLoader);
+        final var nearKey = nearKey(key);
+        near.put(nearKey, new SimpleValueWrapper(value));
+        // An eviction after the put drops the entry itself; one before it is caught here.
+        if (evictions.changedSince(getName(), key, generation)) {
+            near.invalidate(nearKey);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(final Object key, final Object value) {
+        remote.put(key, value);
+        final var nearKey = nearKey(key);
+        near.put(nearKey, new SimpleValueWrapper(value));
+        invalidation.accept(List.of(nearKey));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(final Object key, final Object value) {
+        final var existing = remote.putIfAbsent(key, value);
+        invalidate(List.of(nearKey(key)));
+        return existing;
+    }
+
+    @Override
+    public void evict(final Object key) {
+        remote.evict(key);
+        invalidate(List.of(nearKey(key)));
+    }
+
+    @Override
+    public boolean evictIfPresent(final Object key) {
+        final var evicted = remote.evictIfPresent(key);
+        invalidate(List.of(nearKey(key)));
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        invalidate(List.of());
+    }
+
+    /**
+     * Drops {@code keys} from the near cache of this instance and announces it to the others. No keys drops
+     * every entry.
+     */
+    public void invalidate(final Collection<String> keys) {
+        invalidateLocally(keys);
+        invalidation.accept(keys);
+    }
+
+    void invalidateLocally(final Collection<String> keys) {
+        if (keys.isEmpty()) {
+            near.invalidateAll();
+        } else {
+            near.invalidateAll(keys);
+        }
+    }
+
+    /**
+     * Stores {@code value} in the near cache of this instance only, for values just read from Redis.
+     */
+    public void putLocally(final Object key, final Object value) {
+        near.put(nearKey(key), new SimpleValueWrapper(value));
+    }
+
+    /**
+     * Up to {@code limit} near cache keys, most frequently used first.
+     */
+    public List<String> hottestKeys(final int limit) {
+        return near.policy()
+                .eviction()
+                .map(eviction -> List.copyOf(eviction.hottest(limit).keySet()))
+                .orElse(List.of());
+    }
+
+    public CacheStatsDto stats() {
+        final var nearStats = near.stats();
+        return CacheStatsDto.builder()
+                .name(getName())
+                .nearSize(near.estimatedSize())
+                .nearHits(nearStats.hitCount())
+                .nearMisses(nearStats.missCount())
+                .nearHitRatio(nearStats.hitRate())
+                .nearEvictions(nearStats.evictionCount())
+                .remoteHits(remoteHits.sum())
+                .remoteMisses(remoteMisses.sum())
+                .remoteHitRatio(hitRatio(remoteHits.sum(), remoteMisses.sum()))
+                .build();
+    }
+
+    static String nearKey(final Object key) {
+        return String.valueOf(key);
+    }
+
+    private static double hitRatio(final long hits, final long misses) {
+        final var requests = hits + misses;
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+}
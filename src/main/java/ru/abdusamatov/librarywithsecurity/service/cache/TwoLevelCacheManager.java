@@ -0,0 +1,175 @@
+package ru.abdusamatov.librarywithsecurity.service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import ru.abdusamatov.librarywithsecurity.config.LibraryProperties;
+import ru.abdusamatov.librarywithsecurity.dto.CacheStatsDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Puts a bounded Caffeine near cache in front of every cache of the Redis cache manager, and loads missing
+ * entries of every cache once per key with {@link SingleFlightCache}, near cache or not. Changed keys are
+ * published on {@code library.cache.invalidation-channel}; each instance listens on it and drops them from
+ * its own near caches, skipping the messages it sent itself.
+ *
+ * <p>A message is newline-separated: sender ID, cache name, then the changed keys. A message without keys
+ * clears the cache.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+    private static final String SEPARATOR = "\n";
+
+    private final CacheManager remote;
+    private final StringRedisTemplate redisTemplate;
+    private final LibraryProperties.Cache properties;
+    private final ToIntFunction<Object> weigher;
+    private final CacheLoadLock loadLock;
+    private final EvictionGenerations evictions = new EvictionGenerations();
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param weigher serialized size of a cached value, used when a near cache is bounded by weight
+     */
+    public TwoLevelCacheManager(
+            final CacheManager remote,
+            final StringRedisTemplate redisTemplate,
+            final LibraryProperties.Cache properties,
+            final ToIntFunction<Object> weigher
+    ) {
+        this.remote = remote;
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.weigher = weigher;
+        this.loadLock = new CacheLoadLock(redisTemplate, properties.getLoadLock());
+    }
+
+    @Override
+    public Cache getCache(final String name) {
+        final var cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+
+        final var remoteCache = remote.getCache(name);
+        return remoteCache == null ? null : caches.computeIfAbsent(name, ignored -> decorate(remoteCache));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * Drops {@code keys} of cache {@code name} from the near caches of all instances, for writes made to
+     * Redis without going through the cache.
+     */
+    public void invalidate(final String name, final Collection<?> keys) {
+        if (getCache(name) instanceof TwoLevelCache cache && !keys.isEmpty()) {
+            cache.invalidate(keys.stream()
+                    .map(TwoLevelCache::nearKey)
+                    .toList());
+        }
+    }
+
+    /**
+     * Marks {@code keys} of cache {@code name} as evicted before they are deleted from Redis without going
+     * through the cache, so loads of them already running do not store what they read.
+     */
+    public void beforeEvict(final String name, final Collection<?> keys) {
+        keys.forEach(key -> evictions.advance(name, key));
+    }
+
+    EvictionGenerations evictions() {
+        return evictions;
+    }
+
+    /**
+     * Fills the near cache of {@code name} on this instance with values already stored in Redis.
+     */
+    public void preload(final String name, final Map<?, ?> values) {
+        if (getCache(name) instanceof TwoLevelCache cache) {
+            values.forEach(cache::putLocally);
+        }
+    }
+
+    public List<String> hottestKeys(final String name, final int limit) {
+        return getCache(name) instanceof TwoLevelCache cache ? cache.hottestKeys(limit) : List.of();
+    }
+
+    public List<CacheStatsDto> stats() {
+        return caches.values()
+                .stream()
+                .filter(TwoLevelCache.class::isInstance)
+                .map(cache -> ((TwoLevelCache) cache).stats())
+                .sorted(Comparator.comparing(CacheStatsDto::getName))
+                .toList();
+    }
+
+    @Override
+    public void onMessage(final Message message, final byte[] pattern) {
+        final var parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR);
+        if (parts.length < 2 || instanceId.equals(parts[0])) {
+            return;
+        }
+
+        if (caches.get(parts[1]) instanceof TwoLevelCache cache) {
+            final var keys = Arrays.asList(parts).subList(2, parts.length);
+            log.debug("Cache {} invalidated by another instance: {} keys", parts[1], keys.size());
+            cache.invalidateLocally(keys);
+        }
+    }
+
+    private Cache decorate(final Cache remoteCache) {
+        final var name = remoteCache.getName();
+        final var singleFlight = new SingleFlightCache(remoteCache, loadLock, evictions);
+        final var settings = properties.getNear().forCache(name);
+        if (!settings.isEnabled()) {
+            return singleFlight;
+        }
+
+        final var builder = Caffeine.newBuilder()
+                .expireAfterWrite(settings.getTtl())
+                .recordStats();
+        if (settings.getMaximumWeight() == null) {
+            builder.maximumSize(settings.getMaximumSize());
+        } else {
+            builder.maximumWeight(settings.getMaximumWeight().toBytes())
+                    .weigher((key, value) -> weigh((Cache.ValueWrapper) value));
+        }
+        final com.github.benmanes.caffeine.cache.Cache<String, Cache.ValueWrapper> near = builder.build();
+        return new TwoLevelCache(singleFlight, near, keys -> publish(name, keys), evictions);
+    }
+
+    private int weigh(final Cache.ValueWrapper value) {
+        return value.get() == null ? 1 : weigher.applyAsInt(value.get());
+    }
+
+    private void publish(final String name, final Collection<String> keys) {
+        final var parts = new ArrayList<String>(keys.size() + 2);
+        parts.add(instanceId);
+        parts.add(name);
+        parts.addAll(keys);
+        try {
+            redisTemplate.convertAndSend(properties.getInvalidationChannel(), String.join(SEPARATOR, parts));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to publish invalidation of cache {}: {}", name, ex.getMessage(), ex);
+        }
+    }
+}
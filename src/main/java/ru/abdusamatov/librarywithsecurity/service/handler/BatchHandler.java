@@ -0,0 +1,317 @@
+package ru.abdusamatov.librarywithsecurity.service.handler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.abdusamatov.librarywithsecurity.config.LibraryProperties;
+import ru.abdusamatov.librarywithsecurity.dto.BatchItemDto;
+import ru.abdusamatov.librarywithsecurity.dto.BatchOperationDto;
+import ru.abdusamatov.librarywithsecurity.dto.BatchRequestDto;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+import ru.abdusamatov.librarywithsecurity.exception.InvalidBatchOperationException;
+import ru.abdusamatov.librarywithsecurity.exception.ResourceNotFoundException;
+import ru.abdusamatov.librarywithsecurity.service.batch.BatchReadService;
+import ru.abdusamatov.librarywithsecurity.service.batch.BatchRoute;
+import ru.ilyam.http.Response;
+import ru.ilyam.http.Result;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.OK;
+
+/**
+ * Runs the operations of a {@code POST /batch} request. Operations touching the same book or user run in
+ * request order, all others run concurrently; plain book and user reads that no earlier write depends on are
+ * answered together by {@link BatchReadService}. Every operation gets the status and envelope its own
+ * endpoint would have returned, failures included.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BatchHandler {
+    private static final ExceptionHandlerMethodResolver ERROR_HANDLERS =
+            new ExceptionHandlerMethodResolver(GlobalExceptionHandler.class);
+
+    private final BookHandler bookHandler;
+    private final ReaderHandler readerHandler;
+    private final BatchReadService batchReadService;
+    private final GlobalExceptionHandler exceptionHandler;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final LibraryProperties properties;
+
+    public Mono<List<BatchItemDto>> execute(final BatchRequestDto request) {
+        return Mono.defer(() -> {
+            final var operations = request.getOperations();
+            final var maxOperations = properties.getBatch().getMaxOperations();
+            if (operations.size() > maxOperations) {
+                return Mono.error(new InvalidBatchOperationException(String.format(
+                        "Batch has %d operations, at most %d are allowed", operations.size(), maxOperations)));
+            }
+
+            final var steps = operations.stream()
+                    .map(this::parse)
+                    .toList();
+            final var shared = new boolean[steps.size()];
+            final var sharedReads = sharedReads(steps, shared);
+
+            final var items = new ArrayList<Mono<BatchItemDto>>(steps.size());
+            for (var i = 0; i < steps.size(); i++) {
+                final var step = steps.get(i);
+                final var dependencies = dependencies(steps, i)
+                        .stream()
+                        .map(items::get)
+                        .toList();
+                final Mono<?> result;
+                if (step.failure() != null) {
+                    result = Mono.error(step.failure());
+                } else if (shared[i]) {
+                    result = sharedReads.map(reads -> read(reads, step));
+                } else {
+                    result = Mono.when(dependencies).then(Mono.defer(() -> run(step)));
+                }
+
+                items.add(result
+                        .map(data -> success(step, data))
+                        .switchIfEmpty(Mono.fromSupplier(() -> success(step, null)))
+                        .onErrorResume(ex -> Mono.just(failure(step.operation(), ex)))
+                        .cache());
+            }
+
+            return Flux.fromIterable(items)
+                    .flatMapSequential(Function.identity())
+                    .collectList();
+        });
+    }
+
+    private Step parse(final BatchOperationDto operation) {
+        try {
+            final var match = BatchRoute.match(operation.getMethod(), operation.getPath())
+                    .orElseThrow(() -> new InvalidBatchOperationException(String.format(
+                            "Operation %s %s is not supported in a batch",
+                            operation.getMethod(), operation.getPath())));
+            final var route = match.route();
+            final var id = match.id() == null ? null : parseId(match.id());
+
+            // Book writes may change the book list of any user, deleting a user releases any of their books.
+            return switch (route) {
+                case GET_BOOK -> reading(operation, route, id, "book:" + id);
+                case DELETE_BOOK, RELEASE_BOOK -> writing(operation, route, id, null, "book:" + id, "user:*");
+                case CREATE_BOOK -> writing(operation, route, null, body(operation, BookDto.class), "user:*");
+                case UPDATE_BOOK -> {
+                    final var book = body(operation, BookDto.class);
+                    yield writing(operation, route, book.getId(), book, "book:" + book.getId(), "user:*");
+                }
+                case ASSIGN_BOOK -> {
+                    final var user = assignee(operation);
+                    yield writing(operation, route, id, user, "book:" + id, "user:" + user.getId());
+                }
+                case GET_USER, GET_USER_DOCUMENT -> reading(operation, route, id, "user:" + id);
+                case UPDATE_USER -> {
+                    final var user = body(operation, UserDto.class);
+                    yield writing(operation, route, user.getId(), user, "user:" + user.getId());
+                }
+                case DELETE_USER -> writing(operation, route, id, null, "user:" + id, "book:*");
+            };
+        } catch (RuntimeException ex) {
+            return new Step(operation, null, null, null, Set.of(), Set.of(), ex);
+        }
+    }
+
+    private static Step reading(
+            final BatchOperationDto operation,
+            final BatchRoute route,
+            final Long id,
+            final String resource
+    ) {
+        return new Step(operation, route, id, null, Set.of(resource), Set.of(), null);
+    }
+
+    private static Step writing(
+            final BatchOperationDto operation,
+            final BatchRoute route,
+            final Long id,
+            final Object body,
+            final String... resources
+    ) {
+        return new Step(operation, route, id, body, Set.of(), Set.of(resources), null);
+    }
+
+    private static Long parseId(final String id) {
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException ex) {
+            throw new InvalidBatchOperationException(String.format("Invalid ID in operation path: %s", id));
+        }
+    }
+
+    private <T> T body(final BatchOperationDto operation, final Class<T> type) {
+        final var body = unvalidatedBody(operation, type);
+        final var violations = validator.validate(body);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return body;
+    }
+
+    /**
+     * Reads the body of an assignment, which like the endpoint only uses the user ID, so the other user fields
+     * are neither required nor validated.
+     */
+    private UserDto assignee(final BatchOperationDto operation) {
+        final var user = unvalidatedBody(operation, UserDto.class);
+        if (user.getId() == null) {
+            throw new InvalidBatchOperationException(String.format(
+                    "Operation %s %s requires a user ID", operation.getMethod(), operation.getPath()));
+        }
+        return user;
+    }
+
+    private <T> T unvalidatedBody(final BatchOperationDto operation, final Class<T> type) {
+        if (operation.getBody() == null || operation.getBody().isNull()) {
+            throw new InvalidBatchOperationException(String.format(
+                    "Operation %s %s requires a body", operation.getMethod(), operation.getPath()));
+        }
+
+        try {
+            return objectMapper.treeToValue(operation.getBody(), type);
+        } catch (JsonProcessingException | IllegalArgumentException ex) {
+            throw new InvalidBatchOperationException(String.format(
+                    "Operation %s %s has an unreadable body", operation.getMethod(), operation.getPath()));
+        }
+    }
+
+    /**
+     * Indexes of the operations a step has to wait for: the earlier ones writing what it reads or writes, and
+     * the earlier ones reading what it writes.
+     */
+    private static List<Integer> dependencies(final List<Step> steps, final int index) {
+        final var step = steps.get(index);
+        final var touched = new HashSet<>(step.reads());
+        touched.addAll(step.writes());
+
+        final var dependencies = new ArrayList<Integer>();
+        for (var i = 0; i < index; i++) {
+            final var earlier = steps.get(i);
+            if (overlaps(earlier.writes(), touched) || overlaps(earlier.reads(), step.writes())) {
+                dependencies.add(i);
+            }
+        }
+        return dependencies;
+    }
+
+    private static boolean overlaps(final Set<String> left, final Set<String> right) {
+        return left.stream().anyMatch(key -> right.stream().anyMatch(other -> sameResource(key, other)));
+    }
+
+    private static boolean sameResource(final String left, final String right) {
+        if (left.equals(right)) {
+            return true;
+        }
+        final var leftType = left.substring(0, left.indexOf(':'));
+        final var rightType = right.substring(0, right.indexOf(':'));
+        return leftType.equals(rightType) && (left.endsWith(":*") || right.endsWith(":*"));
+    }
+
+    /**
+     * Marks in {@code shared} the book and user reads with nothing to wait for, and returns the single stage
+     * loading all of them.
+     */
+    private Mono<BatchReadService.Reads> sharedReads(final List<Step> steps, final boolean[] shared) {
+        final var bookIds = new LinkedHashSet<Long>();
+        final var userIds = new LinkedHashSet<Long>();
+        for (var i = 0; i < steps.size(); i++) {
+            final var step = steps.get(i);
+            if (step.failure() == null && step.route().isSharedRead() && dependencies(steps, i).isEmpty()) {
+                shared[i] = true;
+                (step.route() == BatchRoute.GET_BOOK ? bookIds : userIds).add(step.id());
+            }
+        }
+
+        return Mono.fromCallable(() -> batchReadService.read(bookIds, userIds))
+                .subscribeOn(Schedulers.boundedElastic())
+                .cache();
+    }
+
+    private static Object read(final BatchReadService.Reads reads, final Step step) {
+        return step.route() == BatchRoute.GET_BOOK
+                ? found(reads.books(), "Book", step.id())
+                : found(reads.users(), "User", step.id());
+    }
+
+    private Mono<?> run(final Step step) {
+        final var id = step.id();
+        return switch (step.route()) {
+            case GET_BOOK -> bookHandler.getBookById(id, null, null);
+            case CREATE_BOOK -> bookHandler.createBook((BookDto) step.body(), null);
+            case UPDATE_BOOK -> bookHandler.updateBook((BookDto) step.body(), null);
+            case DELETE_BOOK -> bookHandler.deleteBook(id);
+            case ASSIGN_BOOK -> bookHandler.assignBook(id, (UserDto) step.body(), null);
+            case RELEASE_BOOK -> bookHandler.releaseBook(id);
+            case GET_USER -> readerHandler.getUserById(id, null, null);
+            case GET_USER_DOCUMENT -> readerHandler.getDocument(id);
+            case UPDATE_USER -> readerHandler.updateUser((UserDto) step.body(), null);
+            case DELETE_USER -> readerHandler.deleteUserById(id);
+        };
+    }
+
+    private static <T> T found(final Map<Long, T> values, final String resourceName, final Long id) {
+        return Optional.ofNullable(values.get(id))
+                .orElseThrow(() -> new ResourceNotFoundException(resourceName, "ID", id));
+    }
+
+    private static BatchItemDto success(final Step step, final Object data) {
+        final var result = Result.success(step.route().getStatus(), step.route().getDescription());
+        final var response = data == null ? Response.buildResponse(result) : Response.buildResponse(result, data);
+        return new BatchItemDto(step.operation().getId(), OK.value(), response);
+    }
+
+    private BatchItemDto failure(final BatchOperationDto operation, final Throwable error) {
+        final var ex = Exceptions.unwrap(error);
+        final var method = ERROR_HANDLERS.resolveMethodByExceptionType(ex.getClass());
+
+        final ResponseEntity<? extends Response<?>> response;
+        if (method == null) {
+            log.error("Batch operation failed: {}", ex.getMessage(), ex);
+            response = exceptionHandler.exceptionHandler(
+                    INTERNAL_SERVER_ERROR, "Batch operation failed", Map.of("cause", String.valueOf(ex.getMessage())));
+        } else {
+            @SuppressWarnings("unchecked")
+            final var handled = (ResponseEntity<? extends Response<?>>) ReflectionUtils
+                    .invokeMethod(method, exceptionHandler, ex);
+            response = handled;
+        }
+        return new BatchItemDto(operation.getId(), response.getStatusCode().value(), response.getBody());
+    }
+
+    private record Step(
+            BatchOperationDto operation,
+            BatchRoute route,
+            Long id,
+            Object body,
+            Set<String> reads,
+            Set<String> writes,
+            RuntimeException failure
+    ) {
+    }
+}
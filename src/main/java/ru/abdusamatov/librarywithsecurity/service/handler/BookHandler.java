@@ -1,12 +1,30 @@
 package ru.abdusamatov.librarywithsecurity.service.handler;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.BookIdsDto;
+import ru.abdusamatov.librarywithsecurity.dto.BookSearchMode;
+import ru.abdusamatov.librarywithsecurity.dto.BulkAssignDto;
+import ru.abdusamatov.librarywithsecurity.dto.BulkResultDto;
+import ru.abdusamatov.librarywithsecurity.dto.CursorPageDto;
+import ru.abdusamatov.librarywithsecurity.dto.FieldSelection;
+import ru.abdusamatov.librarywithsecurity.dto.ImportFormat;
+import ru.abdusamatov.librarywithsecurity.dto.ImportReportDto;
+import ru.abdusamatov.librarywithsecurity.dto.MultiGetDto;
+import ru.abdusamatov.librarywithsecurity.dto.SuggestionDto;
 import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+import ru.abdusamatov.librarywithsecurity.exception.InvalidImportFileException;
 import ru.abdusamatov.librarywithsecurity.service.BookService;
+import ru.abdusamatov.librarywithsecurity.service.idempotency.IdempotencyService;
+import ru.abdusamatov.librarywithsecurity.service.importer.BookImportService;
+import ru.abdusamatov.librarywithsecurity.service.search.CatalogueSearchEngine;
+import ru.abdusamatov.librarywithsecurity.service.search.SuggestionService;
 
 import java.util.Collections;
 import java.util.List;
@@ -15,25 +33,72 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookHandler {
     private final BookService bookService;
+    private final CatalogueSearchEngine searchEngine;
+    private final SuggestionService suggestionService;
+    private final BookImportService bookImportService;
+    private final IdempotencyService idempotencyService;
 
-    public Mono<List<BookDto>> getBookList(final Integer page, final Integer size, final boolean isSorted) {
-        return Mono.fromCallable(() -> bookService.getBookList(page, size, isSorted))
+    public Mono<List<BookDto>> getBookList(
+            final Integer page,
+            final Integer size,
+            final boolean isSorted,
+            final String fields,
+            final String expand
+    ) {
+        return Mono.fromCallable(() -> FieldSelection.isRequested(fields, expand)
+                        ? bookService.getSelectedBookList(page, size, isSorted, fields, expand)
+                        : bookService.getBookList(page, size, isSorted))
                 .subscribeOn(Schedulers.boundedElastic())
                 .map(bookDtoList -> bookDtoList.isEmpty() ? Collections.emptyList() : bookDtoList);
     }
 
-    public Mono<BookDto> getBookById(final Long id) {
-        return Mono.fromCallable(() -> bookService.getBookById(id))
+    public Mono<CursorPageDto<BookDto>> getBookPage(final String cursor, final Integer size, final boolean isSorted) {
+        return Mono.fromCallable(() -> bookService.getBookPage(cursor, size, isSorted))
                 .subscribeOn(Schedulers.boundedElastic());
     }
 
-    public Mono<BookDto> createBook(final BookDto dto) {
-        return Mono.fromCallable(() -> bookService.createBook(dto))
+    public Mono<BookDto> getBookById(final Long id, final String fields, final String expand) {
+        return Mono.fromCallable(() -> FieldSelection.isRequested(fields, expand)
+                        ? bookService.getSelectedBookById(id, fields, expand)
+                        : bookService.getBookById(id))
                 .subscribeOn(Schedulers.boundedElastic());
     }
 
-    public Mono<BookDto> updateBook(final BookDto dto) {
-        return Mono.fromCallable(() -> bookService.updateBook(dto))
+    public Mono<MultiGetDto<BookDto>> getBooksByIds(final List<Long> ids) {
+        return Mono.fromCallable(() -> bookService.getBooksByIds(ids))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Flux<BookDto> exportBooks() {
+        return bookService.exportBooks();
+    }
+
+    public Mono<ImportReportDto> importBooks(final MultipartFile file, final ImportFormat requestedFormat) {
+        return Mono.fromCallable(() -> {
+                    final var format = ImportFormat
+                            .resolve(requestedFormat, file.getOriginalFilename(), file.getContentType())
+                            .orElseThrow(() -> new InvalidImportFileException(
+                                    "Cannot detect import format, pass format=CSV or format=NDJSON"));
+                    try (var input = file.getInputStream()) {
+                        return bookImportService.importBooks(input, format);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<BookDto> createBook(final BookDto dto, final String idempotencyKey) {
+        return idempotencyService.execute("books", idempotencyKey, dto, BookDto.class, () ->
+                Mono.fromCallable(() -> bookService.createBook(dto))
+                        .subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    public Mono<BookDto> updateBook(final BookDto dto, final String ifMatch) {
+        return Mono.fromCallable(() -> bookService.updateBook(dto, ifMatch))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<BookDto> patchBook(final Long id, final JsonNode patch, final String ifMatch) {
+        return Mono.fromCallable(() -> bookService.patchBook(id, patch, ifMatch))
                 .subscribeOn(Schedulers.boundedElastic());
     }
 
@@ -43,8 +108,8 @@ public class BookHandler {
                 .then();
     }
 
-    public Mono<Void> assignBook(final Long id, final UserDto userDto) {
-        return Mono.fromRunnable(() -> bookService.assignBook(id, userDto))
+    public Mono<Void> assignBook(final Long id, final UserDto userDto, final String ifMatch) {
+        return Mono.fromRunnable(() -> bookService.assignBook(id, userDto.getId(), ifMatch))
                 .subscribeOn(Schedulers.boundedElastic())
                 .then();
     }
@@ -55,9 +120,38 @@ public class BookHandler {
                 .then();
     }
 
-    public Mono<List<BookDto>> searchByTitle(final String query) {
-        return Mono.fromCallable(() -> bookService.searchByTitle(query))
+    public Mono<BulkResultDto> assignBooks(final BulkAssignDto request) {
+        return Mono.fromCallable(() -> bookService.assignBooks(request.getUserId(), request.getIds()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<BulkResultDto> releaseBooks(final BookIdsDto request) {
+        return Mono.fromCallable(() -> bookService.releaseBooks(request.getIds()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<BulkResultDto> deleteBooks(final BookIdsDto request) {
+        return Mono.fromCallable(() -> bookService.deleteBooks(request.getIds()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<List<BookDto>> searchByTitle(
+            final String query,
+            final BookSearchMode mode,
+            final Integer page,
+            final Integer size
+    ) {
+        if (mode == BookSearchMode.CONTAINS && searchEngine.isReady()) {
+            return Mono.fromCallable(() -> searchEngine.search(query, page, size))
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+
+        return Mono.fromCallable(() -> bookService.searchByTitle(query, mode, page, size))
                 .subscribeOn(Schedulers.boundedElastic())
                 .map(bookDtoList -> bookDtoList.isEmpty() ? Collections.emptyList() : bookDtoList);
     }
+
+    public Mono<List<SuggestionDto>> suggest(final String prefix, final Integer limit) {
+        return Mono.fromCallable(() -> suggestionService.suggest(prefix, limit));
+    }
 }
@@ -1,12 +1,26 @@
 package ru.abdusamatov.librarywithsecurity.service.handler;
 
+import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.UnsatisfiedServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import ru.abdusamatov.librarywithsecurity.exception.BookAlreadyAssignedException;
+import ru.abdusamatov.librarywithsecurity.exception.IdempotencyKeyReusedException;
+import ru.abdusamatov.librarywithsecurity.exception.IdempotentRequestInProgressException;
+import ru.abdusamatov.librarywithsecurity.exception.InvalidAssignmentException;
+import ru.abdusamatov.librarywithsecurity.exception.InvalidBatchOperationException;
+import ru.abdusamatov.librarywithsecurity.exception.InvalidCursorException;
+import ru.abdusamatov.librarywithsecurity.exception.InvalidFieldSelectionException;
+import ru.abdusamatov.librarywithsecurity.exception.InvalidImportFileException;
+import ru.abdusamatov.librarywithsecurity.exception.InvalidPatchException;
+import ru.abdusamatov.librarywithsecurity.exception.PreconditionFailedException;
 import ru.abdusamatov.librarywithsecurity.exception.ResourceNotFoundException;
+import ru.abdusamatov.librarywithsecurity.exception.TooManyIdsException;
 import ru.abdusamatov.librarywithsecurity.exception.TopPdfConverterException;
 import ru.ilyam.http.Response;
 import ru.ilyam.http.Result;
@@ -15,8 +29,11 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
 
 @ControllerAdvice
 @Slf4j
@@ -33,6 +50,17 @@ public class GlobalExceptionHandler {
         return exceptionHandler(BAD_REQUEST, "Validation field failed", errors);
     }
 
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<Response<Void>> handleConstraintViolationException(final ConstraintViolationException ex) {
+        log.error("Validation failed: {}", ex.getMessage(), ex);
+
+        var errors = new HashMap<String, String>();
+        ex.getConstraintViolations()
+                .forEach(violation -> errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+
+        return exceptionHandler(BAD_REQUEST, "Validation field failed", errors);
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<Response<Void>> handleEntityNotFoundException(final ResourceNotFoundException ex) {
         log.error("Failed entity search: {}", ex.getMessage(), ex);
@@ -43,6 +71,131 @@ public class GlobalExceptionHandler {
         return exceptionHandler(NOT_FOUND, "Failed entity search", errors);
     }
 
+    @ExceptionHandler(BookAlreadyAssignedException.class)
+    public ResponseEntity<Response<Void>> handleBookAlreadyAssignedException(final BookAlreadyAssignedException ex) {
+        log.error("Book already assigned: {}", ex.getMessage(), ex);
+
+        final var message = ex.getMessage();
+        final var errors = Map.of("cause", message);
+
+        return exceptionHandler(CONFLICT, "Book already assigned", errors);
+    }
+
+    @ExceptionHandler(InvalidAssignmentException.class)
+    public ResponseEntity<Response<Void>> handleInvalidAssignmentException(final InvalidAssignmentException ex) {
+        log.error("Invalid assignment: {}", ex.getMessage(), ex);
+
+        final var message = ex.getMessage();
+        final var errors = Map.of("cause", message);
+
+        return exceptionHandler(BAD_REQUEST, "Invalid assignment", errors);
+    }
+
+    @ExceptionHandler(IdempotentRequestInProgressException.class)
+    public ResponseEntity<Response<Void>> handleIdempotentRequestInProgressException(
+            final IdempotentRequestInProgressException ex
+    ) {
+        log.error("Idempotent request in progress: {}", ex.getMessage(), ex);
+
+        final var message = ex.getMessage();
+        final var errors = Map.of("cause", message);
+
+        return exceptionHandler(CONFLICT, "Idempotent request in progress", errors);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<Response<Void>> handleIdempotencyKeyReusedException(final IdempotencyKeyReusedException ex) {
+        log.error("Idempotency key reused: {}", ex.getMessage(), ex);
+
+        final var message = ex.getMessage();
+        final var errors = Map.of("cause", message);
+
+        return exceptionHandler(UNPROCESSABLE_ENTITY, "Idempotency key reused", errors);
+    }
+
+    @ExceptionHandler({PreconditionFailedException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<Response<Void>> handlePreconditionFailedException(final RuntimeException ex) {
+        log.error("Precondition failed: {}", ex.getMessage(), ex);
+
+        final var message = ex.getMessage();
+        final var errors = Map.of("cause", message);
+
+        return exceptionHandler(PRECONDITION_FAILED, "Precondition failed", errors);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Response<Void>> handleInvalidCursorException(final InvalidCursorException ex) {
+        log.error("Invalid pagination cursor: {}", ex.getMessage(), ex);
+
+        final var message = ex.getMessage();
+        final var errors = Map.of("cause", message);
+
+        return exceptionHandler(BAD_REQUEST, "Invalid pagination cursor", errors);
+    }
+
+    @ExceptionHandler(UnsatisfiedServletRequestParameterException.class)
+    public ResponseEntity<Response<Void>> handleUnsatisfiedServletRequestParameterException(
+            final UnsatisfiedServletRequestParameterException ex
+    ) {
+        log.error("Conflicting request parameters: {}", ex.getMessage(), ex);
+
+        final var message = ex.getMessage();
+        final var errors = Map.of("cause", message);
+
+        return exceptionHandler(BAD_REQUEST, "Conflicting request parameters", errors);
+    }
+
+    @ExceptionHandler(InvalidFieldSelectionException.class)
+    public ResponseEntity<Response<Void>> handleInvalidFieldSelectionException(
+            final InvalidFieldSelectionException ex
+    ) {
+        log.error("Invalid field selection: {}", ex.getMessage(), ex);
+
+        final var message = ex.getMessage();
+        final var errors = Map.of("cause", message);
+
+        return exceptionHandler(BAD_REQUEST, "Invalid field selection", errors);
+    }
+
+    @ExceptionHandler(TooManyIdsException.class)
+    public ResponseEntity<Response<Void>> handleTooManyIdsException(final TooManyIdsException ex) {
+        log.error("Too many IDs requested: {}", ex.getMessage(), ex);
+
+        final var message = ex.getMessage();
+        final var errors = Map.of("cause", message);
+
+        return exceptionHandler(BAD_REQUEST, "Too many IDs requested", errors);
+    }
+
+    @ExceptionHandler(InvalidImportFileException.class)
+    public ResponseEntity<Response<Void>> handleInvalidImportFileException(final InvalidImportFileException ex) {
+        log.error("Invalid import file: {}", ex.getMessage(), ex);
+
+        final var message = ex.getMessage();
+        final var errors = Map.of("cause", message);
+
+        return exceptionHandler(BAD_REQUEST, "Invalid import file", errors);
+    }
+
+    @ExceptionHandler(InvalidBatchOperationException.class)
+    public ResponseEntity<Response<Void>> handleInvalidBatchOperationException(
+            final InvalidBatchOperationException ex
+    ) {
+        log.error("Invalid batch operation: {}", ex.getMessage(), ex);
+
+        final var message = ex.getMessage();
+        final var errors = Map.of("cause", message);
+
+        return exceptionHandler(BAD_REQUEST, "Invalid batch operation", errors);
+    }
+
+    @ExceptionHandler(InvalidPatchException.class)
+    public ResponseEntity<Response<Void>> handleInvalidPatchException(final InvalidPatchException ex) {
+        log.error("Invalid merge patch: {}", ex.getMessage(), ex);
+
+        return exceptionHandler(BAD_REQUEST, "Invalid merge patch", ex.getErrors());
+    }
+
     @ExceptionHandler(TopPdfConverterException.class)
     public ResponseEntity<Response<Void>> handleTopPdfConverterException(final TopPdfConverterException ex) {
         log.error("TPDFConverter client error: {}", ex.getMessage(), ex);
@@ -1,15 +1,26 @@
 package ru.abdusamatov.librarywithsecurity.service.handler;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.CursorPageDto;
+import ru.abdusamatov.librarywithsecurity.dto.FieldSelection;
 import ru.abdusamatov.librarywithsecurity.dto.FileDto;
+import ru.abdusamatov.librarywithsecurity.dto.MultiGetDto;
+import ru.abdusamatov.librarywithsecurity.dto.UserBookSort;
 import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+import ru.abdusamatov.librarywithsecurity.dto.UserListView;
 import ru.abdusamatov.librarywithsecurity.service.UserService;
+import ru.abdusamatov.librarywithsecurity.service.idempotency.IdempotencyService;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -19,34 +30,76 @@ import java.util.List;
 public class ReaderHandler {
     private final UserService userService;
     private final DocumentHandler documentHandler;
+    private final IdempotencyService idempotencyService;
 
-    public Mono<List<UserDto>> getUserList(final Integer page, final Integer size) {
-        return Mono.fromCallable(() -> userService.getUserList(page, size))
+    public Mono<List<UserDto>> getUserList(
+            final Integer page,
+            final Integer size,
+            final UserListView view,
+            final String fields,
+            final String expand
+    ) {
+        return Mono.fromCallable(() -> FieldSelection.isRequested(fields, expand)
+                        ? userService.getSelectedUserList(page, size, view, fields, expand)
+                        : userService.getUserList(page, size, view))
                 .subscribeOn(Schedulers.boundedElastic())
                 .map(userDtoList -> userDtoList.isEmpty() ? Collections.emptyList() : userDtoList);
     }
 
+    public Mono<CursorPageDto<UserDto>> getUserPage(final String cursor, final Integer size) {
+        return Mono.fromCallable(() -> userService.getUserPage(cursor, size))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
 
-    public Mono<UserDto> getUserById(final Long id) {
-        return Mono.fromCallable(() -> userService.getUserById(id))
+    public Mono<UserDto> getUserById(final Long id, final String fields, final String expand) {
+        return Mono.fromCallable(() -> FieldSelection.isRequested(fields, expand)
+                        ? userService.getSelectedUserById(id, fields, expand)
+                        : userService.getUserById(id))
                 .subscribeOn(Schedulers.boundedElastic())
                 .doOnSuccess((userDto) -> log.info("Find user with ID: {}", userDto.getId()));
     }
 
+    public Mono<List<BookDto>> getUserBooks(
+            final Long id,
+            final Integer page,
+            final Integer size,
+            final UserBookSort sort,
+            final Sort.Direction direction
+    ) {
+        return Mono.fromCallable(() -> userService.getUserBooks(id, page, size, sort, direction))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<MultiGetDto<UserDto>> getUsersByIds(final List<Long> ids) {
+        return Mono.fromCallable(() -> userService.getUsersByIds(ids))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Flux<UserDto> exportUsers() {
+        return userService.exportUsers();
+    }
+
     public Mono<FileDto> getDocument(final long userId) {
         return documentHandler.getDocument(userId);
     }
 
-    public Mono<UserDto> createUser(final MultipartFile file, final UserDto dto) {
-        return Mono.fromCallable(() -> userService.createUser(dto))
-                .subscribeOn(Schedulers.boundedElastic())
-                .flatMap(userDto -> documentHandler
-                        .saveUserDocument(file, userDto.getId())
-                        .thenReturn(userDto));
+    public Mono<UserDto> createUser(final MultipartFile file, final UserDto dto, final String idempotencyKey) {
+        final var request = Arrays.asList(dto, file.getOriginalFilename(), file.getSize());
+        return idempotencyService.execute("users", idempotencyKey, request, UserDto.class, () ->
+                Mono.fromCallable(() -> userService.createUser(dto))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .flatMap(userDto -> documentHandler
+                                .saveUserDocument(file, userDto.getId())
+                                .thenReturn(userDto)));
+    }
+
+    public Mono<UserDto> updateUser(final UserDto dtoToBeUpdated, final String ifMatch) {
+        return Mono.fromCallable(() -> userService.updateUser(dtoToBeUpdated, ifMatch))
+                .subscribeOn(Schedulers.boundedElastic());
     }
 
-    public Mono<UserDto> updateUser(final UserDto dtoToBeUpdated) {
-        return Mono.fromCallable(() -> userService.updateUser(dtoToBeUpdated))
+    public Mono<UserDto> patchUser(final Long id, final JsonNode patch, final String ifMatch) {
+        return Mono.fromCallable(() -> userService.patchUser(id, patch, ifMatch))
                 .subscribeOn(Schedulers.boundedElastic());
     }
 
@@ -0,0 +1,187 @@
+package ru.abdusamatov.librarywithsecurity.service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.abdusamatov.librarywithsecurity.config.LibraryProperties;
+import ru.abdusamatov.librarywithsecurity.exception.IdempotencyKeyReusedException;
+import ru.abdusamatov.librarywithsecurity.exception.IdempotentRequestInProgressException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Executes a request at most once per {@code Idempotency-Key}. The key is claimed in Redis with SET NX,
+ * the serialized response replaces the claim once the request completes and is replayed to every retry
+ * until the TTL expires. Duplicates arriving while the original is running share its result when they hit
+ * the same instance and poll Redis otherwise; if the original fails the claim is dropped, so the next
+ * attempt executes the request again. If only storing the response fails, the claim is kept.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final String KEY_PREFIX = "idempotency::";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final LibraryProperties properties;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs {@code action} unless a response for {@code key} is already stored, in which case that response is
+     * returned. {@code request} identifies the payload, reusing a key with a different payload is rejected.
+     * Without a key the action is executed as is.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(
+            final String scope,
+            final String key,
+            final Object request,
+            final Class<T> responseType,
+            final Supplier<Mono<T>> action
+    ) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+
+        return Mono.defer(() -> {
+            final var redisKey = KEY_PREFIX + scope + "::" + key;
+            final var fingerprint = fingerprint(request);
+            final var deadline = Instant.now().plus(properties.getIdempotency().getWaitTimeout());
+            final var shared = inFlight.computeIfAbsent(redisKey, ignored -> new InFlight(
+                    fingerprint,
+                    run(redisKey, key, fingerprint, responseType, action, deadline)
+                            .doFinally(signal -> inFlight.remove(redisKey))
+                            .cache()));
+            if (!shared.fingerprint().equals(fingerprint)) {
+                return Mono.error(new IdempotencyKeyReusedException(key));
+            }
+            return (Mono<T>) shared.response();
+        });
+    }
+
+    private <T> Mono<T> run(
+            final String redisKey,
+            final String key,
+            final String fingerprint,
+            final Class<T> responseType,
+            final Supplier<Mono<T>> action,
+            final Instant deadline
+    ) {
+        return Mono.fromCallable(() -> claim(redisKey, fingerprint))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(existing -> existing.isEmpty()
+                        ? executeAndStore(redisKey, fingerprint, action)
+                        : resume(existing.get(), redisKey, key, fingerprint, responseType, action, deadline));
+    }
+
+    private <T> Mono<T> executeAndStore(
+            final String redisKey,
+            final String fingerprint,
+            final Supplier<Mono<T>> action
+    ) {
+        return action.get()
+                .onErrorResume(ex -> Mono.fromRunnable(() -> redisTemplate.delete(redisKey))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .then(Mono.error(ex)))
+                .flatMap(response -> Mono.fromCallable(() -> store(redisKey, fingerprint, response))
+                        .subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    /**
+     * Replaces the claim with the response. A failure here leaves the claim in place rather than failing the
+     * request, which already took effect: retries keep waiting on the claim until it expires after the
+     * processing timeout, instead of executing the request again straight away.
+     */
+    private <T> T store(final String redisKey, final String fingerprint, final T response) {
+        try {
+            write(redisKey, new StoredResponse(fingerprint, toJson(response)), properties.getIdempotency().getTtl());
+        } catch (JsonProcessingException | RuntimeException ex) {
+            log.warn("Failed to store response for idempotency key {}: {}", redisKey, ex.getMessage(), ex);
+        }
+        return response;
+    }
+
+    private <T> Mono<T> resume(
+            final StoredResponse existing,
+            final String redisKey,
+            final String key,
+            final String fingerprint,
+            final Class<T> responseType,
+            final Supplier<Mono<T>> action,
+            final Instant deadline
+    ) {
+        if (!existing.fingerprint().equals(fingerprint)) {
+            return Mono.error(new IdempotencyKeyReusedException(key));
+        }
+        if (existing.body() != null) {
+            log.debug("Replaying stored response for idempotency key {}", redisKey);
+            return Mono.fromCallable(() -> objectMapper.readValue(existing.body(), responseType));
+        }
+        if (Instant.now().isAfter(deadline)) {
+            return Mono.error(new IdempotentRequestInProgressException(key));
+        }
+        return Mono.delay(properties.getIdempotency().getPollInterval())
+                .then(Mono.defer(() -> run(redisKey, key, fingerprint, responseType, action, deadline)));
+    }
+
+    /**
+     * Claims the key for this request, returns the stored entry instead if another request got there first.
+     */
+    private Optional<StoredResponse> claim(final String redisKey, final String fingerprint)
+            throws JsonProcessingException {
+        final var claimed = redisTemplate
+                .opsForValue()
+                .setIfAbsent(redisKey, toJson(new StoredResponse(fingerprint, null)),
+                        properties.getIdempotency().getProcessingTimeout());
+        if (Boolean.TRUE.equals(claimed)) {
+            return Optional.empty();
+        }
+
+        final var stored = redisTemplate.opsForValue().get(redisKey);
+        if (stored == null) {
+            // Claim dropped by a failed original between SET NX and GET, wait for the next round.
+            return Optional.of(new StoredResponse(fingerprint, null));
+        }
+        return Optional.of(objectMapper.readValue(stored, StoredResponse.class));
+    }
+
+    private void write(final String redisKey, final StoredResponse value, final Duration ttl)
+            throws JsonProcessingException {
+        redisTemplate.opsForValue().set(redisKey, toJson(value), ttl);
+    }
+
+    private String fingerprint(final Object request) {
+        try {
+            return DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot fingerprint idempotent request", e);
+        }
+    }
+
+    private String toJson(final Object value) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    private record InFlight(String fingerprint, Mono<?> response) {
+    }
+
+    /**
+     * Redis entry of a key, {@code body} is {@code null} while the original request is still running.
+     */
+    record StoredResponse(String fingerprint, String body) {
+    }
+}
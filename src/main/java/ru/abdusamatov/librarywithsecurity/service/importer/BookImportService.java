@@ -0,0 +1,209 @@
+package ru.abdusamatov.librarywithsecurity.service.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import reactor.core.scheduler.Schedulers;
+import ru.abdusamatov.librarywithsecurity.config.LibraryProperties;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.ImportFormat;
+import ru.abdusamatov.librarywithsecurity.dto.ImportReportDto;
+import ru.abdusamatov.librarywithsecurity.exception.InvalidImportFileException;
+import ru.abdusamatov.librarywithsecurity.repository.BookCopyRepository;
+import ru.abdusamatov.librarywithsecurity.service.cache.CatalogueCache;
+import ru.abdusamatov.librarywithsecurity.service.search.CatalogueSearchEngine;
+import ru.abdusamatov.librarywithsecurity.service.search.SuggestionService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads a CSV or NDJSON catalogue file line by line, validates every row against the {@link BookDto}
+ * constraints and stores valid rows with {@code COPY} in chunks, so memory does not depend on file size.
+ * Each chunk is committed on its own: a failed chunk is reported per row and the import goes on.
+ * {@code COPY} publishes no book events, so after an import that stored anything the catalogue cache is
+ * invalidated and the search and suggestion indexes are rebuilt in the background.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookImportService {
+    private static final List<String> CSV_COLUMNS = List.of(
+            "title", "authorname", "authorsurname", "yearofpublication");
+
+    private final BookCopyRepository bookCopyRepository;
+    private final CatalogueCache catalogueCache;
+    private final CatalogueSearchEngine searchEngine;
+    private final SuggestionService suggestionService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final LibraryProperties properties;
+
+    public ImportReportDto importBooks(final InputStream input, final ImportFormat format) throws IOException {
+        final var report = new Report(properties.getBulkImport().getMaxReportedErrors());
+        final var chunkSize = properties.getBulkImport().getChunkSize();
+        final var chunk = new ArrayList<BookDto>(chunkSize);
+        final var chunkLines = new ArrayList<Long>(chunkSize);
+        final var started = System.nanoTime();
+
+        try (var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Map<String, Integer> header = null;
+            var lineNumber = 0L;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == ImportFormat.CSV && header == null) {
+                    header = parseHeader(line);
+                    continue;
+                }
+
+                report.received++;
+                try {
+                    final var book = format == ImportFormat.CSV
+                            ? fromCsv(line, header)
+                            : objectMapper.readValue(line, BookDto.class);
+                    final var violations = validator.validate(book);
+                    if (!violations.isEmpty()) {
+                        report.fail(lineNumber, describe(violations));
+                        continue;
+                    }
+                    chunk.add(book);
+                    chunkLines.add(lineNumber);
+                } catch (JsonProcessingException ex) {
+                    report.fail(lineNumber, "Malformed JSON: " + ex.getOriginalMessage());
+                } catch (IllegalArgumentException ex) {
+                    report.fail(lineNumber, ex.getMessage());
+                }
+
+                if (chunk.size() == chunkSize) {
+                    flush(chunk, chunkLines, report);
+                }
+            }
+        }
+        flush(chunk, chunkLines, report);
+        if (report.imported > 0) {
+            catalogueCache.invalidate();
+            rebuildIndexes();
+        }
+
+        final var elapsedNanos = System.nanoTime() - started;
+        log.info("Imported {} of {} books in {} ms", report.imported, report.received, elapsedNanos / 1_000_000);
+        return report.toDto(elapsedNanos);
+    }
+
+    private void rebuildIndexes() {
+        if (searchEngine.isEnabled()) {
+            Schedulers.boundedElastic().schedule(searchEngine::rebuild);
+        }
+        Schedulers.boundedElastic().schedule(suggestionService::rebuild);
+    }
+
+    private void flush(final List<BookDto> chunk, final List<Long> chunkLines, final Report report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            report.imported += bookCopyRepository.copy(chunk);
+        } catch (DataAccessException ex) {
+            log.error("Failed to copy chunk of {} books", chunk.size(), ex);
+            final var message = "Chunk rejected by database: " + ex.getMostSpecificCause().getMessage();
+            chunkLines.forEach(line -> report.fail(line, message));
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private static Map<String, Integer> parseHeader(final String line) {
+        final var header = new HashMap<String, Integer>();
+        final var columns = CsvLine.parse(line);
+        for (var i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).strip().replace("_", "").toLowerCase(Locale.ROOT), i);
+        }
+
+        final var missing = CSV_COLUMNS.stream()
+                .filter(column -> !header.containsKey(column))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new InvalidImportFileException("CSV header misses columns " + missing);
+        }
+        return header;
+    }
+
+    private static BookDto fromCsv(final String line, final Map<String, Integer> header) {
+        final var values = CsvLine.parse(line);
+        if (values.size() < header.size()) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d columns, found %d", header.size(), values.size()));
+        }
+
+        final var year = values.get(header.get("yearofpublication")).strip();
+        try {
+            return BookDto.builder()
+                    .title(values.get(header.get("title")).strip())
+                    .authorName(values.get(header.get("authorname")).strip())
+                    .authorSurname(values.get(header.get("authorsurname")).strip())
+                    .yearOfPublication(year.isEmpty() ? null : Integer.valueOf(year))
+                    .build();
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Year of publication is not a number: " + year);
+        }
+    }
+
+    private static String describe(final Set<ConstraintViolation<BookDto>> violations) {
+        return violations.stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.joining("; "));
+    }
+
+    private static final class Report {
+        private final int maxErrors;
+        private final List<ImportReportDto.RowError> errors = new ArrayList<>();
+        private long received;
+        private long imported;
+        private long failed;
+
+        private Report(final int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void fail(final long line, final String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportReportDto.RowError(line, message));
+            }
+        }
+
+        private ImportReportDto toDto(final long elapsedNanos) {
+            final var seconds = Math.max(elapsedNanos, 1) / 1e9;
+            return ImportReportDto.builder()
+                    .received(received)
+                    .imported(imported)
+                    .failed(failed)
+                    .durationMillis(elapsedNanos / 1_000_000)
+                    .rowsPerSecond(Math.round(imported / seconds * 10) / 10.0)
+                    .errors(errors)
+                    .errorsTruncated(failed > errors.size())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.abdusamatov.librarywithsecurity.service.importer;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 field splitting for a single line: fields may be quoted and quotes inside them are doubled.
+ * Quoted line breaks are not supported, every physical line is one record.
+ */
+@UtilityClass
+public class CsvLine {
+
+    public static List<String> parse(final String line) {
+        final var fields = new ArrayList<String>();
+        final var field = new StringBuilder();
+        var quoted = false;
+        var fieldStart = true;
+
+        for (var i = 0; i < line.length(); i++) {
+            final var c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+            } else {
+                field.append(c);
+                fieldStart = false;
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -6,6 +6,7 @@ import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import ru.abdusamatov.librarywithsecurity.dto.BookDto;
 import ru.abdusamatov.librarywithsecurity.model.Book;
+import ru.abdusamatov.librarywithsecurity.model.projection.BookView;
 
 @Mapper(componentModel = "spring")
 public interface BookMapper {
@@ -17,8 +18,20 @@ public interface BookMapper {
     @Mapping(source = "yearOfPublication", target = "yearOfPublication")
     @Mapping(source = "takenAt", target = "takenAt")
     @Mapping(source = "owner.id", target = "userId")
+    @Mapping(source = "version", target = "version")
     BookDto bookToBookDto(Book book);
 
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(source = "id", target = "id")
+    @Mapping(source = "title", target = "title")
+    @Mapping(source = "authorName", target = "authorName")
+    @Mapping(source = "authorSurname", target = "authorSurname")
+    @Mapping(source = "yearOfPublication", target = "yearOfPublication")
+    @Mapping(source = "takenAt", target = "takenAt")
+    @Mapping(source = "userId", target = "userId")
+    @Mapping(source = "version", target = "version")
+    BookDto bookViewToBookDto(BookView bookView);
+
     @BeanMapping(ignoreByDefault = true)
     @Mapping(source = "id", target = "id")
     @Mapping(source = "title", target = "title")
@@ -35,6 +48,5 @@ public interface BookMapper {
     @Mapping(source = "authorSurname", target = "authorSurname")
     @Mapping(source = "yearOfPublication", target = "yearOfPublication")
     @Mapping(source = "takenAt", target = "takenAt")
-    @Mapping(source = "userId", target = "owner.id")
     Book updateBookFromDto(BookDto bookDto, @MappingTarget Book book);
 }
@@ -6,10 +6,11 @@ import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import ru.abdusamatov.librarywithsecurity.dto.UserDto;
 import ru.abdusamatov.librarywithsecurity.model.User;
+import ru.abdusamatov.librarywithsecurity.model.projection.UserSummaryView;
 
 
 @Mapper(config = MapperConfiguration.class,
-        uses = {DocumentMapper.class, BookMapper.class})
+        uses = DocumentMapper.class)
 public interface UserMapper {
 
     @BeanMapping(ignoreByDefault = true)
@@ -17,8 +18,9 @@ public interface UserMapper {
     @Mapping(source = "fullName", target = "fullName")
     @Mapping(source = "email", target = "email")
     @Mapping(source = "dateOfBirth", target = "dateOfBirth")
-    @Mapping(source = "books", target = "books")
+    @Mapping(source = "loanCount", target = "loanCount")
     @Mapping(source = "document", target = "documentDto")
+    @Mapping(source = "version", target = "version")
     UserDto userToDto(User user);
 
     @BeanMapping(ignoreByDefault = true)
@@ -26,7 +28,19 @@ public interface UserMapper {
     @Mapping(source = "fullName", target = "fullName")
     @Mapping(source = "email", target = "email")
     @Mapping(source = "dateOfBirth", target = "dateOfBirth")
-    @Mapping(source = "books", target = "books")
+    UserDto userSummaryViewToDto(UserSummaryView userSummaryView);
+
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(source = "fullName", target = "fullName")
+    @Mapping(source = "email", target = "email")
+    @Mapping(source = "dateOfBirth", target = "dateOfBirth")
+    User patchUserFromDto(UserDto userDto, @MappingTarget User user);
+
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(source = "id", target = "id")
+    @Mapping(source = "fullName", target = "fullName")
+    @Mapping(source = "email", target = "email")
+    @Mapping(source = "dateOfBirth", target = "dateOfBirth")
     @Mapping(source = "documentDto", target = "document")
     User dtoToUser(UserDto userDto);
 
@@ -34,7 +48,6 @@ public interface UserMapper {
     @Mapping(source = "fullName", target = "fullName")
     @Mapping(source = "email", target = "email")
     @Mapping(source = "dateOfBirth", target = "dateOfBirth")
-    @Mapping(source = "books", target = "books")
     @Mapping(source = "documentDto", target = "document")
     User updateUserFromDto(UserDto userDto, @MappingTarget User user);
 }
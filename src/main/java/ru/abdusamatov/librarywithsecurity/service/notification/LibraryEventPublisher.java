@@ -8,6 +8,8 @@ import ru.abdusamatov.librarywithsecurity.event.OutboxApplicationEvent;
 import ru.abdusamatov.librarywithsecurity.model.OutboxDomainEvent;
 import ru.abdusamatov.librarywithsecurity.repository.OutboxDomainEventRepository;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class LibraryEventPublisher {
@@ -17,14 +19,27 @@ public class LibraryEventPublisher {
 
     @Transactional
     public void publishEvent(final String userName, final String bookName) {
-        OutboxDomainEvent outboxFileEvent = repository.save(
-                OutboxDomainEvent.builder()
+        publishEvents(userName, List.of(bookName));
+    }
+
+    /**
+     * Writes one outbox row per book in a single batched insert; the rows are sent once the transaction
+     * commits.
+     */
+    @Transactional
+    public void publishEvents(final String userName, final List<String> bookNames) {
+        if (bookNames.isEmpty()) {
+            return;
+        }
+
+        final var outboxEvents = repository.saveAll(bookNames.stream()
+                .map(bookName -> OutboxDomainEvent.builder()
                         .userName(userName)
                         .bookName(bookName)
-                        .build()
-        );
+                        .build())
+                .toList());
 
         applicationEventPublisher.publishEvent(
-                new OutboxApplicationEvent(outboxFileEvent));
+                new OutboxApplicationEvent(outboxEvents));
     }
 }
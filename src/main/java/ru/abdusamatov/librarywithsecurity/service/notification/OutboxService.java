@@ -2,25 +2,33 @@ package ru.abdusamatov.librarywithsecurity.service.notification;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import ru.abdusamatov.librarywithsecurity.model.OutboxDomainEvent;
 import ru.abdusamatov.librarywithsecurity.repository.OutboxDomainEventRepository;
 import ru.ilyam.enums.LibraryEventNameEnum;
 import ru.ilyam.event.LibraryEvent;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class OutboxService {
     private final RabbitEventPublisher rabbitEventPublisher;
     private final OutboxDomainEventRepository repository;
 
-    public void sendFromOutbox(OutboxDomainEvent outboxDomainEvent) {
-        rabbitEventPublisher.publishEvent(
+    /**
+     * Runs after the writing transaction has committed, so it needs a transaction of its own for the delete.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void sendFromOutbox(List<OutboxDomainEvent> outboxDomainEvents) {
+        outboxDomainEvents.forEach(outboxDomainEvent -> rabbitEventPublisher.publishEvent(
                 LibraryEvent.builder()
                         .userName(outboxDomainEvent.getUserName())
                         .bookName(outboxDomainEvent.getBookName())
                         .eventName(LibraryEventNameEnum.BOOK_ASSIGNED)
                         .build()
-        );
-        repository.delete(outboxDomainEvent);
+        ));
+        repository.deleteAllInBatch(outboxDomainEvents);
     }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package ru.abdusamatov.librarywithsecurity.service.patch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.abdusamatov.librarywithsecurity.exception.InvalidPatchException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JSON Merge Patch (RFC 7396) over DTOs: members present in the patch replace the DTO's values, {@code null}
+ * members clear them and absent members are left alone.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonMergePatch {
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    /**
+     * Patches a copy of {@code target}, accepting only {@code patchableFields} and validating every patched
+     * property against the DTO's constraints.
+     */
+    public <T> T apply(final T target, final JsonNode patch, final Set<String> patchableFields) {
+        if (patch == null || !patch.isObject()) {
+            throw new InvalidPatchException(Map.of("patch", "Merge patch must be a JSON object"));
+        }
+
+        final var errors = new LinkedHashMap<String, String>();
+        patch.fieldNames().forEachRemaining(field -> {
+            if (!patchableFields.contains(field)) {
+                errors.put(field, "Field cannot be patched");
+            }
+        });
+        if (!errors.isEmpty()) {
+            throw new InvalidPatchException(errors);
+        }
+
+        final var patched = merge(target, patch);
+        patch.fieldNames().forEachRemaining(field -> validator.validateProperty(patched, field)
+                .forEach(violation -> errors.putIfAbsent(field, violation.getMessage())));
+        if (!errors.isEmpty()) {
+            throw new InvalidPatchException(errors);
+        }
+        return patched;
+    }
+
+    /**
+     * Patches a copy of {@code target} without any checks, for values that already passed {@link #apply}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T merge(final T target, final JsonNode patch) {
+        final ObjectNode document = objectMapper.valueToTree(target);
+        mergeInto(document, patch);
+        try {
+            return (T) objectMapper.treeToValue(document, target.getClass());
+        } catch (JsonProcessingException ex) {
+            throw new InvalidPatchException(Map.of("patch", ex.getOriginalMessage()));
+        }
+    }
+
+    private static void mergeInto(final ObjectNode document, final JsonNode patch) {
+        patch.fields().forEachRemaining(member -> {
+            final var name = member.getKey();
+            final var value = member.getValue();
+            if (value.isNull()) {
+                document.remove(name);
+            } else if (value.isObject() && document.get(name) instanceof ObjectNode nested) {
+                mergeInto(nested, value);
+            } else {
+                document.set(name, value);
+            }
+        });
+    }
+}
@@ -0,0 +1,279 @@
+package ru.abdusamatov.librarywithsecurity.service.search;
+
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Token inverted index over book title and author name. Every distinct token gets a term ID with one
+ * posting list of document ordinals per field; a trigram index over the vocabulary finds candidate terms
+ * for typo-tolerant lookups, which are then verified with a bounded edit distance.
+ *
+ * <p>Not thread-safe, {@link CatalogueSearchEngine} guards access to it.
+ */
+public class CatalogueIndex {
+    private static final float TITLE_WEIGHT = 2.0f;
+    private static final float AUTHOR_WEIGHT = 1.0f;
+    private static final int MIN_COMPACTION_TOMBSTONES = 1024;
+    private static final char GRAM_PADDING = '$';
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<IntList> titlePostings = new ArrayList<>();
+    private final List<IntList> authorPostings = new ArrayList<>();
+    private final Map<String, IntList> termsByTrigram = new HashMap<>();
+
+    private final LongIntHashMap ordinalsByBookId = new LongIntHashMap();
+    private final List<BookDto> documents = new ArrayList<>();
+    private final BitSet deleted = new BitSet();
+
+    public int size() {
+        return ordinalsByBookId.size();
+    }
+
+    public void add(final BookDto book) {
+        remove(book.getId());
+
+        final var ordinal = documents.size();
+        documents.add(book);
+        ordinalsByBookId.put(book.getId(), ordinal);
+
+        indexField(book.getTitle(), ordinal, titlePostings);
+        indexField(book.getAuthorName() + ' ' + book.getAuthorSurname(), ordinal, authorPostings);
+    }
+
+    public boolean remove(final Long bookId) {
+        if (bookId == null) {
+            return false;
+        }
+        final var ordinal = ordinalsByBookId.remove(bookId);
+        if (ordinal == LongIntHashMap.MISSING) {
+            return false;
+        }
+
+        deleted.set(ordinal);
+        documents.set(ordinal, null);
+        return true;
+    }
+
+    /**
+     * Returns books matching every token of the query, best first. A token matches a term exactly or
+     * within {@link #maxEditDistance(int)} edits; the score sums, per token, the best field-weighted IDF
+     * of its matching terms, discounted by edit distance.
+     */
+    public List<BookDto> search(final String query, final int offset, final int limit) {
+        final var tokens = TextNormalizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        IntFloatHashMap scores = null;
+        for (final var token : tokens) {
+            final var tokenScores = scoreToken(token);
+            scores = scores == null ? tokenScores : scores.intersectSum(tokenScores);
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        return topDocuments(scores, offset + limit)
+                .stream()
+                .skip(offset)
+                .map(documents::get)
+                .toList();
+    }
+
+    public boolean needsCompaction() {
+        final var tombstones = documents.size() - size();
+        return tombstones > MIN_COMPACTION_TOMBSTONES && tombstones > documents.size() / 4;
+    }
+
+    /**
+     * Books currently indexed, in insertion order; copying them is cheap next to indexing them again.
+     */
+    public List<BookDto> liveDocuments() {
+        return documents.stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public static CatalogueIndex of(final List<BookDto> books) {
+        final var index = new CatalogueIndex();
+        books.forEach(index::add);
+        index.trimToSize();
+        return index;
+    }
+
+    public void trimToSize() {
+        titlePostings.forEach(IntList::trimToSize);
+        authorPostings.forEach(IntList::trimToSize);
+        termsByTrigram.values().forEach(IntList::trimToSize);
+    }
+
+    private void indexField(final String text, final int ordinal, final List<IntList> postings) {
+        for (final var token : TextNormalizer.tokenize(text)) {
+            postings.get(termIdOf(token)).add(ordinal);
+        }
+    }
+
+    private int termIdOf(final String term) {
+        final var existing = termIds.get(term);
+        if (existing != null) {
+            return existing;
+        }
+
+        final var termId = terms.size();
+        termIds.put(term, termId);
+        terms.add(term);
+        titlePostings.add(new IntList());
+        authorPostings.add(new IntList());
+        forEachTrigram(term, gram -> termsByTrigram.computeIfAbsent(gram, key -> new IntList()).add(termId));
+        return termId;
+    }
+
+    private IntFloatHashMap scoreToken(final String token) {
+        final var matches = new IntFloatHashMap();
+        final var exactTermId = termIds.get(token);
+        if (exactTermId != null) {
+            matches.put(exactTermId, 1f);
+        }
+
+        final var maxDistance = maxEditDistance(token.length());
+        if (maxDistance > 0) {
+            collectFuzzyMatches(token, maxDistance, matches);
+        }
+
+        final var expectedDocuments = new int[1];
+        matches.forEach((termId, boost) ->
+                expectedDocuments[0] += titlePostings.get(termId).size() + authorPostings.get(termId).size());
+
+        final var scores = new IntFloatHashMap(expectedDocuments[0]);
+        matches.forEach((termId, boost) -> collect(termId, boost, scores));
+        return scores;
+    }
+
+    private void collectFuzzyMatches(final String token, final int maxDistance, final IntFloatHashMap matches) {
+        final var sharedGrams = new IntFloatHashMap();
+        forEachTrigram(token, gram -> {
+            final var candidates = termsByTrigram.get(gram);
+            if (candidates != null) {
+                for (var i = 0; i < candidates.size(); i++) {
+                    sharedGrams.add(candidates.get(i), 1f);
+                }
+            }
+        });
+
+        // Each edit destroys at most three of the token's trigrams.
+        final var minSharedGrams = token.length() - 3 * maxDistance;
+        sharedGrams.forEach((termId, shared) -> {
+            if (shared < minSharedGrams || matches.containsKey(termId)) {
+                return;
+            }
+            final var term = terms.get(termId);
+            if (Math.abs(term.length() - token.length()) > maxDistance) {
+                return;
+            }
+            final var distance = boundedEditDistance(token, term, maxDistance);
+            if (distance <= maxDistance) {
+                matches.put(termId, 1f / (1 + distance));
+            }
+        });
+    }
+
+    private void collect(final int termId, final float boost, final IntFloatHashMap scores) {
+        final var titles = titlePostings.get(termId);
+        final var authors = authorPostings.get(termId);
+        final var idf = (float) Math.log(1 + (double) Math.max(1, size()) / (titles.size() + authors.size()));
+
+        collect(titles, TITLE_WEIGHT * idf * boost, scores);
+        collect(authors, AUTHOR_WEIGHT * idf * boost, scores);
+    }
+
+    private void collect(final IntList postings, final float score, final IntFloatHashMap scores) {
+        for (var i = 0; i < postings.size(); i++) {
+            final var ordinal = postings.get(i);
+            if (!deleted.get(ordinal)) {
+                scores.putMax(ordinal, score);
+            }
+        }
+    }
+
+    private static List<Integer> topDocuments(final IntFloatHashMap scores, final int k) {
+        final Comparator<int[]> byScore = Comparator
+                .<int[]>comparingDouble(entry -> Float.intBitsToFloat(entry[1]))
+                .thenComparingInt(entry -> -entry[0]);
+        final var heap = new PriorityQueue<int[]>(k + 1, byScore);
+
+        scores.forEach((ordinal, score) -> {
+            if (heap.size() == k && !isBetter(score, ordinal, heap.peek())) {
+                return;
+            }
+            heap.offer(new int[]{ordinal, Float.floatToIntBits(score)});
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        });
+
+        final var top = new ArrayList<Integer>(heap.size());
+        while (!heap.isEmpty()) {
+            top.add(heap.poll()[0]);
+        }
+        return top.reversed();
+    }
+
+    private static boolean isBetter(final float score, final int ordinal, final int[] worstKept) {
+        final var worstScore = Float.intBitsToFloat(worstKept[1]);
+        return score > worstScore || score == worstScore && ordinal < worstKept[0];
+    }
+
+    static int maxEditDistance(final int tokenLength) {
+        if (tokenLength < 4) {
+            return 0;
+        }
+        return tokenLength < 8 ? 1 : 2;
+    }
+
+    /**
+     * Levenshtein distance that gives up as soon as every cell of a row exceeds {@code max},
+     * returning {@code max + 1} in that case.
+     */
+    static int boundedEditDistance(final String left, final String right, final int max) {
+        var previous = new int[right.length() + 1];
+        var current = new int[right.length() + 1];
+        for (var j = 0; j <= right.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (var i = 1; i <= left.length(); i++) {
+            current[0] = i;
+            var rowMin = current[0];
+            for (var j = 1; j <= right.length(); j++) {
+                final var cost = left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            final var swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[right.length()];
+    }
+
+    private static void forEachTrigram(final String term, final Consumer<String> consumer) {
+        final var padded = GRAM_PADDING + term + GRAM_PADDING;
+        for (var i = 0; i + 3 <= padded.length(); i++) {
+            consumer.accept(padded.substring(i, i + 3));
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package ru.abdusamatov.librarywithsecurity.service.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.scheduler.Schedulers;
+import ru.abdusamatov.librarywithsecurity.config.LibraryProperties;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.repository.BookRepository;
+import ru.abdusamatov.librarywithsecurity.service.mapper.BookMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory alternative to the SQL title search, enabled with {@code library.search.engine=in-memory}.
+ * The index is built in the background once the application is ready; until then {@link #isReady()}
+ * is false and callers fall back to SQL. Committed book changes are applied incrementally, changes
+ * arriving during a rebuild are queued and replayed onto the new index before it is published.
+ * Changes made without a local event, such as COPY imports or writes on other instances, are picked up by
+ * the rebuild every {@code library.search.refresh-interval}.
+ *
+ * <p>Once removed and replaced books leave too many tombstones, the index is compacted the same way: the live
+ * books are copied under the lock, indexed again on {@link Schedulers#boundedElastic()} and the result is
+ * swapped in with the changes made meanwhile, so neither the changing request nor searches wait for it.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogueSearchEngine {
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
+    private final LibraryProperties properties;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // One queue per rebuild or compaction in progress.
+    private final List<List<Consumer<CatalogueIndex>>> pendingChanges = new ArrayList<>();
+    private CatalogueIndex index;
+    private boolean compacting;
+
+    public boolean isEnabled() {
+        return properties.getSearch().getEngine() == LibraryProperties.Search.Engine.IN_MEMORY;
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return index != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (isEnabled()) {
+            Schedulers.boundedElastic().schedule(this::rebuild);
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${library.search.refresh-interval:PT5M}",
+            fixedDelayString = "${library.search.refresh-interval:PT5M}")
+    public void refresh() {
+        if (isEnabled()) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        final var started = System.nanoTime();
+        final var rebuilt = build(current -> this::load);
+        log.info("Catalogue search index built with {} books in {} ms",
+                rebuilt.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public List<BookDto> search(final String query, final Integer page, final Integer size) {
+        final var pageSize = properties.getPagination().limit(size);
+        final var offset = (long) Math.max(page, 0) * pageSize;
+        final var limit = properties.getSearch().limit(offset, pageSize);
+        if (limit == 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            return index == null ? List.of() : index.search(query, (int) offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(final BookDto book) {
+        apply(catalogue -> catalogue.add(book));
+    }
+
+    public void remove(final Long bookId) {
+        apply(catalogue -> catalogue.remove(bookId));
+    }
+
+    private void apply(final Consumer<CatalogueIndex> change) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach(pending -> pending.add(change));
+            if (index != null) {
+                change.accept(index);
+                if (!compacting && index.needsCompaction()) {
+                    compacting = true;
+                    Schedulers.boundedElastic().schedule(this::compact);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void compact() {
+        final var started = System.nanoTime();
+        try {
+            final var compacted = build(current -> {
+                final var documents = current.liveDocuments();
+                return () -> CatalogueIndex.of(documents);
+            });
+            log.debug("Catalogue search index compacted to {} books in {} ms",
+                    compacted.size(), (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                compacting = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Builds a new index without holding the lock and publishes it with the changes made meanwhile replayed.
+     * {@code prepare} runs under the lock with the current index, so what it copies and the queued changes
+     * add up to the latest state.
+     */
+    private CatalogueIndex build(final Function<CatalogueIndex, Supplier<CatalogueIndex>> prepare) {
+        final var pending = new ArrayList<Consumer<CatalogueIndex>>();
+        final Supplier<CatalogueIndex> builder;
+        lock.writeLock().lock();
+        try {
+            builder = prepare.apply(index);
+            pendingChanges.add(pending);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            final var built = builder.get();
+            lock.writeLock().lock();
+            try {
+                pending.forEach(change -> change.accept(built));
+                index = built;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return built;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingChanges.removeIf(queue -> queue == pending);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private CatalogueIndex load() {
+        final var catalogue = new CatalogueIndex();
+        final var batchSize = properties.getSearch().getIndexBatchSize();
+        var lastId = 0L;
+        List<BookDto> batch;
+        do {
+            batch = bookRepository.findAfterOrderById(lastId, batchSize)
+                    .stream()
+                    .map(bookMapper::bookViewToBookDto)
+                    .toList();
+            batch.forEach(catalogue::add);
+            lastId = batch.isEmpty() ? lastId : batch.getLast().getId();
+        } while (batch.size() == batchSize);
+        catalogue.trimToSize();
+        return catalogue;
+    }
+}
@@ -0,0 +1,135 @@
+package ru.abdusamatov.librarywithsecurity.service.search;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from non-negative {@code int} keys to {@code float} values, used to accumulate
+ * per-document scores and per-term trigram counts without boxing.
+ */
+final class IntFloatHashMap {
+    private static final int EMPTY = -1;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private float[] values;
+    private int size;
+    private int resizeThreshold;
+
+    IntFloatHashMap() {
+        this(16);
+    }
+
+    IntFloatHashMap(final int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean containsKey(final int key) {
+        return keys[slotOf(key)] != EMPTY;
+    }
+
+    void add(final int key, final float delta) {
+        final var slot = slotOf(key);
+        if (keys[slot] == EMPTY) {
+            insert(slot, key, delta);
+        } else {
+            values[slot] += delta;
+        }
+    }
+
+    void put(final int key, final float value) {
+        final var slot = slotOf(key);
+        if (keys[slot] == EMPTY) {
+            insert(slot, key, value);
+        } else {
+            values[slot] = value;
+        }
+    }
+
+    void putMax(final int key, final float value) {
+        final var slot = slotOf(key);
+        if (keys[slot] == EMPTY) {
+            insert(slot, key, value);
+        } else if (value > values[slot]) {
+            values[slot] = value;
+        }
+    }
+
+    /**
+     * Keeps only keys present in both maps, summing their values.
+     */
+    IntFloatHashMap intersectSum(final IntFloatHashMap other) {
+        final var smaller = size <= other.size ? this : other;
+        final var larger = smaller == this ? other : this;
+        final var result = new IntFloatHashMap(smaller.size);
+
+        smaller.forEach((key, value) -> {
+            final var slot = larger.slotOf(key);
+            if (larger.keys[slot] != EMPTY) {
+                result.add(key, value + larger.values[slot]);
+            }
+        });
+        return result;
+    }
+
+    void forEach(final IntFloatConsumer consumer) {
+        for (var slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    private void insert(final int slot, final int key, final float value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            rehash();
+        }
+    }
+
+    private int slotOf(final int key) {
+        final var mask = keys.length - 1;
+        var slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        final var oldKeys = keys;
+        final var oldValues = values;
+        allocate(oldKeys.length << 1);
+        size = 0;
+        for (var slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                insert(slotOf(oldKeys[slot]), oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        keys = new int[capacity];
+        values = new float[capacity];
+        Arrays.fill(keys, EMPTY);
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(final int key) {
+        final var hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    @FunctionalInterface
+    interface IntFloatConsumer {
+        void accept(int key, float value);
+    }
+}
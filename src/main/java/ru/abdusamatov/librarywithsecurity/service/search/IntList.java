@@ -0,0 +1,34 @@
+package ru.abdusamatov.librarywithsecurity.service.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable {@code int[]} used for posting lists, avoids boxing every document ordinal.
+ */
+final class IntList {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] values = new int[INITIAL_CAPACITY];
+    private int size;
+
+    void add(final int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        values[size++] = value;
+    }
+
+    int get(final int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void trimToSize() {
+        if (size < values.length) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+}
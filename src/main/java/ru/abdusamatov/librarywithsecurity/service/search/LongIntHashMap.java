@@ -0,0 +1,101 @@
+package ru.abdusamatov.librarywithsecurity.service.search;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from book IDs to document ordinals. Removal uses backward-shift deletion,
+ * so lookups never have to skip tombstones.
+ */
+final class LongIntHashMap {
+    static final int MISSING = -1;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int resizeThreshold;
+
+    LongIntHashMap() {
+        allocate(16);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(final long key) {
+        final var slot = slotOf(key);
+        return keys[slot] == EMPTY ? MISSING : values[slot];
+    }
+
+    void put(final long key, final int value) {
+        final var slot = slotOf(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            values[slot] = value;
+            if (++size > resizeThreshold) {
+                rehash();
+            }
+        } else {
+            values[slot] = value;
+        }
+    }
+
+    int remove(final long key) {
+        final var mask = keys.length - 1;
+        var slot = slotOf(key);
+        if (keys[slot] == EMPTY) {
+            return MISSING;
+        }
+
+        final var removed = values[slot];
+        var next = (slot + 1) & mask;
+        while (keys[next] != EMPTY) {
+            final var home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[slot] = EMPTY;
+        size--;
+        return removed;
+    }
+
+    private int slotOf(final long key) {
+        final var mask = keys.length - 1;
+        var slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        final var oldKeys = keys;
+        final var oldValues = values;
+        allocate(oldKeys.length << 1);
+        size = 0;
+        for (var slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                put(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(final long key) {
+        final var hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
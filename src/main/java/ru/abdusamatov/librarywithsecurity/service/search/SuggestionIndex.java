@@ -0,0 +1,201 @@
+package ru.abdusamatov.librarywithsecurity.service.search;
+
+import ru.abdusamatov.librarywithsecurity.dto.SuggestionDto;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable prefix index for autocomplete. Normalized keys are sorted and packed as UTF-8 into a single
+ * byte array, so a prefix maps to one contiguous range found by two binary searches; a max-weight segment
+ * tree over that order yields the top-N completions of the range without scanning it.
+ */
+public final class SuggestionIndex {
+    private static final SuggestionIndex EMPTY = new Builder().build();
+
+    private final byte[] keyBytes;
+    private final int[] keyOffsets;
+    private final byte[] labelBytes;
+    private final int[] labelOffsets;
+    private final long[] weights;
+    private final SuggestionDto.Type[] types;
+    private final int[] maxWeightTree;
+
+    private SuggestionIndex(final List<Entry> sortedEntries) {
+        final var size = sortedEntries.size();
+        final var keys = new ByteArrayOutputStream();
+        final var labels = new ByteArrayOutputStream();
+        keyOffsets = new int[size + 1];
+        labelOffsets = new int[size + 1];
+        weights = new long[size];
+        types = new SuggestionDto.Type[size];
+
+        for (var i = 0; i < size; i++) {
+            final var entry = sortedEntries.get(i);
+            keys.writeBytes(entry.key);
+            labels.writeBytes(entry.label.getBytes(StandardCharsets.UTF_8));
+            keyOffsets[i + 1] = keys.size();
+            labelOffsets[i + 1] = labels.size();
+            weights[i] = entry.weight;
+            types[i] = entry.type;
+        }
+        keyBytes = keys.toByteArray();
+        labelBytes = labels.toByteArray();
+        maxWeightTree = buildTree(size);
+    }
+
+    public static SuggestionIndex empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return weights.length;
+    }
+
+    public List<SuggestionDto> suggest(final String prefix, final int limit) {
+        final var normalizedPrefix = TextNormalizer.normalize(prefix).strip();
+        if (normalizedPrefix.isEmpty() || limit <= 0 || size() == 0) {
+            return List.of();
+        }
+
+        final var prefixBytes = normalizedPrefix.getBytes(StandardCharsets.UTF_8);
+        final var from = firstIndexWith(prefixBytes, 0);
+        final var to = firstIndexWith(prefixBytes, 1);
+        if (from >= to) {
+            return List.of();
+        }
+
+        final Comparator<int[]> byWeight = Comparator
+                .<int[]>comparingLong(range -> -weights[range[2]])
+                .thenComparingInt(range -> range[2]);
+        final var ranges = new PriorityQueue<>(byWeight);
+        ranges.add(new int[]{from, to, argMax(from, to)});
+
+        final var result = new ArrayList<SuggestionDto>(limit);
+        while (!ranges.isEmpty() && result.size() < limit) {
+            final var range = ranges.poll();
+            final var best = range[2];
+            result.add(new SuggestionDto(label(best), types[best]));
+
+            if (range[0] < best) {
+                ranges.add(new int[]{range[0], best, argMax(range[0], best)});
+            }
+            if (best + 1 < range[1]) {
+                ranges.add(new int[]{best + 1, range[1], argMax(best + 1, range[1])});
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Binary search for the first key whose prefix comparison is at least {@code threshold}: {@code 0} gives
+     * the first key starting with the prefix, {@code 1} the first key past all of them.
+     */
+    private int firstIndexWith(final byte[] prefix, final int threshold) {
+        var low = 0;
+        var high = size();
+        while (low < high) {
+            final var middle = (low + high) >>> 1;
+            if (compareToPrefix(middle, prefix) < threshold) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int compareToPrefix(final int index, final byte[] prefix) {
+        final var start = keyOffsets[index];
+        final var length = keyOffsets[index + 1] - start;
+        final var common = Math.min(length, prefix.length);
+        final var mismatch = Arrays.compareUnsigned(keyBytes, start, start + common, prefix, 0, common);
+        if (mismatch != 0) {
+            return mismatch;
+        }
+        return length >= prefix.length ? 0 : -1;
+    }
+
+    private String label(final int index) {
+        final var start = labelOffsets[index];
+        return new String(labelBytes, start, labelOffsets[index + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    private int[] buildTree(final int size) {
+        final var tree = new int[2 * Math.max(size, 1)];
+        for (var i = 0; i < size; i++) {
+            tree[size + i] = i;
+        }
+        for (var node = size - 1; node > 0; node--) {
+            tree[node] = heavier(tree[2 * node], tree[2 * node + 1]);
+        }
+        return tree;
+    }
+
+    private int argMax(final int from, final int to) {
+        final var size = size();
+        var best = from;
+        for (int low = from + size, high = to + size; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) {
+                best = heavier(best, maxWeightTree[low++]);
+            }
+            if ((high & 1) == 1) {
+                best = heavier(best, maxWeightTree[--high]);
+            }
+        }
+        return best;
+    }
+
+    private int heavier(final int left, final int right) {
+        if (weights[left] != weights[right]) {
+            return weights[left] > weights[right] ? left : right;
+        }
+        return Math.min(left, right);
+    }
+
+    public static final class Builder {
+        private final Map<String, Entry> entries = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(final String text, final SuggestionDto.Type type, final long weight) {
+            final var key = TextNormalizer.normalize(text).strip();
+            if (!key.isEmpty()) {
+                entries.computeIfAbsent(key, normalized -> new Entry(normalized, text.strip(), type))
+                        .weight += weight;
+            }
+            return this;
+        }
+
+        public SuggestionIndex build() {
+            final var sorted = new ArrayList<>(entries.values());
+            sorted.sort((left, right) -> Arrays.compareUnsigned(left.key, right.key));
+            return new SuggestionIndex(sorted);
+        }
+    }
+
+    private static final class Entry {
+        private final byte[] key;
+        private final String label;
+        private final SuggestionDto.Type type;
+        private long weight;
+
+        private Entry(final String key, final String label, final SuggestionDto.Type type) {
+            this.key = key.getBytes(StandardCharsets.UTF_8);
+            this.label = label;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ru.abdusamatov.librarywithsecurity.service.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.scheduler.Schedulers;
+import ru.abdusamatov.librarywithsecurity.config.LibraryProperties;
+import ru.abdusamatov.librarywithsecurity.dto.SuggestionDto;
+import ru.abdusamatov.librarywithsecurity.model.projection.BookSuggestionView;
+import ru.abdusamatov.librarywithsecurity.repository.BookRepository;
+
+import java.util.List;
+
+/**
+ * Serves {@code /books/suggest} from an in-memory {@link SuggestionIndex}. The index is rebuilt off the
+ * request path on startup and every {@code library.suggest.refresh-interval} (unless
+ * {@code library.suggest.background-refresh} is off), then published with a single volatile write, so lookups
+ * never wait for a rebuild and never touch Postgres or Redis.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SuggestionService {
+    private final BookRepository bookRepository;
+    private final LibraryProperties properties;
+
+    private volatile SuggestionIndex index = SuggestionIndex.empty();
+
+    public List<SuggestionDto> suggest(final String prefix, final Integer limit) {
+        final var maxResults = properties.getSuggest().getMaxResults();
+        return index.suggest(prefix, Math.min(limit, maxResults));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.getSuggest().isBackgroundRefresh()) {
+            Schedulers.boundedElastic().schedule(this::rebuild);
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${library.suggest.refresh-interval:PT5M}",
+            fixedDelayString = "${library.suggest.refresh-interval:PT5M}")
+    public void refresh() {
+        if (properties.getSuggest().isBackgroundRefresh()) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        final var started = System.nanoTime();
+        final var builder = SuggestionIndex.builder();
+        final var batchSize = properties.getSearch().getIndexBatchSize();
+        var lastId = 0L;
+        List<BookSuggestionView> batch;
+        do {
+            batch = bookRepository.findSuggestionViewsAfter(lastId, PageRequest.ofSize(batchSize));
+            batch.forEach(book -> addBook(builder, book));
+            lastId = batch.isEmpty() ? lastId : batch.getLast().getId();
+        } while (batch.size() == batchSize);
+
+        index = builder.build();
+        log.info("Suggestion index rebuilt with {} entries in {} ms",
+                index.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static void addBook(final SuggestionIndex.Builder builder, final BookSuggestionView book) {
+        // Unborrowed books still count once, so they rank by key order instead of being indistinguishable.
+        final var weight = book.getBorrowCount() + 1L;
+        final var name = book.getAuthorName();
+        final var surname = book.getAuthorSurname();
+
+        builder.add(book.getTitle(), SuggestionDto.Type.TITLE, weight)
+                .add(name + ' ' + surname, SuggestionDto.Type.AUTHOR, weight)
+                .add(surname + ' ' + name, SuggestionDto.Type.AUTHOR, weight);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.abdusamatov.librarywithsecurity.service.search;
+
+import lombok.experimental.UtilityClass;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+@UtilityClass
+class TextNormalizer {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    static String normalize(final String text) {
+        if (text == null) {
+            return "";
+        }
+        final var decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+
+        return COMBINING_MARKS.matcher(decomposed)
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(final String text) {
+        return Arrays.stream(SEPARATORS.split(normalize(text)))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+}
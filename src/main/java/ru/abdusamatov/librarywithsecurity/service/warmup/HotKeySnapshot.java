@@ -0,0 +1,88 @@
+package ru.abdusamatov.librarywithsecurity.service.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.abdusamatov.librarywithsecurity.config.LibraryProperties;
+import ru.abdusamatov.librarywithsecurity.service.BookService;
+import ru.abdusamatov.librarywithsecurity.service.UserService;
+import ru.abdusamatov.librarywithsecurity.service.cache.TwoLevelCacheManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps the hottest book and user IDs of the near caches in {@code library.warm-up.snapshot-file}, written
+ * every {@code library.warm-up.snapshot-interval} and on shutdown, so the next start preloads what this
+ * instance was serving. A snapshot of empty caches never replaces an existing one.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotKeySnapshot {
+    private final TwoLevelCacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final LibraryProperties properties;
+
+    public Optional<HotKeys> load() {
+        final var file = properties.getWarmUp().getSnapshotFile();
+        if (!Files.isReadable(file)) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(objectMapper.readValue(file.toFile(), HotKeys.class));
+        } catch (IOException ex) {
+            log.warn("Ignoring unreadable hot key snapshot {}: {}", file, ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${library.warm-up.snapshot-interval:PT5M}",
+            fixedDelayString = "${library.warm-up.snapshot-interval:PT5M}")
+    public void save() {
+        final var warmUp = properties.getWarmUp();
+        if (!warmUp.isEnabled()) {
+            return;
+        }
+
+        final var hotKeys = new HotKeys(
+                ids(cacheManager.hottestKeys(BookService.CACHE_NAME, warmUp.getBooks())),
+                ids(cacheManager.hottestKeys(UserService.CACHE_NAME, warmUp.getUsers())));
+        if (hotKeys.books().isEmpty() && hotKeys.users().isEmpty()) {
+            return;
+        }
+
+        final var file = warmUp.getSnapshotFile().toAbsolutePath();
+        try {
+            final var temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            objectMapper.writeValue(temporary.toFile(), hotKeys);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Hot key snapshot saved: {} books, {} users", hotKeys.books().size(), hotKeys.users().size());
+        } catch (IOException ex) {
+            log.warn("Failed to save hot key snapshot {}: {}", file, ex.getMessage(), ex);
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void onShutdown() {
+        save();
+    }
+
+    private static List<Long> ids(final List<String> keys) {
+        return keys.stream()
+                .map(Long::valueOf)
+                .toList();
+    }
+
+    public record HotKeys(List<Long> books, List<Long> users) {
+    }
+}
@@ -0,0 +1,170 @@
+package ru.abdusamatov.librarywithsecurity.service.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.client.HttpClient;
+import ru.abdusamatov.librarywithsecurity.config.LibraryProperties;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+import ru.abdusamatov.librarywithsecurity.repository.BookRepository;
+import ru.abdusamatov.librarywithsecurity.service.BookService;
+import ru.abdusamatov.librarywithsecurity.service.UserService;
+import ru.abdusamatov.librarywithsecurity.service.batch.BatchReadService;
+import ru.abdusamatov.librarywithsecurity.service.cache.TwoLevelCacheManager;
+import ru.abdusamatov.librarywithsecurity.service.handler.BookHandler;
+import ru.abdusamatov.librarywithsecurity.util.EntityTag;
+import ru.ilyam.http.Response;
+import ru.ilyam.http.Result;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.OK;
+
+/**
+ * Warms the instance up before it reports ready: application runners finish before Spring Boot publishes
+ * {@code ReadinessState.ACCEPTING_TRAFFIC}, so {@code /actuator/health/readiness} stays down meanwhile.
+ *
+ * <p>The runner opens the Postgres, Redis, RabbitMQ and HTTP client connections, preloads the near caches
+ * with the books and users of the last {@link HotKeySnapshot} (or the most borrowed books and their most
+ * active owners without one), then reads and renders them until the JIT compiler has nothing left to do or
+ * {@code library.warm-up.max-duration} has passed. A failing step is logged and skipped, never failing the
+ * start.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WarmUpRunner implements ApplicationRunner {
+    private static final int SETTLED_ROUNDS = 2;
+
+    private final LibraryProperties properties;
+    private final HotKeySnapshot snapshot;
+    private final BookRepository bookRepository;
+    private final BatchReadService batchReadService;
+    private final TwoLevelCacheManager cacheManager;
+    private final BookHandler bookHandler;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final DataSource dataSource;
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final ConnectionFactory rabbitConnectionFactory;
+
+    @Override
+    public void run(final ApplicationArguments args) {
+        if (!properties.getWarmUp().isEnabled()) {
+            return;
+        }
+
+        final var started = System.nanoTime();
+        try {
+            openConnections();
+            final var reads = preload();
+            final var rounds = exercise(reads);
+            log.info("Warm-up finished in {} ms: {} books and {} users preloaded, {} exercise rounds",
+                    (System.nanoTime() - started) / 1_000_000, reads.books().size(), reads.users().size(), rounds);
+        } catch (RuntimeException ex) {
+            log.warn("Warm-up aborted after {} ms: {}", (System.nanoTime() - started) / 1_000_000, ex.getMessage(), ex);
+        }
+    }
+
+    private void openConnections() {
+        try (var connection = dataSource.getConnection()) {
+            connection.isValid(1);
+        } catch (SQLException | RuntimeException ex) {
+            log.warn("Warm-up could not open a database connection: {}", ex.getMessage());
+        }
+        try (var connection = redisConnectionFactory.getConnection()) {
+            connection.ping();
+        } catch (RuntimeException ex) {
+            log.warn("Warm-up could not open a Redis connection: {}", ex.getMessage());
+        }
+        try {
+            rabbitConnectionFactory.createConnection().close();
+        } catch (RuntimeException ex) {
+            log.warn("Warm-up could not open a RabbitMQ connection: {}", ex.getMessage());
+        }
+        try {
+            // Starts the shared event loop and DNS resolver the WebClient of TopPdfConverterClient runs on.
+            HttpClient.create().warmup().block();
+        } catch (RuntimeException ex) {
+            log.warn("Warm-up could not prepare the HTTP client: {}", ex.getMessage());
+        }
+    }
+
+    private BatchReadService.Reads preload() {
+        final var warmUp = properties.getWarmUp();
+        final var hotKeys = snapshot.load()
+                .orElseGet(() -> new HotKeySnapshot.HotKeys(
+                        bookRepository.findMostBorrowedIds(PageRequest.ofSize(warmUp.getBooks())),
+                        bookRepository.findMostActiveOwnerIds(PageRequest.ofSize(warmUp.getUsers()))));
+
+        final var reads = batchReadService.read(
+                hotKeys.books().stream().limit(warmUp.getBooks()).toList(),
+                hotKeys.users().stream().limit(warmUp.getUsers()).toList());
+        cacheManager.preload(BookService.CACHE_NAME, reads.books());
+        cacheManager.preload(UserService.CACHE_NAME, reads.users());
+        return reads;
+    }
+
+    private int exercise(final BatchReadService.Reads reads) {
+        if (reads.books().isEmpty() && reads.users().isEmpty()) {
+            return 0;
+        }
+
+        final var compilation = ManagementFactory.getCompilationMXBean();
+        if (compilation == null || !compilation.isCompilationTimeMonitoringSupported()) {
+            return 0;
+        }
+
+        final var warmUp = properties.getWarmUp();
+        final var deadline = Instant.now().plus(warmUp.getMaxDuration());
+        final var settleTime = warmUp.getCompilationSettleTime().toMillis();
+        final var bookIds = List.copyOf(reads.books().keySet());
+        final var userIds = List.copyOf(reads.users().keySet());
+        var rounds = 0;
+        var settledRounds = 0;
+        var compilationTime = compilation.getTotalCompilationTime();
+        while (settledRounds < SETTLED_ROUNDS && Instant.now().isBefore(deadline)) {
+            exerciseRound(bookIds, userIds);
+            rounds++;
+            final var previous = compilationTime;
+            compilationTime = compilation.getTotalCompilationTime();
+            settledRounds = compilationTime - previous < settleTime ? settledRounds + 1 : 0;
+        }
+        return rounds;
+    }
+
+    private void exerciseRound(final List<Long> bookIds, final List<Long> userIds) {
+        try {
+            for (final var id : bookIds) {
+                final var book = bookHandler.getBookById(id, null, null).block();
+                EntityTag.of(book);
+                render(Response.buildResponse(Result.success(OK, "Book successfully found"), book), BookDto.class);
+            }
+            // The service rather than ReaderHandler, which logs every user it finds.
+            for (final var id : userIds) {
+                final var user = userService.getUserById(id);
+                EntityTag.of(user);
+                render(Response.buildResponse(Result.success(OK, "User successfully found"), user), UserDto.class);
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Warm-up could not render a response", ex);
+        }
+    }
+
+    private void render(final Response<?> response, final Class<?> type) throws IOException {
+        final var json = objectMapper.writeValueAsBytes(response);
+        objectMapper.treeToValue(objectMapper.readTree(json).path("data"), type);
+    }
+}
@@ -0,0 +1,135 @@
+package ru.abdusamatov.librarywithsecurity.util;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+import ru.abdusamatov.librarywithsecurity.exception.PreconditionFailedException;
+
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Strong entity tags derived from row versions. A book's tag is its version; a user's tag also covers the
+ * loan count, because assigning a book changes the user's representation without touching the user row.
+ * Representations without a version, such as field selections, carry no tag.
+ *
+ * <p>{@code If-Match} compares tags strongly, so a weak tag never authorizes a write; {@code If-None-Match}
+ * compares them weakly, so a tag a proxy has weakened still revalidates a read.
+ */
+public final class EntityTag {
+    private static final String WILDCARD = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private EntityTag() {
+    }
+
+    public static String of(final BookDto book) {
+        return ofVersion(book.getVersion());
+    }
+
+    public static String ofVersion(final Long version) {
+        return version == null ? null : strong(String.valueOf(version));
+    }
+
+    public static String of(final UserDto user) {
+        if (user.getVersion() == null) {
+            return null;
+        }
+        if (user.getLoanCount() == null) {
+            return strong(String.valueOf(user.getVersion()));
+        }
+        return strong(user.getVersion() + "-" + user.getLoanCount());
+    }
+
+    /**
+     * Strong comparison of {@code current} against an {@code If-Match} header value: only an equal tag that
+     * is not weak matches. An absent header matches everything, {@code *} matches any existing representation.
+     */
+    public static boolean matchesIfMatch(final String header, final String current) {
+        return matches(header, current, (tag, existing) -> !isWeak(tag) && !isWeak(existing) && tag.equals(existing));
+    }
+
+    /**
+     * Weak comparison of {@code current} against an {@code If-None-Match} header value: tags match when their
+     * opaque parts are equal, weak or not. {@code *} matches any existing representation.
+     */
+    public static boolean matchesIfNoneMatch(final String header, final String current) {
+        return matches(header, current, (tag, existing) -> opaque(tag).equals(opaque(existing)));
+    }
+
+    private static boolean matches(
+            final String header,
+            final String current,
+            final BiPredicate<String, String> comparison
+    ) {
+        if (header == null || header.isBlank()) {
+            return true;
+        }
+        if (current == null) {
+            return false;
+        }
+
+        for (final var candidate : header.split(",")) {
+            final var tag = candidate.strip();
+            if (WILDCARD.equals(tag) || comparison.test(tag, current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Book version named by a single strong tag in {@code If-Match}, {@code null} when the header is absent or
+     * {@code *}; any other value, a weak tag included, cannot match a book and fails the precondition.
+     */
+    public static Long expectedVersion(final String ifMatch, final String resourceName, final Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || WILDCARD.equals(ifMatch.strip())) {
+            return null;
+        }
+        final var tag = ifMatch.strip();
+        if (isWeak(tag)) {
+            throw new PreconditionFailedException(resourceName, id);
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException | IndexOutOfBoundsException ex) {
+            throw new PreconditionFailedException(resourceName, id);
+        }
+    }
+
+    /**
+     * {@code 304 Not Modified} without a body when {@code ifNoneMatch} matches {@code tag}, otherwise
+     * {@code 200} with the body built by {@code body}; the tag is sent in both cases.
+     */
+    public static <T> ResponseEntity<T> conditional(
+            final String tag,
+            final String ifNoneMatch,
+            final Supplier<T> body
+    ) {
+        if (tag != null && ifNoneMatch != null && matchesIfNoneMatch(ifNoneMatch, tag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build();
+        }
+        return tagged(tag, body.get());
+    }
+
+    public static <T> ResponseEntity<T> tagged(final String tag, final T body) {
+        final var response = ResponseEntity.ok();
+        if (tag != null) {
+            response.eTag(tag);
+        }
+        return response.body(body);
+    }
+
+    private static String strong(final String value) {
+        return '"' + value + '"';
+    }
+
+    private static boolean isWeak(final String tag) {
+        return tag.startsWith(WEAK_PREFIX);
+    }
+
+    private static String opaque(final String tag) {
+        return isWeak(tag) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+}
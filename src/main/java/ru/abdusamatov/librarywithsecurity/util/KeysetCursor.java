@@ -0,0 +1,62 @@
+package ru.abdusamatov.librarywithsecurity.util;
+
+import lombok.Value;
+import ru.abdusamatov.librarywithsecurity.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Opaque position of the last row of a keyset page: {@code id} alone for ID ordering,
+ * {@code (title, id)} for title ordering. Serialized as URL-safe Base64 so clients treat it as a token.
+ */
+@Value
+public class KeysetCursor {
+    private static final char SEPARATOR = ':';
+
+    long id;
+    String title;
+
+    public static String encode(final long id) {
+        return toToken(String.valueOf(id));
+    }
+
+    public static String encode(final String title, final long id) {
+        return toToken(String.valueOf(id) + SEPARATOR + title);
+    }
+
+    public static Optional<KeysetCursor> decode(final String token, final boolean withTitle) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+
+        final String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException(token);
+        }
+
+        final var separatorIndex = raw.indexOf(SEPARATOR);
+        if (withTitle != separatorIndex >= 0) {
+            throw new InvalidCursorException(token);
+        }
+
+        try {
+            return withTitle
+                    ? Optional.of(new KeysetCursor(
+                            Long.parseLong(raw.substring(0, separatorIndex)),
+                            raw.substring(separatorIndex + 1)))
+                    : Optional.of(new KeysetCursor(Long.parseLong(raw), null));
+        } catch (NumberFormatException ex) {
+            throw new InvalidCursorException(token);
+        }
+    }
+
+    private static String toToken(final String raw) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,10 @@
+-- ==========================================
+-- Индекс для поиска книг по префиксу названия.
+-- Заменяет idx_book_title_pattern (text_pattern_ops): btree по
+-- (title COLLATE "C", id) обслуживает и условие title COLLATE "C" LIKE 'query%',
+-- и сортировку ORDER BY title COLLATE "C", id, поэтому страница результатов
+-- читается из индекса по порядку, без отдельной сортировки.
+-- ==========================================
+CREATE INDEX IF NOT EXISTS idx_book_title_c_id ON library.book ((title COLLATE "C"), id);
+
+DROP INDEX IF EXISTS library.idx_book_title_pattern;
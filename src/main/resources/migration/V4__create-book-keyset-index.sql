@@ -0,0 +1,8 @@
+-- ==========================================
+-- Индекс для keyset-пагинации списка книг, отсортированного по названию.
+-- Составной ключ (title, id) позволяет выполнять запросы вида
+-- WHERE (title, id) > (:title, :id) ORDER BY title, id LIMIT :limit
+-- без OFFSET и без сортировки в памяти.
+-- Для сортировки по id достаточно первичного ключа.
+-- ==========================================
+CREATE INDEX IF NOT EXISTS idx_book_title_id ON library.book (title, id);
@@ -0,0 +1,12 @@
+-- ==========================================
+-- Индексы для поиска книг по названию.
+-- - idx_book_title_trgm: триграммный GIN-индекс (pg_trgm) для поиска подстроки
+--   (title ILIKE '%query%') и ранжирования по similarity(title, query).
+-- - idx_book_title_pattern: btree с text_pattern_ops для поиска по префиксу
+--   (title LIKE 'query%') независимо от правил сортировки базы.
+-- ==========================================
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_book_title_trgm ON library.book USING gin (title gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_book_title_pattern ON library.book (title text_pattern_ops);
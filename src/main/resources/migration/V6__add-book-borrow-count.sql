@@ -0,0 +1,6 @@
+-- ==========================================
+-- Счётчик выдач книги, используется как вес популярности в автодополнении.
+-- Увеличивается при каждой выдаче книги читателю.
+-- ==========================================
+ALTER TABLE library.book
+    ADD COLUMN IF NOT EXISTS borrow_count INT NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- ==========================================
+-- Идентификаторы выдаются Hibernate из последовательностей с оптимизатором pooled:
+-- один вызов nextval резервирует блок из 50 значений, что позволяет отправлять вставки пакетами.
+-- Шаг последовательностей должен совпадать с allocationSize в @SequenceGenerator сущностей.
+-- Вставки в обход Hibernate (COPY, DEFAULT nextval) по-прежнему безопасны: значение nextval
+-- является верхней границей блока, который не выдаётся никому другому.
+-- ==========================================
+ALTER SEQUENCE library.user_id_seq INCREMENT BY 50;
+ALTER SEQUENCE library.book_id_seq INCREMENT BY 50;
+ALTER SEQUENCE library.document_id_seq INCREMENT BY 50;
+ALTER SEQUENCE library.outbox_events_id_seq INCREMENT BY 50;
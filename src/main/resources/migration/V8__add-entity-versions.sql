@@ -0,0 +1,10 @@
+-- ==========================================
+-- Версия строки для оптимистичных блокировок (JPA @Version) и слабых ETag.
+-- Увеличивается при каждом изменении строки, в том числе нативными UPDATE
+-- выдачи и возврата книг.
+-- ==========================================
+ALTER TABLE library.book
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE library.user
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
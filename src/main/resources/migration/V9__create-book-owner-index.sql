@@ -0,0 +1,7 @@
+-- ==========================================
+-- Индекс для выборки книг на руках у читателя.
+-- Составной ключ (owner_id, id) обслуживает постраничный список
+-- /users/{id}/books и подсчет числа выданных книг (loanCount)
+-- без полного просмотра таблицы library.book.
+-- ==========================================
+CREATE INDEX IF NOT EXISTS idx_book_owner_id ON library.book (owner_id, id);
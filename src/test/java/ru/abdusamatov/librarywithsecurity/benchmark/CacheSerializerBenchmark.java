@@ -0,0 +1,142 @@
+package ru.abdusamatov.librarywithsecurity.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.DocumentDto;
+import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+import ru.abdusamatov.librarywithsecurity.service.cache.BinaryCacheSerializer;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode time of a cached book with its owner and document, for the JDK serialization the cache
+ * used to store and for {@link BinaryCacheSerializer} with and without Deflate. The bytes per entry of each
+ * format are printed before the run.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.abdusamatov.librarywithsecurity.benchmark.CacheSerializerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+    @Param({"JDK", "BINARY", "BINARY_DEFLATE"})
+    private Format format;
+
+    private RedisSerializer<Object> serializer;
+    private BookDto book;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void encode() {
+        serializer = format.serializer();
+        book = book();
+        encoded = serializer.serialize(book);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(book);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(encoded);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final var book = book();
+        for (final var format : Format.values()) {
+            System.out.printf("%s: %d bytes per entry%n", format, format.serializer().serialize(book).length);
+        }
+
+        new Runner(new OptionsBuilder()
+                .include(CacheSerializerBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    private static BookDto book() {
+        final var owner = UserDto.builder()
+                .id(1_024L)
+                .fullName("Fyodor Dostoevsky")
+                .email("fyodor.dostoevsky@example.com")
+                .dateOfBirth(LocalDate.of(1821, 11, 11))
+                .documentDto(DocumentDto.builder()
+                        .id(2_048L)
+                        .bucketName("library-documents")
+                        .fileName("passport-1024.pdf")
+                        .userId(1_024L)
+                        .build())
+                .loanCount(3)
+                .version(4L)
+                .build();
+        return BookDto.builder()
+                .id(65_536L)
+                .title("Crime and Punishment")
+                .authorName("Fyodor")
+                .authorSurname("Dostoevsky")
+                .yearOfPublication(1866)
+                .takenAt(LocalDateTime.of(2024, 5, 1, 12, 30))
+                .userId(owner.getId())
+                .owner(owner)
+                .version(7L)
+                .build();
+    }
+
+    public enum Format {
+        JDK {
+            @Override
+            RedisSerializer<Object> serializer() {
+                return RedisSerializer.java();
+            }
+        },
+        BINARY {
+            @Override
+            RedisSerializer<Object> serializer() {
+                return binary(Integer.MAX_VALUE);
+            }
+        },
+        BINARY_DEFLATE {
+            @Override
+            RedisSerializer<Object> serializer() {
+                return binary(0);
+            }
+        };
+
+        abstract RedisSerializer<Object> serializer();
+
+        private static RedisSerializer<Object> binary(final int compressionThreshold) {
+            return new BinaryCacheSerializer(
+                    Jackson2ObjectMapperBuilder.smile()
+                            .serializationInclusion(JsonInclude.Include.NON_NULL)
+                            .build(),
+                    List.of(BookDto.class, UserDto.class),
+                    compressionThreshold);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ru.abdusamatov.librarywithsecurity.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.service.search.CatalogueIndex;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-query latency of {@link CatalogueIndex} over a synthetic catalogue.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.abdusamatov.librarywithsecurity.benchmark.CatalogueSearchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class CatalogueSearchBenchmark {
+    private static final int VOCABULARY_SIZE = 20_000;
+    private static final int AUTHOR_COUNT = 5_000;
+    private static final int RESULT_LIMIT = 20;
+
+    @Param({"1000000"})
+    private int books;
+
+    private CatalogueIndex index;
+    private List<String> vocabulary;
+
+    @Setup(Level.Trial)
+    public void buildIndex() {
+        final var random = new Random(42);
+        vocabulary = random.ints(VOCABULARY_SIZE, 0, Integer.MAX_VALUE)
+                .mapToObj(seed -> word(new Random(seed)))
+                .toList();
+
+        index = new CatalogueIndex();
+        for (var id = 1L; id <= books; id++) {
+            final var author = (int) (id % AUTHOR_COUNT);
+            index.add(BookDto.builder()
+                    .id(id)
+                    .title(title(random))
+                    .authorName(vocabulary.get(author))
+                    .authorSurname(vocabulary.get(AUTHOR_COUNT + author))
+                    .yearOfPublication(1500 + random.nextInt(500))
+                    .build());
+        }
+        index.trimToSize();
+    }
+
+    @Benchmark
+    public List<BookDto> rareExactToken() {
+        return index.search(vocabulary.get(VOCABULARY_SIZE - 1), 0, RESULT_LIMIT);
+    }
+
+    @Benchmark
+    public List<BookDto> commonExactToken() {
+        return index.search(vocabulary.get(0), 0, RESULT_LIMIT);
+    }
+
+    @Benchmark
+    public List<BookDto> tokenWithTypo() {
+        final var word = vocabulary.get(VOCABULARY_SIZE / 2);
+        return index.search(word.substring(0, word.length() - 1) + 'x', 0, RESULT_LIMIT);
+    }
+
+    @Benchmark
+    public List<BookDto> titleAndAuthor() {
+        return index.search(vocabulary.get(10) + ' ' + vocabulary.get(AUTHOR_COUNT + 10), 0, RESULT_LIMIT);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CatalogueSearchBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    private String title(final Random random) {
+        final var words = 2 + random.nextInt(4);
+        final var title = new StringBuilder();
+        for (var i = 0; i < words; i++) {
+            // Zipf-like skew: low vocabulary indexes are much more frequent than high ones.
+            final var rank = (int) Math.pow(VOCABULARY_SIZE, random.nextDouble()) - 1;
+            title.append(vocabulary.get(rank)).append(' ');
+        }
+        return title.toString().trim();
+    }
+
+    private static String word(final Random random) {
+        final var length = 4 + random.nextInt(7);
+        final var word = new StringBuilder(length);
+        for (var i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,227 @@
+package ru.abdusamatov.librarywithsecurity.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import ru.abdusamatov.librarywithsecurity.context.PostgreSQLInitializer;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi-row write throughput, in rows per second, for the statements Hibernate issues when creating
+ * users with their documents and when writing outbox events. {@code IDENTITY} is the old mapping: every
+ * row is its own {@code INSERT ... RETURNING id} round trip. {@code POOLED_SEQUENCE} is the current one:
+ * identifiers come 50 at a time from the sequence and each table's rows go as one JDBC batch, which pgjdbc
+ * rewrites into multi-row inserts.
+ *
+ * <p>Needs Docker. Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.abdusamatov.librarywithsecurity.benchmark.EntityWriteBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@OperationsPerInvocation(EntityWriteBenchmark.ROWS)
+public class EntityWriteBenchmark {
+    static final int ROWS = 500;
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String INSERT_USER =
+            "INSERT INTO library.user (full_name, email, date_of_birth) VALUES (?, ?, ?)";
+    private static final String INSERT_USER_WITH_ID =
+            "INSERT INTO library.user (full_name, email, date_of_birth, id) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_DOCUMENT =
+            "INSERT INTO library.document (bucket_name, file_name, user_id) VALUES (?, ?, ?)";
+    private static final String INSERT_DOCUMENT_WITH_ID =
+            "INSERT INTO library.document (bucket_name, file_name, user_id, id) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_OUTBOX_EVENT =
+            "INSERT INTO library.outbox_events (user_name, book_name) VALUES (?, ?)";
+    private static final String INSERT_OUTBOX_EVENT_WITH_ID =
+            "INSERT INTO library.outbox_events (user_name, book_name, id) VALUES (?, ?, ?)";
+
+    @Param({"IDENTITY", "POOLED_SEQUENCE"})
+    private Strategy strategy;
+
+    private PostgreSQLContainer<?> container;
+    private Connection connection;
+    private PooledIds userIds;
+    private PooledIds documentIds;
+    private PooledIds outboxIds;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void startDatabase() throws SQLException {
+        container = new PostgreSQLContainer<>(DockerImageName.parse(PostgreSQLInitializer.FULL_IMAGE_NAME))
+                .withUrlParam("reWriteBatchedInserts", String.valueOf(strategy == Strategy.POOLED_SEQUENCE));
+        container.start();
+
+        final var flyway = Flyway.configure()
+                .dataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword())
+                .locations("classpath:migration")
+                .load();
+        flyway.migrate();
+
+        connection = DriverManager.getConnection(
+                container.getJdbcUrl(), container.getUsername(), container.getPassword());
+        connection.setAutoCommit(false);
+        userIds = new PooledIds(connection, "library.user_id_seq");
+        documentIds = new PooledIds(connection, "library.document_id_seq");
+        outboxIds = new PooledIds(connection, "library.outbox_events_id_seq");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDatabase() throws SQLException {
+        connection.close();
+        container.stop();
+    }
+
+    @Benchmark
+    public void createUsersWithDocuments() throws SQLException {
+        if (strategy == Strategy.IDENTITY) {
+            try (var users = connection.prepareStatement(INSERT_USER, new String[]{"id"});
+                 var documents = connection.prepareStatement(INSERT_DOCUMENT, new String[]{"id"})) {
+                for (var i = 0; i < ROWS; i++) {
+                    final var key = ++counter;
+                    bindUser(users, key);
+                    users.executeUpdate();
+                    bindDocument(documents, key, generatedId(users));
+                    documents.executeUpdate();
+                }
+            }
+        } else {
+            try (var users = connection.prepareStatement(INSERT_USER_WITH_ID);
+                 var documents = connection.prepareStatement(INSERT_DOCUMENT_WITH_ID)) {
+                for (var i = 0; i < ROWS; i++) {
+                    final var key = ++counter;
+                    final var userId = userIds.next();
+                    bindUser(users, key);
+                    users.setLong(4, userId);
+                    users.addBatch();
+                    bindDocument(documents, key, userId);
+                    documents.setLong(4, documentIds.next());
+                    documents.addBatch();
+                }
+                users.executeBatch();
+                documents.executeBatch();
+            }
+        }
+        connection.commit();
+    }
+
+    @Benchmark
+    public void writeOutboxEvents() throws SQLException {
+        if (strategy == Strategy.IDENTITY) {
+            try (var events = connection.prepareStatement(INSERT_OUTBOX_EVENT, new String[]{"id"})) {
+                for (var i = 0; i < ROWS; i++) {
+                    bindOutboxEvent(events, ++counter);
+                    events.executeUpdate();
+                    generatedId(events);
+                }
+            }
+        } else {
+            try (var events = connection.prepareStatement(INSERT_OUTBOX_EVENT_WITH_ID)) {
+                for (var i = 0; i < ROWS; i++) {
+                    bindOutboxEvent(events, ++counter);
+                    events.setLong(3, outboxIds.next());
+                    events.addBatch();
+                }
+                events.executeBatch();
+            }
+        }
+        connection.commit();
+    }
+
+    private static void bindUser(final PreparedStatement statement, final long key) throws SQLException {
+        statement.setString(1, "Reader " + key % 1000);
+        statement.setString(2, "reader" + key + "@library.test");
+        statement.setDate(3, Date.valueOf(LocalDate.of(1990, 1, 1)));
+    }
+
+    private static void bindDocument(final PreparedStatement statement, final long key, final long userId)
+            throws SQLException {
+        statement.setString(1, "bucket-" + key);
+        statement.setString(2, "document-" + key + ".pdf");
+        statement.setLong(3, userId);
+    }
+
+    private static void bindOutboxEvent(final PreparedStatement statement, final long key) throws SQLException {
+        statement.setString(1, "Reader " + key % 1000);
+        statement.setString(2, "Book " + key);
+    }
+
+    private static long generatedId(final PreparedStatement statement) throws SQLException {
+        try (var keys = statement.getGeneratedKeys()) {
+            keys.next();
+            return keys.getLong(1);
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EntityWriteBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    public enum Strategy {
+        IDENTITY,
+        POOLED_SEQUENCE
+    }
+
+    /**
+     * Same allocation as Hibernate's pooled optimizer: {@code nextval} is the upper end of a block of
+     * {@value #ALLOCATION_SIZE} identifiers.
+     */
+    private static final class PooledIds {
+        private final PreparedStatement nextValue;
+        private long next;
+        private long high;
+
+        private PooledIds(final Connection connection, final String sequence) throws SQLException {
+            nextValue = connection.prepareStatement("SELECT nextval('" + sequence + "')");
+        }
+
+        private long next() throws SQLException {
+            if (next == high) {
+                high = nextValue();
+                if (high < ALLOCATION_SIZE) {
+                    high = nextValue();
+                }
+                next = high - ALLOCATION_SIZE;
+            }
+            return ++next;
+        }
+
+        private long nextValue() throws SQLException {
+            try (var result = nextValue.executeQuery()) {
+                result.next();
+                return result.getLong(1);
+            }
+        }
+    }
+}
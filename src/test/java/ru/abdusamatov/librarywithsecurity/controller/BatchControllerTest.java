@@ -0,0 +1,227 @@
+package ru.abdusamatov.librarywithsecurity.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.RequestMethod;
+import ru.abdusamatov.librarywithsecurity.dto.BatchItemDto;
+import ru.abdusamatov.librarywithsecurity.dto.BatchOperationDto;
+import ru.abdusamatov.librarywithsecurity.dto.BatchRequestDto;
+import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+import ru.abdusamatov.librarywithsecurity.support.TestAssertUtil;
+import ru.abdusamatov.librarywithsecurity.support.TestBase;
+import ru.abdusamatov.librarywithsecurity.support.TestDataProvider;
+import ru.abdusamatov.librarywithsecurity.util.ParameterizedTypeReferenceTestUtil;
+import ru.ilyam.event.LibraryEvent;
+import ru.ilyam.http.Response;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.NO_CONTENT;
+import static org.springframework.http.HttpStatus.OK;
+
+public class BatchControllerTest extends TestBase {
+
+    private static final String BASE_URL = "batch";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldAnswerReadsInOneTransaction_andReportMissingEntityPerItem() {
+        final var book = bookRepository.save(TestDataProvider.createBook().build());
+        final var user = userRepository.save(TestDataProvider.createUser());
+        final var notExistingBookId = book.getId() + 1000;
+        final var statistics = clearStatistics();
+
+        final var response = executeBatch(OK, List.of(
+                operation("book", RequestMethod.GET, "/books/" + book.getId(), null),
+                operation("user", RequestMethod.GET, "/users/" + user.getId(), null),
+                operation("missing", RequestMethod.GET, "/books/" + notExistingBookId, null)));
+
+        TestAssertUtil
+                .assertSuccess(OK, "Processed 3 operations", response);
+        assertThat(response.getData())
+                .extracting(BatchItemDto::getId, BatchItemDto::getStatus)
+                .containsExactly(
+                        tuple("book", OK.value()),
+                        tuple("user", OK.value()),
+                        tuple("missing", NOT_FOUND.value()));
+
+        final var items = response.getData();
+        TestAssertUtil
+                .assertSuccess(OK, "Book successfully found", items.get(0).getResponse());
+        assertThat(items.get(0).getResponse().getData())
+                .asInstanceOf(InstanceOfAssertFactories.MAP)
+                .containsEntry("title", book.getTitle());
+        TestAssertUtil
+                .assertSuccess(OK, "User successfully found", items.get(1).getResponse());
+        TestAssertUtil
+                .assertError(NOT_FOUND, "Failed entity search", items.get(2).getResponse());
+
+        assertThat(statistics.getTransactionCount())
+                .as("all reads share one read-only transaction")
+                .isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount())
+                .as("one statement for the books and one for the users")
+                .isEqualTo(2);
+    }
+
+    @Test
+    void shouldRunOperationsOnSameBookInRequestOrder() {
+        final var book = bookRepository.save(TestDataProvider.createBook().build());
+        final var reader = userMapper.userToDto(userRepository.save(TestDataProvider.createUser()));
+        final var assignee = objectMapper.valueToTree(UserDto.builder().id(reader.getId()).build());
+
+        final var response = executeBatch(OK, List.of(
+                operation("assign", RequestMethod.PATCH, "/books/" + book.getId() + "/assign", assignee),
+                operation("book", RequestMethod.GET, "/books/" + book.getId(), null),
+                operation("user", RequestMethod.GET, "/users/" + reader.getId(), null)));
+
+        final var items = response.getData();
+        TestAssertUtil
+                .assertSuccess(NO_CONTENT, "Book successfully assigned", items.get(0).getResponse());
+        assertThat(items.get(1).getResponse().getData())
+                .asInstanceOf(InstanceOfAssertFactories.MAP)
+                .containsEntry("userId", reader.getId().intValue());
+        assertThat(items.get(2).getResponse().getData())
+                .asInstanceOf(InstanceOfAssertFactories.MAP)
+                .containsEntry("loanCount", 1);
+        assertThat(bookRepository.findById(book.getId()))
+                .get()
+                .extracting(saved -> saved.getOwner().getId())
+                .isEqualTo(reader.getId());
+        verify(publisher)
+                .publishEvent(any(LibraryEvent.class));
+    }
+
+    @Test
+    void shouldAssignBook_whenAssignBodyHasOnlyUserId() {
+        final var book = bookRepository.save(TestDataProvider.createBook().build());
+        final var reader = userRepository.save(TestDataProvider.createUser());
+        final var assignee = objectMapper.createObjectNode().put("id", reader.getId());
+
+        final var response = executeBatch(OK, List.of(
+                operation("assign", RequestMethod.PATCH, "/books/" + book.getId() + "/assign", assignee)));
+
+        TestAssertUtil
+                .assertSuccess(NO_CONTENT, "Book successfully assigned", response.getData().getFirst().getResponse());
+        assertThat(bookRepository.findById(book.getId()))
+                .get()
+                .extracting(saved -> saved.getOwner().getId())
+                .isEqualTo(reader.getId());
+    }
+
+    @Test
+    void shouldReturnBadRequestItem_whenAssignBodyHasNoUserId() {
+        final var book = bookRepository.save(TestDataProvider.createBook().build());
+        final var assignee = objectMapper.createObjectNode().put("email", "reader@example.com");
+
+        final var response = executeBatch(OK, List.of(
+                operation("assign", RequestMethod.PATCH, "/books/" + book.getId() + "/assign", assignee)));
+
+        final var item = response.getData().getFirst();
+        assertThat(item.getStatus())
+                .isEqualTo(BAD_REQUEST.value());
+        TestAssertUtil
+                .assertError(BAD_REQUEST, "Invalid batch operation", item.getResponse());
+    }
+
+    @Test
+    void shouldReturnBadRequestItem_whenOperationIsNotSupported() {
+        final var book = bookRepository.save(TestDataProvider.createBook().build());
+
+        final var response = executeBatch(OK, List.of(
+                operation("export", RequestMethod.GET, "/books/export", null),
+                operation("book", RequestMethod.GET, "/books/" + book.getId(), null)));
+
+        final var items = response.getData();
+        assertThat(items.get(0).getStatus())
+                .isEqualTo(BAD_REQUEST.value());
+        TestAssertUtil
+                .assertError(BAD_REQUEST, "Invalid batch operation", items.get(0).getResponse());
+        TestAssertUtil
+                .assertSuccess(OK, "Book successfully found", items.get(1).getResponse());
+    }
+
+    @Test
+    void shouldReturnBadRequestItem_whenOperationBodyIsInvalid() {
+        final var invalidBook = objectMapper.valueToTree(TestDataProvider.createBookDtoWithInvalidFields().build());
+
+        final var response = executeBatch(OK, List.of(
+                operation("create", RequestMethod.POST, "/books", invalidBook)));
+
+        final var item = response.getData().getFirst();
+        assertThat(item.getStatus())
+                .isEqualTo(BAD_REQUEST.value());
+        TestAssertUtil
+                .assertError(BAD_REQUEST, "Validation field failed", item.getResponse());
+        assertThat(bookRepository.count())
+                .isZero();
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenTooManyOperations() {
+        final var operations = IntStream.range(0, 21)
+                .mapToObj(i -> operation(String.valueOf(i), RequestMethod.GET, "/books/" + i, null))
+                .toList();
+
+        final var response = executeBatch(BAD_REQUEST, operations);
+
+        TestAssertUtil
+                .assertError(BAD_REQUEST, "Invalid batch operation", response);
+    }
+
+    private static BatchOperationDto operation(
+            final String id,
+            final RequestMethod method,
+            final String path,
+            final JsonNode body
+    ) {
+        return BatchOperationDto.builder()
+                .id(id)
+                .method(method)
+                .path(path)
+                .body(body)
+                .build();
+    }
+
+    private Response<List<BatchItemDto>> executeBatch(
+            final HttpStatus status,
+            final List<BatchOperationDto> operations
+    ) {
+        final var response = webTestClient
+                .post()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL)
+                        .build()
+                )
+                .bodyValue(new BatchRequestDto(operations))
+                .exchange()
+                .expectStatus().isEqualTo(status)
+                .expectBody(ParameterizedTypeReferenceTestUtil.getListResponseReference(BatchItemDto.class))
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(response)
+                .isNotNull();
+
+        return response;
+    }
+
+    @Override
+    protected void clearDatabase() {
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+}
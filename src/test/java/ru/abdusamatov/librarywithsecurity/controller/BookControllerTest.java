@@ -2,11 +2,36 @@ package ru.abdusamatov.librarywithsecurity.controller;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.web.reactive.function.BodyInserters;
 import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.BookIdsDto;
+import ru.abdusamatov.librarywithsecurity.dto.BookSearchMode;
+import ru.abdusamatov.librarywithsecurity.dto.BulkAssignDto;
+import ru.abdusamatov.librarywithsecurity.dto.BulkResultDto;
+import ru.abdusamatov.librarywithsecurity.dto.CursorPageDto;
+import ru.abdusamatov.librarywithsecurity.dto.ImportFormat;
+import ru.abdusamatov.librarywithsecurity.dto.ImportReportDto;
+import ru.abdusamatov.librarywithsecurity.dto.MultiGetDto;
+import ru.abdusamatov.librarywithsecurity.dto.SuggestionDto;
 import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+import ru.abdusamatov.librarywithsecurity.model.Book;
+import ru.abdusamatov.librarywithsecurity.model.User;
+import ru.abdusamatov.librarywithsecurity.model.projection.BookView;
+import ru.abdusamatov.librarywithsecurity.service.BookService;
+import ru.abdusamatov.librarywithsecurity.service.idempotency.IdempotencyService;
+import ru.abdusamatov.librarywithsecurity.service.patch.JsonMergePatch;
+import ru.abdusamatov.librarywithsecurity.service.search.SuggestionService;
 import ru.abdusamatov.librarywithsecurity.support.TestAssertUtil;
 import ru.abdusamatov.librarywithsecurity.support.TestBase;
 import ru.abdusamatov.librarywithsecurity.support.TestDataProvider;
@@ -15,22 +40,41 @@ import ru.ilyam.enums.LibraryEventNameEnum;
 import ru.ilyam.event.LibraryEvent;
 import ru.ilyam.http.Response;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
 import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
 
 public class BookControllerTest extends TestBase {
 
     private static final String BASE_URL = "books";
 
+    @Autowired
+    private SuggestionService suggestionService;
+
     @AfterEach
     public void afterEach() {
         verifyNoMoreInteractions(publisher);
@@ -54,6 +98,235 @@ public class BookControllerTest extends TestBase {
                 .hasSize(bookListSize);
     }
 
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void shouldIssueSingleStatement_whenGetBookListOfOwnedBooks(final int bookListSize) {
+        final var owner = userRepository.save(TestDataProvider.createUser());
+        saveBooksOwnedBy(owner, bookListSize);
+        final var statistics = clearStatistics();
+
+        final var response = executeGetAllBook(bookListSize);
+
+        assertThat(response.getData())
+                .hasSize(bookListSize)
+                .extracting(BookDto::getUserId)
+                .containsOnly(owner.getId());
+        assertThat(statistics.getPrepareStatementCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldIssueSingleStatement_whenGetOwnedBookByIdAndSearchByTitle() {
+        final var owner = userRepository.save(TestDataProvider.createUser());
+        final var book = saveBooksOwnedBy(owner, 5).getFirst();
+        final var statistics = clearStatistics();
+
+        final var found = executeGetBookById(OK, book.getId(), BookDto.class);
+
+        assertThat(found.getData().getUserId())
+                .isEqualTo(owner.getId());
+        assertThat(statistics.getPrepareStatementCount())
+                .isEqualTo(1);
+
+        statistics.clear();
+        final var searched = executeSearchByTitle(book.getTitle());
+
+        assertThat(searched.getData())
+                .extracting(BookDto::getUserId)
+                .containsExactly(owner.getId());
+        assertThat(statistics.getPrepareStatementCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldSelectOnlyRequestedFields_whenFieldsProvided() {
+        final var owner = userRepository.save(TestDataProvider.createUser());
+        saveBooksOwnedBy(owner, 3);
+        final var statistics = clearStatistics();
+
+        final var response = executeGetSelectedBooks(
+                OK, "title", null, ParameterizedTypeReferenceTestUtil.getListResponseReference(BookDto.class));
+
+        TestAssertUtil
+                .assertSuccess(OK, "List of books", response);
+        assertThat(response.getData())
+                .hasSize(3)
+                .allSatisfy(book -> {
+                    assertThat(book.getId())
+                            .isNotNull();
+                    assertThat(book.getTitle())
+                            .isNotBlank();
+                    assertThat(book.getAuthorName())
+                            .isNull();
+                    assertThat(book.getUserId())
+                            .isNull();
+                    assertThat(book.getOwner())
+                            .isNull();
+                });
+        assertThat(statistics.getPrepareStatementCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldEmbedOwnerInSingleStatement_whenOwnerExpanded() {
+        final var owner = userRepository.save(TestDataProvider.createUser());
+        final var book = saveBooksOwnedBy(owner, 1).getFirst();
+        final var statistics = clearStatistics();
+
+        final var response = executeGetSelectedBookById(book.getId(), "title", "owner");
+
+        assertThat(response.getData().getTitle())
+                .isEqualTo(book.getTitle());
+        assertThat(response.getData().getOwner())
+                .extracting(UserDto::getId, UserDto::getFullName)
+                .containsExactly(owner.getId(), owner.getFullName());
+        assertThat(statistics.getPrepareStatementCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenUnknownFieldRequested() {
+        final var response = executeGetSelectedBooks(
+                BAD_REQUEST, "title,isbn", null, ParameterizedTypeReferenceTestUtil.getResponseReference());
+
+        TestAssertUtil
+                .assertError(BAD_REQUEST, "Invalid field selection", response);
+    }
+
+    @Test
+    void shouldReturnBooksInRequestOrderAndReportMissing_whenIdsProvided() {
+        final var books = bookRepository.saveAll(TestDataProvider.createListBook(3));
+        final var missingId = books.getLast().getId() + 1000;
+        final var ids = List.of(books.get(2).getId(), missingId, books.get(0).getId(), books.get(2).getId());
+
+        final var firstResponse = executeGetBooksByIds(ids);
+
+        TestAssertUtil
+                .assertSuccess(OK, "Books by IDs", firstResponse);
+        assertThat(firstResponse.getData().getContent())
+                .extracting(BookDto::getId)
+                .containsExactly(books.get(2).getId(), books.get(0).getId());
+        assertThat(firstResponse.getData().getMissingIds())
+                .containsExactly(missingId);
+
+        final var statistics = clearStatistics();
+        final var cachedResponse = executeGetBooksByIds(ids);
+
+        assertThat(cachedResponse.getData())
+                .isEqualTo(firstResponse.getData());
+        assertThat(statistics.getPrepareStatementCount())
+                .isEqualTo(1);
+        assertThat(cacheManager.getCache(BookService.CACHE_NAME).get(books.get(0).getId(), BookDto.class))
+                .extracting(BookDto::getTitle)
+                .isEqualTo(books.get(0).getTitle());
+    }
+
+    @Test
+    void shouldStreamAllBooksAsNdjson_whenExportRequested() {
+        final var bookListSize = 25;
+        final var owner = userRepository.save(TestDataProvider.createUser());
+        bookRepository.saveAll(TestDataProvider.createListBook(bookListSize));
+        saveBooksOwnedBy(owner, 1);
+
+        final var exported = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL, "export")
+                        .build()
+                )
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isEqualTo(OK)
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(BookDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(exported)
+                .hasSize(bookListSize + 1)
+                .extracting(BookDto::getId)
+                .isSorted()
+                .doesNotHaveDuplicates();
+        assertThat(exported.getLast().getUserId())
+                .isEqualTo(owner.getId());
+    }
+
+    @Test
+    void shouldGzipExport_whenClientAcceptsGzip() {
+        bookRepository.saveAll(TestDataProvider.createListBook(50));
+
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL, "export")
+                        .build()
+                )
+                .accept(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .exchange()
+                .expectStatus().isEqualTo(OK)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+
+    @Test
+    void shouldImportValidRowsAndReportInvalidOnes_whenCsvUploaded() {
+        final var csv = """
+                title,author_name,author_surname,year_of_publication
+                "War and Peace, Vol. 1",Leo,Tolstoy,1869
+                Anna Karenina,Leo,Tolstoy,1878
+
+                X,Leo,Tolstoy,1878
+                Resurrection,Leo,Tolstoy,year
+                """;
+
+        final var response = executeImportBooks(OK, csv, "books.csv", null, ImportReportDto.class);
+
+        TestAssertUtil
+                .assertSuccess(OK, "Imported 2 of 4 books", response);
+        assertThat(response.getData())
+                .extracting(ImportReportDto::getReceived, ImportReportDto::getImported, ImportReportDto::getFailed)
+                .containsExactly(4L, 2L, 2L);
+        assertThat(response.getData().getErrors())
+                .extracting(ImportReportDto.RowError::getLine)
+                .containsExactly(5L, 6L);
+        assertThat(bookRepository.findAll())
+                .extracting(Book::getTitle)
+                .containsExactlyInAnyOrder("War and Peace, Vol. 1", "Anna Karenina");
+    }
+
+    @Test
+    void shouldImportNdjsonRows_whenFormatProvided() {
+        final var ndjson = """
+                {"title":"Dune","authorName":"Frank","authorSurname":"Herbert","yearOfPublication":1965}
+                {"title":"Dune Messiah","authorName":"Frank","authorSurname":"Herbert"}
+                {"title":
+                """;
+
+        final var response = executeImportBooks(OK, ndjson, "books.txt", ImportFormat.NDJSON, ImportReportDto.class);
+
+        assertThat(response.getData())
+                .extracting(ImportReportDto::getImported, ImportReportDto::getFailed)
+                .containsExactly(1L, 2L);
+        assertThat(response.getData().getErrors())
+                .extracting(ImportReportDto.RowError::getMessage)
+                .satisfiesExactly(
+                        message -> assertThat(message).startsWith("yearOfPublication"),
+                        message -> assertThat(message).startsWith("Malformed JSON"));
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(suggestionService.suggest("dun", 10))
+                .extracting(SuggestionDto::getText)
+                .containsExactly("Dune"));
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenCsvHeaderMissesColumns() {
+        final var response = executeImportBooks(
+                BAD_REQUEST, "title,author\nDune,Herbert\n", "books.csv", null, Void.class);
+
+        TestAssertUtil
+                .assertError(BAD_REQUEST, "Invalid import file", response);
+    }
+
     @Test
     void shouldReturnEmptyList_whenBooksAreAbsent() {
         final var response = executeGetAllBook();
@@ -64,6 +337,75 @@ public class BookControllerTest extends TestBase {
                 .isEmpty();
     }
 
+    @Test
+    void shouldWalkAllBooksSortedByTitle_whenCursorPaginationUsed() {
+        final var bookListSize = 7;
+        bookRepository.saveAll(TestDataProvider.createListBook(bookListSize));
+
+        final var walked = new ArrayList<BookDto>();
+        var cursor = "";
+        do {
+            final var page = executeGetBookPage(cursor, 3, true);
+
+            assertThat(page.getContent())
+                    .hasSizeLessThanOrEqualTo(3);
+            walked.addAll(page.getContent());
+            cursor = page.getNext();
+        } while (cursor != null);
+
+        assertThat(walked)
+                .hasSize(bookListSize)
+                .isSortedAccordingTo(Comparator.comparing(BookDto::getTitle))
+                .extracting(BookDto::getId)
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void shouldWalkAllBooksById_whenCursorPaginationUsedWithoutSort() {
+        final var bookListSize = 5;
+        bookRepository.saveAll(TestDataProvider.createListBook(bookListSize));
+
+        final var firstPage = executeGetBookPage("", 4, false);
+        final var secondPage = executeGetBookPage(firstPage.getNext(), 4, false);
+
+        assertThat(firstPage.getContent())
+                .hasSize(4);
+        assertThat(secondPage.getContent())
+                .hasSize(1);
+        assertThat(secondPage.getNext())
+                .isNull();
+        assertThat(secondPage.getContent().getFirst().getId())
+                .isGreaterThan(firstPage.getContent().getLast().getId());
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenCursorIsMalformed() {
+        final var response = executeGetBookPage(BAD_REQUEST, "not-a-cursor", 20, true, Void.class);
+
+        TestAssertUtil
+                .assertError(BAD_REQUEST, "Invalid pagination cursor", response);
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenCursorCombinedWithIds() {
+        final var response = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL)
+                        .queryParam("cursor", "")
+                        .queryParam("ids", 1L)
+                        .build()
+                )
+                .exchange()
+                .expectStatus().isEqualTo(BAD_REQUEST)
+                .expectBody(ParameterizedTypeReferenceTestUtil.getResponseReference())
+                .returnResult()
+                .getResponseBody();
+
+        TestAssertUtil
+                .assertError(BAD_REQUEST, "Conflicting request parameters", response);
+    }
+
     @Test
     void shouldReturnBook_whenExistingBookIdProvided() {
         final var id = bookRepository
@@ -102,15 +444,73 @@ public class BookControllerTest extends TestBase {
         assertThat(response.getData())
                 .isNotNull()
                 .usingRecursiveComparison()
-                .ignoringFields("takenAt", "owner", "id")
+                .ignoringFields("takenAt", "owner", "id", "version")
                 .isEqualTo(validBookDto);
         assertThat(response.getData().getId())
                 .isNotNull();
+        assertThat(response.getData().getVersion())
+                .isZero();
         assertThat(response.getData())
                 .extracting("takenAt", "userId")
                 .containsOnlyNulls();
     }
 
+    @Test
+    void shouldReplayStoredResponse_whenCreateRetriedWithSameIdempotencyKey() {
+        final var bookDto = TestDataProvider
+                .createBookDto()
+                .build();
+        final var key = UUID.randomUUID().toString();
+
+        final var first = executeCreateBook(OK, bookDto, BookDto.class, key);
+        final var retry = executeCreateBook(OK, bookDto, BookDto.class, key);
+
+        TestAssertUtil
+                .assertSuccess(CREATED, "Book successfully created", retry);
+        assertThat(retry.getData())
+                .usingRecursiveComparison()
+                .isEqualTo(first.getData());
+        assertThat(bookRepository.count())
+                .isEqualTo(1);
+        verify(spyBookRepository, times(1))
+                .save(any(Book.class));
+    }
+
+    @Test
+    void shouldCreateBookOnce_whenDuplicatesSentConcurrently() {
+        final var bookDto = TestDataProvider
+                .createBookDto()
+                .build();
+        final var key = UUID.randomUUID().toString();
+
+        final var ids = IntStream.range(0, 8)
+                .parallel()
+                .mapToObj(i -> executeCreateBook(OK, bookDto, BookDto.class, key).getData().getId())
+                .collect(Collectors.toSet());
+
+        assertThat(ids)
+                .hasSize(1);
+        assertThat(bookRepository.count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnUnprocessableEntity_whenIdempotencyKeyReusedForDifferentBook() {
+        final var key = UUID.randomUUID().toString();
+        executeCreateBook(OK, TestDataProvider.createBookDto().build(), BookDto.class, key);
+
+        final var response = executeCreateBook(
+                UNPROCESSABLE_ENTITY,
+                TestDataProvider.createBookDto().title("Another title").build(),
+                Void.class,
+                key);
+
+        TestAssertUtil
+                .assertError(UNPROCESSABLE_ENTITY, "Idempotency key reused", response);
+        assertThat(bookRepository.count())
+                .isEqualTo(1);
+    }
+
     @Test
     void shouldReturnBadRequest_whenBookWithInvalidFields() {
         final var invalidBookDto = TestDataProvider
@@ -140,7 +540,106 @@ public class BookControllerTest extends TestBase {
         assertThat(response.getData())
                 .isNotNull()
                 .usingRecursiveComparison()
+                .ignoringFields("version")
                 .isEqualTo(updateBookDto);
+        assertThat(response.getData().getVersion())
+                .isEqualTo(bookToBeUpdated.getVersion() + 1);
+    }
+
+    @Test
+    void shouldIssueSelectAndChangedColumnUpdate_whenUpdateBookKeepsOwner() {
+        final var owner = userRepository.save(TestDataProvider.createUser());
+        final var book = saveBooksOwnedBy(owner, 1).getFirst();
+        final var updateBookDto = TestDataProvider
+                .updateBookDto(bookMapper.bookToBookDto(book))
+                .build();
+        final var statistics = clearStatistics();
+
+        final var response = executeUpdateBook(OK, updateBookDto, BookDto.class);
+
+        assertThat(response.getData().getUserId())
+                .isEqualTo(owner.getId());
+        assertThat(statistics.getPrepareStatementCount())
+                .isEqualTo(2);
+        assertThat(statistics.getEntityUpdateCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldUpdateOnlyPatchedColumnsAndEvictCache_whenMergePatchSent() {
+        final var book = bookRepository.save(TestDataProvider.createBook().build());
+        bookService.getBookById(book.getId());
+        final var statistics = clearStatistics();
+
+        final var response = executePatchBook(OK, book.getId(), Map.of("title", "Patched title"), BookDto.class);
+
+        TestAssertUtil
+                .assertSuccess(OK, "Book successfully updated", response);
+        assertThat(response.getData())
+                .extracting(BookDto::getTitle, BookDto::getAuthorName, BookDto::getYearOfPublication)
+                .containsExactly("Patched title", book.getAuthorName(), book.getYearOfPublication());
+        assertThat(statistics.getPrepareStatementCount())
+                .isEqualTo(2);
+        assertThat(statistics.getEntityUpdateCount())
+                .isEqualTo(1);
+        assertThat(cacheManager.getCache(BookService.CACHE_NAME).get(book.getId()))
+                .isNull();
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenMergePatchChangesOwner() {
+        final var id = bookRepository.save(TestDataProvider.createBook().build()).getId();
+
+        final var response = executePatchBook(BAD_REQUEST, id, Map.of("userId", 1), Void.class);
+
+        TestAssertUtil
+                .assertError(BAD_REQUEST, "Invalid merge patch", response);
+    }
+
+    @Test
+    void shouldReturnNotModifiedFromCache_whenIfNoneMatchHasCurrentTag() {
+        final var id = bookRepository.save(TestDataProvider.createBook().build()).getId();
+
+        final var first = executeConditionalGetBook(OK, id, null);
+        final var revalidated = executeConditionalGetBook(NOT_MODIFIED, id, first.getResponseHeaders().getETag());
+
+        assertThat(first.getResponseHeaders().getETag())
+                .isEqualTo("\"0\"");
+        assertThat(revalidated.getResponseHeaders().getETag())
+                .isEqualTo(first.getResponseHeaders().getETag());
+        assertThat(revalidated.getResponseBody())
+                .isNull();
+        verify(spyBookRepository, times(1))
+                .findViewById(id);
+    }
+
+    @Test
+    void shouldReturnNewTag_whenBookChangedSinceIfNoneMatch() {
+        final var id = bookRepository.save(TestDataProvider.createBook().build()).getId();
+        executePatchBook(OK, id, Map.of("title", "Patched title"), BookDto.class);
+
+        final var response = executeConditionalGetBook(OK, id, "W/\"0\"");
+
+        assertThat(response.getResponseHeaders().getETag())
+                .isEqualTo("\"1\"");
+    }
+
+    @Test
+    void shouldReturnPreconditionFailed_whenUpdatingWithStaleTag() {
+        final var book = bookRepository.save(TestDataProvider.createBook().build());
+        executePatchBook(OK, book.getId(), Map.of("title", "Concurrent title"), BookDto.class);
+        final var updateBookDto = TestDataProvider
+                .updateBookDto(bookMapper.bookToBookDto(book))
+                .build();
+
+        final var response = executeUpdateBook(PRECONDITION_FAILED, updateBookDto, Void.class, "\"0\"");
+
+        TestAssertUtil
+                .assertError(PRECONDITION_FAILED, "Precondition failed", response);
+        assertThat(bookRepository.findById(book.getId()))
+                .get()
+                .extracting(Book::getTitle, Book::getVersion)
+                .containsExactly("Concurrent title", 1L);
     }
 
     @Test
@@ -197,10 +696,16 @@ public class BookControllerTest extends TestBase {
                         .build())
                 .getId();
 
+        final var statistics = clearStatistics();
+
         final var response = executeDeleteBook(OK, id);
 
         TestAssertUtil
                 .assertSuccess(NO_CONTENT, "Successfully deleted", response);
+        assertThat(statistics.getPrepareStatementCount())
+                .isEqualTo(1);
+        assertThat(bookRepository.existsById(id))
+                .isFalse();
     }
 
     @Test
@@ -257,6 +762,161 @@ public class BookControllerTest extends TestBase {
         TestAssertUtil.assertEntityNotFound(response);
     }
 
+    @Test
+    void shouldReturnConflict_whenBookIsAlreadyAssigned() {
+        final var owner = userRepository.save(TestDataProvider.createUser());
+        final var id = bookRepository
+                .save(TestDataProvider
+                        .createBook()
+                        .owner(owner)
+                        .build())
+                .getId();
+        final var anotherUser = userMapper
+                .userToDto(userRepository.save(TestDataProvider.createUser()));
+
+        final var response = executeAssignBook(CONFLICT, id, anotherUser);
+
+        TestAssertUtil
+                .assertError(CONFLICT, "Book already assigned", response);
+        assertThat(bookRepository.findById(id))
+                .get()
+                .extracting(book -> book.getOwner().getId())
+                .isEqualTo(owner.getId());
+        verify(publisher, never()).publishEvent(any(LibraryEvent.class));
+    }
+
+    @Test
+    void shouldReturnPreconditionFailed_whenAssigningWithStaleTag() {
+        final var id = bookRepository.save(TestDataProvider.createBook().build()).getId();
+        final var reader = userMapper.userToDto(userRepository.save(TestDataProvider.createUser()));
+
+        final var response = executeAssignBook(PRECONDITION_FAILED, id, reader, "\"7\"");
+
+        TestAssertUtil
+                .assertError(PRECONDITION_FAILED, "Precondition failed", response);
+        assertThat(bookRepository.findViewById(id))
+                .get()
+                .extracting(BookView::getUserId)
+                .isNull();
+    }
+
+    @Test
+    void shouldReturnNotFound_whenUserToAssignDoesNotExist() {
+        final var id = bookRepository
+                .save(TestDataProvider
+                        .createBook()
+                        .build())
+                .getId();
+        final var notExistingUser = TestDataProvider
+                .createUserDto()
+                .id(10000L)
+                .build();
+
+        final var response = executeAssignBook(NOT_FOUND, id, notExistingUser);
+
+        TestAssertUtil.assertEntityNotFound(response);
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenUserToAssignHasNoId() {
+        final var id = bookRepository
+                .save(TestDataProvider
+                        .createBook()
+                        .build())
+                .getId();
+        final var userWithoutId = TestDataProvider
+                .createUserDto()
+                .build();
+
+        final var response = executeAssignBook(BAD_REQUEST, id, userWithoutId);
+
+        TestAssertUtil
+                .assertError(BAD_REQUEST, "Invalid assignment", response);
+        assertThat(bookRepository.findViewById(id))
+                .get()
+                .extracting(BookView::getUserId)
+                .isNull();
+    }
+
+    @Test
+    void shouldAssignOnlyFreeBooks_whenBulkAssign() {
+        final var reader = userRepository.save(TestDataProvider.createUser());
+        final var freeBooks = bookRepository.saveAll(TestDataProvider.createListBook(3));
+        final var takenBook = saveBooksOwnedBy(userRepository.save(TestDataProvider.createUser()), 1).getFirst();
+        final var notExistingId = 10000L;
+        final var ids = new ArrayList<>(freeBooks.stream().map(Book::getId).toList());
+        ids.add(takenBook.getId());
+        ids.add(notExistingId);
+
+        final var response = executeBulk(
+                OK, "assign", BulkAssignDto.builder().userId(reader.getId()).ids(ids).build(), BulkResultDto.class);
+
+        TestAssertUtil
+                .assertSuccess(OK, "Assigned 3 books", response);
+        assertThat(response.getData().getProcessedIds())
+                .containsExactlyElementsOf(ids.subList(0, 3));
+        assertThat(response.getData().getSkippedIds())
+                .containsExactly(takenBook.getId(), notExistingId);
+        assertThat(bookRepository.findViewsByIdIn(ids.subList(0, 3)))
+                .extracting(BookView::getUserId)
+                .containsOnly(reader.getId());
+        assertThat(cacheManager.getCache(BookService.CACHE_NAME).get(ids.getFirst()))
+                .isNull();
+        verify(publisher, times(3)).publishEvent(any(LibraryEvent.class));
+    }
+
+    @Test
+    void shouldReturnNotFound_whenBulkAssignToMissingUser() {
+        final var id = bookRepository.save(TestDataProvider.createBook().build()).getId();
+
+        final var response = executeBulk(
+                NOT_FOUND, "assign", BulkAssignDto.builder().userId(10000L).ids(List.of(id)).build(), Void.class);
+
+        TestAssertUtil.assertEntityNotFound(response);
+    }
+
+    @Test
+    void shouldReleaseBooksAndEvictCache_whenBulkRelease() {
+        final var owner = userRepository.save(TestDataProvider.createUser());
+        final var ids = saveBooksOwnedBy(owner, 2)
+                .stream()
+                .map(Book::getId)
+                .toList();
+
+        final var response = executeBulk(OK, "release", BookIdsDto.builder().ids(ids).build(), BulkResultDto.class);
+
+        TestAssertUtil
+                .assertSuccess(OK, "Released 2 books", response);
+        assertThat(bookRepository.findViewsByIdIn(ids))
+                .extracting(BookView::getUserId)
+                .containsOnlyNulls();
+        assertThat(cacheManager.getCache(BookService.CACHE_NAME).get(ids.getFirst()))
+                .isNull();
+    }
+
+    @Test
+    void shouldDeleteBooksAndEvictCache_whenBulkDelete() {
+        final var ids = bookRepository.saveAll(TestDataProvider.createListBook(2))
+                .stream()
+                .map(Book::getId)
+                .toList();
+        ids.forEach(id -> bookService.getBookById(id));
+        final var requestedIds = new ArrayList<>(ids);
+        requestedIds.add(10000L);
+
+        final var response = executeBulk(
+                OK, "delete", BookIdsDto.builder().ids(requestedIds).build(), BulkResultDto.class);
+
+        TestAssertUtil
+                .assertSuccess(OK, "Deleted 2 books", response);
+        assertThat(response.getData().getSkippedIds())
+                .containsExactly(10000L);
+        assertThat(bookRepository.findAllById(ids))
+                .isEmpty();
+        assertThat(cacheManager.getCache(BookService.CACHE_NAME).get(ids.getFirst()))
+                .isNull();
+    }
+
     @Test
     void shouldReleaseBook_whenValidDataProvided() {
         final var id = bookRepository
@@ -301,6 +961,50 @@ public class BookControllerTest extends TestBase {
                 .hasSize(1);
     }
 
+    @Test
+    void shouldMatchOnlyTitlePrefix_whenPrefixModeRequested() {
+        final var bookListSize = 5;
+        bookRepository.saveAll(TestDataProvider.createListBook(bookListSize));
+
+        final var containsResponse = executeSearchByTitle("Title", BookSearchMode.CONTAINS, 0, 20);
+        final var prefixResponse = executeSearchByTitle("Title", BookSearchMode.PREFIX, 0, 20);
+        final var bookPrefixResponse = executeSearchByTitle("Book", BookSearchMode.PREFIX, 0, 20);
+
+        assertThat(containsResponse.getData())
+                .hasSize(bookListSize);
+        assertThat(prefixResponse.getData())
+                .isEmpty();
+        assertThat(bookPrefixResponse.getData())
+                .hasSize(bookListSize)
+                .isSortedAccordingTo(Comparator.comparing(BookDto::getTitle));
+    }
+
+    @Test
+    void shouldPaginateSearchResults_whenPageAndSizeProvided() {
+        final var bookListSize = 5;
+        bookRepository.saveAll(TestDataProvider.createListBook(bookListSize));
+
+        final var firstPage = executeSearchByTitle("Book", BookSearchMode.CONTAINS, 0, 3);
+        final var secondPage = executeSearchByTitle("Book", BookSearchMode.CONTAINS, 1, 3);
+
+        assertThat(firstPage.getData())
+                .hasSize(3);
+        assertThat(secondPage.getData())
+                .hasSize(2)
+                .extracting(BookDto::getId)
+                .doesNotContainAnyElementsOf(firstPage.getData().stream().map(BookDto::getId).toList());
+    }
+
+    @Test
+    void shouldTreatLikeWildcardsLiterally_whenQueryContainsThem() {
+        bookRepository.saveAll(TestDataProvider.createListBook(3));
+
+        final var response = executeSearchByTitle("_", BookSearchMode.CONTAINS, 0, 20);
+
+        assertThat(response.getData())
+                .isEmpty();
+    }
+
     @Test
     void shouldReturnEmptyBookList_whenQueryDoNotSatisfiesAnyBook() {
         final var query = "Not existing title";
@@ -313,14 +1017,160 @@ public class BookControllerTest extends TestBase {
                 .isEmpty();
     }
 
+    @Test
+    void shouldSuggestMostBorrowedTitlesFirst_whenPrefixProvided() {
+        bookRepository.saveAll(List.of(
+                TestDataProvider.createBook().title("Dune").borrowCount(5).build(),
+                TestDataProvider.createBook().title("Dune Messiah").borrowCount(50).build(),
+                TestDataProvider.createBook().title("Foundation").borrowCount(500).build()));
+        suggestionService.rebuild();
+
+        final var response = executeSuggest("du");
+
+        TestAssertUtil
+                .assertSuccess(OK, "Suggestions for prefix du", response);
+        assertThat(response.getData())
+                .extracting(SuggestionDto::getText)
+                .containsExactly("Dune Messiah", "Dune");
+    }
+
+    private Response<List<SuggestionDto>> executeSuggest(final String prefix) {
+        final var response = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL, "suggest")
+                        .queryParam("prefix", prefix)
+                        .build()
+                )
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ParameterizedTypeReferenceTestUtil.getListResponseReference(SuggestionDto.class))
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(response)
+                .isNotNull();
+
+        return response;
+    }
+
+    private List<Book> saveBooksOwnedBy(final User owner, final int count) {
+        return bookRepository.saveAll(IntStream.range(0, count)
+                .mapToObj(i -> TestDataProvider.createBook().owner(owner).build())
+                .toList());
+    }
+
+    private <T> Response<T> executeGetSelectedBooks(
+            final HttpStatus status,
+            final String fields,
+            final String expand,
+            final ParameterizedTypeReference<Response<T>> responseType
+    ) {
+        final var response = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL)
+                        .queryParamIfPresent("fields", Optional.ofNullable(fields))
+                        .queryParamIfPresent("expand", Optional.ofNullable(expand))
+                        .build()
+                )
+                .exchange()
+                .expectStatus().isEqualTo(status)
+                .expectBody(responseType)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(response)
+                .isNotNull();
+
+        return response;
+    }
+
+    private Response<BookDto> executeGetSelectedBookById(final Long id, final String fields, final String expand) {
+        final var response = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL, String.valueOf(id))
+                        .queryParam("fields", fields)
+                        .queryParam("expand", expand)
+                        .build()
+                )
+                .exchange()
+                .expectStatus().isEqualTo(OK)
+                .expectBody(ParameterizedTypeReferenceTestUtil.getResponseReference(BookDto.class))
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(response)
+                .isNotNull();
+
+        return response;
+    }
+
+    private Response<MultiGetDto<BookDto>> executeGetBooksByIds(final List<Long> ids) {
+        final var response = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL)
+                        .queryParam("ids", ids.toArray())
+                        .build()
+                )
+                .exchange()
+                .expectStatus().isEqualTo(OK)
+                .expectBody(ParameterizedTypeReferenceTestUtil.getMultiGetResponseReference(BookDto.class))
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(response)
+                .isNotNull();
+
+        return response;
+    }
+
+    private <T> Response<T> executeImportBooks(
+            final HttpStatus status,
+            final String content,
+            final String fileName,
+            final ImportFormat format,
+            final Class<T> responseType
+    ) {
+        final var multipartBodyBuilder = new MultipartBodyBuilder();
+        multipartBodyBuilder.part("file", new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)))
+                .filename(fileName)
+                .contentType(MediaType.TEXT_PLAIN);
+
+        final var response = webTestClient
+                .post()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL, "import")
+                        .queryParamIfPresent("format", Optional.ofNullable(format))
+                        .build()
+                )
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(multipartBodyBuilder.build()))
+                .exchange()
+                .expectStatus().isEqualTo(status)
+                .expectBody(ParameterizedTypeReferenceTestUtil.getResponseReference(responseType))
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(response)
+                .isNotNull();
+
+        return response;
+    }
+
     private Response<List<BookDto>> executeGetAllBook() {
+        return executeGetAllBook(20);
+    }
 
+    private Response<List<BookDto>> executeGetAllBook(final int size) {
         final var response = webTestClient
                 .get()
                 .uri(uriBuilder -> uriBuilder
                         .pathSegment(BASE_URL)
                         .queryParam("page", 0)
-                        .queryParam("size", 20)
+                        .queryParam("size", size)
                         .build()
                 )
                 .exchange()
@@ -335,6 +1185,62 @@ public class BookControllerTest extends TestBase {
         return response;
     }
 
+    private CursorPageDto<BookDto> executeGetBookPage(
+            final String cursor,
+            final int size,
+            final boolean isSorted
+    ) {
+        final var response = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL)
+                        .queryParam("cursor", cursor)
+                        .queryParam("size", size)
+                        .queryParam("sort", isSorted)
+                        .build()
+                )
+                .exchange()
+                .expectStatus().isEqualTo(OK)
+                .expectBody(ParameterizedTypeReferenceTestUtil.getCursorPageResponseReference(BookDto.class))
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(response)
+                .isNotNull();
+        TestAssertUtil
+                .assertSuccess(OK, "Page of books", response);
+
+        return response.getData();
+    }
+
+    private <T> Response<T> executeGetBookPage(
+            final HttpStatus status,
+            final String cursor,
+            final int size,
+            final boolean isSorted,
+            final Class<T> responseType
+    ) {
+        final var response = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL)
+                        .queryParam("cursor", cursor)
+                        .queryParam("size", size)
+                        .queryParam("sort", isSorted)
+                        .build()
+                )
+                .exchange()
+                .expectStatus().isEqualTo(status)
+                .expectBody(ParameterizedTypeReferenceTestUtil.getResponseReference(responseType))
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(response)
+                .isNotNull();
+
+        return response;
+    }
+
     private <T> Response<T> executeGetBookById(
             final HttpStatus status,
             final Long id,
@@ -362,6 +1268,15 @@ public class BookControllerTest extends TestBase {
             final HttpStatus status,
             final BookDto bookDto,
             final Class<T> responseType
+    ) {
+        return executeCreateBook(status, bookDto, responseType, null);
+    }
+
+    private <T> Response<T> executeCreateBook(
+            final HttpStatus status,
+            final BookDto bookDto,
+            final Class<T> responseType,
+            final String idempotencyKey
     ) {
         final var response = webTestClient
                 .post()
@@ -369,6 +1284,11 @@ public class BookControllerTest extends TestBase {
                         .pathSegment(BASE_URL)
                         .build()
                 )
+                .headers(headers -> {
+                    if (idempotencyKey != null) {
+                        headers.set(IdempotencyService.HEADER, idempotencyKey);
+                    }
+                })
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(bookDto)
                 .exchange()
@@ -383,10 +1303,40 @@ public class BookControllerTest extends TestBase {
         return response;
     }
 
+    private EntityExchangeResult<byte[]> executeConditionalGetBook(
+            final HttpStatus status,
+            final Long id,
+            final String ifNoneMatch
+    ) {
+        return webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL, String.valueOf(id))
+                        .build())
+                .headers(headers -> {
+                    if (ifNoneMatch != null) {
+                        headers.setIfNoneMatch(ifNoneMatch);
+                    }
+                })
+                .exchange()
+                .expectStatus().isEqualTo(status)
+                .expectBody()
+                .returnResult();
+    }
+
     private <T> Response<T> executeUpdateBook(
             final HttpStatus status,
             final BookDto bookDto,
             final Class<T> responseType
+    ) {
+        return executeUpdateBook(status, bookDto, responseType, null);
+    }
+
+    private <T> Response<T> executeUpdateBook(
+            final HttpStatus status,
+            final BookDto bookDto,
+            final Class<T> responseType,
+            final String ifMatch
     ) {
         final var response = webTestClient
                 .put()
@@ -394,6 +1344,11 @@ public class BookControllerTest extends TestBase {
                         .pathSegment(BASE_URL)
                         .build()
                 )
+                .headers(headers -> {
+                    if (ifMatch != null) {
+                        headers.setIfMatch(ifMatch);
+                    }
+                })
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(bookDto)
                 .exchange()
@@ -434,6 +1389,15 @@ public class BookControllerTest extends TestBase {
             final HttpStatus status,
             final Long bookId,
             final UserDto userDto
+    ) {
+        return executeAssignBook(status, bookId, userDto, null);
+    }
+
+    private Response<Void> executeAssignBook(
+            final HttpStatus status,
+            final Long bookId,
+            final UserDto userDto,
+            final String ifMatch
     ) {
         final var response = webTestClient
                 .patch()
@@ -441,6 +1405,11 @@ public class BookControllerTest extends TestBase {
                         .pathSegment(BASE_URL, String.valueOf(bookId), "assign")
                         .build()
                 )
+                .headers(headers -> {
+                    if (ifMatch != null) {
+                        headers.setIfMatch(ifMatch);
+                    }
+                })
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(userDto)
                 .exchange()
@@ -455,6 +1424,56 @@ public class BookControllerTest extends TestBase {
         return response;
     }
 
+    private <T> Response<T> executePatchBook(
+            final HttpStatus status,
+            final Long id,
+            final Map<String, ?> patch,
+            final Class<T> responseType
+    ) {
+        final var response = webTestClient
+                .patch()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL, String.valueOf(id))
+                        .build())
+                .contentType(MediaType.valueOf(JsonMergePatch.MEDIA_TYPE))
+                .bodyValue(patch)
+                .exchange()
+                .expectStatus().isEqualTo(status)
+                .expectBody(ParameterizedTypeReferenceTestUtil.getResponseReference(responseType))
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(response)
+                .isNotNull();
+
+        return response;
+    }
+
+    private <T> Response<T> executeBulk(
+            final HttpStatus status,
+            final String operation,
+            final Object request,
+            final Class<T> responseType
+    ) {
+        final var response = webTestClient
+                .post()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL, "bulk", operation)
+                        .build())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isEqualTo(status)
+                .expectBody(ParameterizedTypeReferenceTestUtil.getResponseReference(responseType))
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(response)
+                .isNotNull();
+
+        return response;
+    }
+
     private Response<Void> executeReleaseBook(
             final HttpStatus status,
             final Long id
@@ -496,6 +1515,34 @@ public class BookControllerTest extends TestBase {
         return response;
     }
 
+    private Response<List<BookDto>> executeSearchByTitle(
+            final String query,
+            final BookSearchMode mode,
+            final int page,
+            final int size
+    ) {
+        final var response = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL, "search")
+                        .queryParam("query", query)
+                        .queryParam("mode", mode)
+                        .queryParam("page", page)
+                        .queryParam("size", size)
+                        .build()
+                )
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ParameterizedTypeReferenceTestUtil.getListResponseReference(BookDto.class))
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(response)
+                .isNotNull();
+
+        return response;
+    }
+
     @Override
     protected void clearDatabase() {
         bookRepository.deleteAll();
@@ -5,22 +5,39 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.reactive.function.BodyInserters;
 import reactor.core.publisher.Mono;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.CursorPageDto;
 import ru.abdusamatov.librarywithsecurity.dto.FileDto;
+import ru.abdusamatov.librarywithsecurity.dto.MultiGetDto;
 import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+import ru.abdusamatov.librarywithsecurity.model.Book;
+import ru.abdusamatov.librarywithsecurity.model.User;
+import ru.abdusamatov.librarywithsecurity.model.projection.BookView;
+import ru.abdusamatov.librarywithsecurity.service.UserService;
+import ru.abdusamatov.librarywithsecurity.service.idempotency.IdempotencyService;
+import ru.abdusamatov.librarywithsecurity.service.patch.JsonMergePatch;
 import ru.abdusamatov.librarywithsecurity.support.TestAssertUtil;
 import ru.abdusamatov.librarywithsecurity.support.TestBase;
 import ru.abdusamatov.librarywithsecurity.support.TestDataProvider;
 import ru.abdusamatov.librarywithsecurity.util.ParameterizedTypeReferenceTestUtil;
+import ru.ilyam.event.LibraryEvent;
 import ru.ilyam.http.Response;
 import ru.ilyam.http.Result;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -32,8 +49,10 @@ import static org.mockito.Mockito.when;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
 import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
 
 public class ReaderControllerTest extends TestBase {
 
@@ -56,6 +75,181 @@ public class ReaderControllerTest extends TestBase {
                 .hasSize(userListSize);
     }
 
+    @Test
+    void shouldFetchLoanCountsAndDocumentsForWholePage_whenGetAllUsers() {
+        final var userListSize = 20;
+        saveUsersWithBooks(userListSize, 2);
+        final var statistics = clearStatistics();
+
+        final var response = executeGetAllUsers("full");
+
+        assertThat(response.getData())
+                .hasSize(userListSize)
+                .allSatisfy(user -> {
+                    assertThat(user.getLoanCount())
+                            .isEqualTo(2);
+                    assertThat(user.getDocumentDto())
+                            .isNotNull();
+                });
+        assertThat(statistics.getPrepareStatementCount())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void shouldIssueSingleStatementWithoutBooksAndDocuments_whenSummaryViewRequested() {
+        final var userListSize = 20;
+        saveUsersWithBooks(userListSize, 2);
+        final var statistics = clearStatistics();
+
+        final var response = executeGetAllUsers("summary");
+
+        TestAssertUtil
+                .assertSuccess(OK, "List of users", response);
+        assertThat(response.getData())
+                .hasSize(userListSize)
+                .extracting(UserDto::getId)
+                .isSorted();
+        assertThat(response.getData())
+                .allSatisfy(user -> {
+                    assertThat(user.getFullName())
+                            .isNotBlank();
+                    assertThat(user.getLoanCount())
+                            .isNull();
+                    assertThat(user.getDocumentDto())
+                            .isNull();
+                });
+        assertThat(statistics.getPrepareStatementCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldSelectFieldsAndLoanCountOnly_whenSelectionProvided() {
+        saveUsersWithBooks(5, 3);
+        final var statistics = clearStatistics();
+
+        final var response = executeGetSelectedUsers("fullName,loanCount", null);
+
+        TestAssertUtil
+                .assertSuccess(OK, "List of users", response);
+        assertThat(response.getData())
+                .hasSize(5)
+                .allSatisfy(user -> {
+                    assertThat(user.getFullName())
+                            .isNotBlank();
+                    assertThat(user.getEmail())
+                            .isNull();
+                    assertThat(user.getDocumentDto())
+                            .isNull();
+                    assertThat(user.getLoanCount())
+                            .isEqualTo(3);
+                });
+        assertThat(statistics.getPrepareStatementCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldJoinDocument_whenDocumentExpanded() {
+        final var savedUser = userRepository.save(TestDataProvider.createUser());
+        final var statistics = clearStatistics();
+
+        final var response = executeGetSelectedUsers(null, "document");
+
+        assertThat(response.getData())
+                .singleElement()
+                .satisfies(user -> {
+                    assertThat(user.getEmail())
+                            .isEqualTo(savedUser.getEmail());
+                    assertThat(user.getLoanCount())
+                            .isZero();
+                    assertThat(user.getDocumentDto().getFileName())
+                            .isEqualTo(savedUser.getDocument().getFileName());
+                });
+        assertThat(statistics.getPrepareStatementCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenViewCombinedWithFieldSelection() {
+        final var response = executeGetSelectedUsers(BAD_REQUEST, "summary", "fullName", null);
+
+        TestAssertUtil
+                .assertError(BAD_REQUEST, "Invalid field selection", response);
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenBooksExpanded() {
+        final var response = executeGetSelectedUsers(BAD_REQUEST, null, null, "books");
+
+        TestAssertUtil
+                .assertError(BAD_REQUEST, "Invalid field selection", response);
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenCursorCombinedWithIds() {
+        final var response = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL)
+                        .queryParam("cursor", "")
+                        .queryParam("ids", 1L)
+                        .build())
+                .exchange()
+                .expectStatus().isEqualTo(BAD_REQUEST)
+                .expectBody(ParameterizedTypeReferenceTestUtil.getResponseReference())
+                .returnResult()
+                .getResponseBody();
+
+        TestAssertUtil
+                .assertError(BAD_REQUEST, "Conflicting request parameters", response);
+    }
+
+    @Test
+    void shouldReturnUsersInRequestOrderAndReportMissing_whenIdsProvided() {
+        final var users = userRepository.saveAll(TestDataProvider.createListUser(2));
+        final var missingId = users.getLast().getId() + 1000;
+
+        final var response = executeGetUsersByIds(List.of(missingId, users.get(1).getId(), users.get(0).getId()));
+
+        TestAssertUtil
+                .assertSuccess(OK, "Users by IDs", response);
+        assertThat(response.getData().getContent())
+                .extracting(UserDto::getId)
+                .containsExactly(users.get(1).getId(), users.get(0).getId());
+        assertThat(response.getData().getMissingIds())
+                .containsExactly(missingId);
+        assertThat(cacheManager.getCache(UserService.CACHE_NAME).get(users.get(1).getId(), UserDto.class))
+                .extracting(UserDto::getEmail)
+                .isEqualTo(users.get(1).getEmail());
+    }
+
+    @Test
+    void shouldStreamAllUsersWithDocumentsAsNdjson_whenExportRequested() {
+        final var userListSize = 7;
+        userRepository.saveAll(TestDataProvider.createListUser(userListSize));
+
+        final var exported = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL, "export")
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isEqualTo(OK)
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(UserDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(exported)
+                .hasSize(userListSize)
+                .extracting(UserDto::getId)
+                .isSorted();
+        assertThat(exported)
+                .allSatisfy(user -> assertThat(user.getDocumentDto().getUserId())
+                        .isEqualTo(user.getId()));
+    }
+
     @Test
     void shouldReturnEmptyList_whenUserAreAbsent() {
         final var response = executeGetAllUsers();
@@ -66,6 +260,29 @@ public class ReaderControllerTest extends TestBase {
                 .isEmpty();
     }
 
+    @Test
+    void shouldWalkAllUsers_whenCursorPaginationUsed() {
+        final var userListSize = 5;
+        userRepository.saveAll(TestDataProvider.createListUser(userListSize));
+
+        final var walked = new ArrayList<UserDto>();
+        var cursor = "";
+        do {
+            final var page = executeGetUserPage(cursor, 2);
+
+            assertThat(page.getContent())
+                    .hasSizeLessThanOrEqualTo(2);
+            walked.addAll(page.getContent());
+            cursor = page.getNext();
+        } while (cursor != null);
+
+        assertThat(walked)
+                .hasSize(userListSize)
+                .extracting(UserDto::getId)
+                .isSorted()
+                .doesNotHaveDuplicates();
+    }
+
     @Test
     void shouldReturnUser_whenExistingUserIdProvided() {
         final var id = userRepository
@@ -89,6 +306,57 @@ public class ReaderControllerTest extends TestBase {
         TestAssertUtil.assertEntityNotFound(response);
     }
 
+    @Test
+    void shouldReturnPageOfUserBooksInSingleStatement_whenSortedByTitle() {
+        final var user = userRepository.save(TestDataProvider.createUser());
+        bookRepository.saveAll(IntStream.range(0, 5)
+                .mapToObj(i -> TestDataProvider.createBook().title("Title " + i).owner(user).build())
+                .toList());
+        bookRepository.save(TestDataProvider.createBook().build());
+        final var statistics = clearStatistics();
+
+        final var response = executeGetUserBooks(OK, user.getId(), 1, "TITLE", "DESC",
+                ParameterizedTypeReferenceTestUtil.getListResponseReference(BookDto.class));
+
+        TestAssertUtil
+                .assertSuccess(OK, "Books of user with ID " + user.getId(), response);
+        assertThat(response.getData())
+                .extracting(BookDto::getTitle)
+                .containsExactly("Title 2", "Title 1");
+        assertThat(response.getData())
+                .extracting(BookDto::getUserId)
+                .containsOnly(user.getId());
+        assertThat(statistics.getPrepareStatementCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnNotFound_whenBooksOfNonExistingUserRequested() {
+        final var response = executeGetUserBooks(NOT_FOUND, 10000L, 0, "ID", "ASC",
+                ParameterizedTypeReferenceTestUtil.getResponseReference());
+
+        TestAssertUtil.assertEntityNotFound(response);
+    }
+
+    @Test
+    void shouldRefreshCachedLoanCount_whenBookAssignedAndReleased() {
+        final var user = userRepository.save(TestDataProvider.createUser());
+        final var book = bookRepository.save(TestDataProvider.createBook().build());
+
+        assertThat(executeGetUserById(OK, user.getId(), UserDto.class).getData().getLoanCount())
+                .isZero();
+
+        bookService.assignBook(book.getId(), user.getId(), null);
+        assertThat(executeGetUserById(OK, user.getId(), UserDto.class).getData().getLoanCount())
+                .isEqualTo(1);
+
+        bookService.releaseBook(book.getId());
+        assertThat(executeGetUserById(OK, user.getId(), UserDto.class).getData().getLoanCount())
+                .isZero();
+        verify(publisher)
+                .publishEvent(any(LibraryEvent.class));
+    }
+
     @Test
     void shouldReturnDocument_whenUserExist() {
         final var savedUser = userRepository.save(TestDataProvider.createUser());
@@ -131,16 +399,17 @@ public class ReaderControllerTest extends TestBase {
                 .assertSuccess(CREATED, "User successfully saved", response);
         assertThat(response.getData().getId())
                 .isNotNull();
-        assertThat(response.getData().getBooks())
-                .isNull();
+        assertThat(response.getData().getLoanCount())
+                .isZero();
         assertThat(response.getData())
                 .isNotNull()
                 .usingRecursiveComparison()
                 .ignoringFields(
                         "id",
-                        "books",
+                        "loanCount",
                         "documentDto.id",
-                        "documentDto.userId")
+                        "documentDto.userId",
+                        "version")
                 .isEqualTo(validUserDto);
         verify(topPdfConverterClient)
                 .addBucket(validUserDto.getDocumentDto().getBucketName());
@@ -149,6 +418,41 @@ public class ReaderControllerTest extends TestBase {
         verifyNoMoreInteractions(topPdfConverterClient);
     }
 
+    @Test
+    void shouldNotUploadDocumentAgain_whenCreateRetriedWithSameIdempotencyKey() {
+        final var validUserDto = TestDataProvider
+                .createUserDto()
+                .build();
+        final var key = UUID.randomUUID().toString();
+
+        when(topPdfConverterClient.addBucket(validUserDto.getDocumentDto().getBucketName()))
+                .thenReturn(getMonoResponseVoid(
+                        "Bucket " + validUserDto.getDocumentDto().getBucketName() + " successfully created"));
+        when(topPdfConverterClient.uploadFile(
+                any(MultipartFile.class),
+                anyString()))
+                .thenReturn(getMonoResponseVoid(
+                        "File " + validUserDto.getDocumentDto().getFileName() + " successfully uploaded"));
+
+        final var first = executeCreateUser(
+                OK, validUserDto, UserDto.class, TestDataProvider.getMultipartFile(), key);
+        final var retry = executeCreateUser(
+                OK, validUserDto, UserDto.class, TestDataProvider.getMultipartFile(), key);
+
+        TestAssertUtil
+                .assertSuccess(CREATED, "User successfully saved", retry);
+        assertThat(retry.getData())
+                .usingRecursiveComparison()
+                .isEqualTo(first.getData());
+        assertThat(userRepository.count())
+                .isEqualTo(1);
+        verify(topPdfConverterClient)
+                .addBucket(validUserDto.getDocumentDto().getBucketName());
+        verify(topPdfConverterClient)
+                .uploadFile(any(MultipartFile.class), anyString());
+        verifyNoMoreInteractions(topPdfConverterClient);
+    }
+
     @Test
     void shouldReturnBadRequest_whenUserWithInvalidFields() {
         final var invalidUserDto = TestDataProvider
@@ -180,7 +484,10 @@ public class ReaderControllerTest extends TestBase {
         assertThat(response.getData())
                 .isNotNull()
                 .usingRecursiveComparison()
+                .ignoringFields("version")
                 .isEqualTo(updateUserDto);
+        assertThat(response.getData().getVersion())
+                .isEqualTo(userToBeUpdated.getVersion() + 1);
     }
 
     @Test
@@ -207,6 +514,74 @@ public class ReaderControllerTest extends TestBase {
         TestAssertUtil.assertFieldErrorForEntity(response);
     }
 
+    @Test
+    void shouldPatchEmailOnly_whenMergePatchSent() {
+        final var user = userRepository.save(TestDataProvider.createUser());
+        final var book = TestDataProvider.createBook().build();
+        book.setOwner(user);
+        bookRepository.save(book);
+        final var statistics = clearStatistics();
+
+        final var response = executePatchUser(
+                OK, user.getId(), Map.of("email", "patched@example.com"), UserDto.class);
+
+        TestAssertUtil
+                .assertSuccess(OK, "User successfully updated", response);
+        assertThat(response.getData())
+                .extracting(UserDto::getEmail, UserDto::getFullName)
+                .containsExactly("patched@example.com", user.getFullName());
+        assertThat(response.getData().getDocumentDto().getBucketName())
+                .isEqualTo(user.getDocument().getBucketName());
+        assertThat(bookRepository.findViewsByOwnerIdIn(List.of(user.getId())))
+                .hasSize(1);
+        assertThat(statistics.getEntityUpdateCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnNotModified_whenUserUnchangedSinceTag() {
+        final var id = userRepository.save(TestDataProvider.createUser()).getId();
+
+        final var first = executeConditionalGetUser(OK, id, null);
+        final var revalidated = executeConditionalGetUser(NOT_MODIFIED, id, first.getResponseHeaders().getETag());
+
+        assertThat(first.getResponseHeaders().getETag())
+                .isNotNull();
+        assertThat(revalidated.getResponseBody())
+                .isNull();
+    }
+
+    @Test
+    void shouldReturnPreconditionFailed_whenPatchingUserWithStaleTag() {
+        final var user = userRepository.save(TestDataProvider.createUser());
+        final var tag = executeConditionalGetUser(OK, user.getId(), null).getResponseHeaders().getETag();
+        executePatchUser(OK, user.getId(), Map.of("fullName", "Concurrent name"), UserDto.class, tag);
+
+        final var response = executePatchUser(
+                PRECONDITION_FAILED, user.getId(), Map.of("fullName", "Stale name"), Void.class, tag);
+
+        TestAssertUtil
+                .assertError(PRECONDITION_FAILED, "Precondition failed", response);
+        assertThat(userRepository.findById(user.getId()))
+                .get()
+                .extracting(User::getFullName)
+                .isEqualTo("Concurrent name");
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenMergePatchHasInvalidEmail() {
+        final var user = userRepository.save(TestDataProvider.createUser());
+
+        final var response = executePatchUser(BAD_REQUEST, user.getId(), Map.of("email", "not-an-email"), Void.class);
+
+        TestAssertUtil
+                .assertError(BAD_REQUEST, "Invalid merge patch", response);
+        assertThat(userRepository.findById(user.getId()))
+                .get()
+                .extracting(User::getEmail)
+                .isEqualTo(user.getEmail());
+    }
+
     @Test
     void shouldReturnNoContent_whenUserDeletedSuccessfully() {
         final var savedUser = userRepository.save(TestDataProvider.createUser());
@@ -215,15 +590,46 @@ public class ReaderControllerTest extends TestBase {
         when(topPdfConverterClient.deleteDocument(bucketName))
                 .thenReturn(getMonoResponseVoid("Bucket " + bucketName + " deleted"));
 
+        final var statistics = clearStatistics();
+
         final var response = executeDeleteUserById(OK, savedUser.getId());
 
         TestAssertUtil
                 .assertSuccess(NO_CONTENT, "Successfully deleted", response);
+        assertThat(statistics.getPrepareStatementCount())
+                .as("document lookup for the file storage call, then a single DELETE")
+                .isEqualTo(2);
+        assertThat(userRepository.existsById(savedUser.getId()))
+                .isFalse();
         verify(topPdfConverterClient, times(1))
                 .deleteDocument(bucketName);
         verifyNoMoreInteractions(topPdfConverterClient);
     }
 
+    @Test
+    void shouldDetachBooksAndDropDocument_whenUserDeleted() {
+        final var savedUser = userRepository.save(TestDataProvider.createUser());
+        final var bucketName = savedUser.getDocument().getBucketName();
+        final var books = TestDataProvider.createListBook(2);
+        books.forEach(book -> book.setOwner(savedUser));
+        final var bookIds = bookRepository.saveAll(books)
+                .stream()
+                .map(Book::getId)
+                .toList();
+
+        when(topPdfConverterClient.deleteDocument(bucketName))
+                .thenReturn(getMonoResponseVoid("Bucket " + bucketName + " deleted"));
+
+        executeDeleteUserById(OK, savedUser.getId());
+
+        assertThat(bookRepository.findViewsByIdIn(bookIds))
+                .hasSize(2)
+                .extracting(BookView::getUserId)
+                .containsOnlyNulls();
+        verify(topPdfConverterClient)
+                .deleteDocument(bucketName);
+    }
+
     @Test
     void shouldReturnNotFound_whenBookToDeleteDoesNotExist() {
         final var notExistingId = 10000L;
@@ -233,13 +639,90 @@ public class ReaderControllerTest extends TestBase {
         TestAssertUtil.assertEntityNotFound(response);
     }
 
+    private void saveUsersWithBooks(final int userCount, final int booksPerUser) {
+        userRepository.saveAll(TestDataProvider.createListUser(userCount))
+                .forEach(user -> bookRepository.saveAll(IntStream.range(0, booksPerUser)
+                        .mapToObj(i -> TestDataProvider.createBook().owner(user).build())
+                        .toList()));
+    }
+
+    private Response<List<UserDto>> executeGetSelectedUsers(final String fields, final String expand) {
+        final var response = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL)
+                        .queryParamIfPresent("fields", Optional.ofNullable(fields))
+                        .queryParamIfPresent("expand", Optional.ofNullable(expand))
+                        .build())
+                .exchange()
+                .expectStatus().isEqualTo(OK)
+                .expectBody(ParameterizedTypeReferenceTestUtil.getListResponseReference(UserDto.class))
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(response)
+                .isNotNull();
+
+        return response;
+    }
+
+    private Response<Void> executeGetSelectedUsers(
+            final HttpStatus status,
+            final String view,
+            final String fields,
+            final String expand
+    ) {
+        final var response = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL)
+                        .queryParamIfPresent("view", Optional.ofNullable(view))
+                        .queryParamIfPresent("fields", Optional.ofNullable(fields))
+                        .queryParamIfPresent("expand", Optional.ofNullable(expand))
+                        .build())
+                .exchange()
+                .expectStatus().isEqualTo(status)
+                .expectBody(ParameterizedTypeReferenceTestUtil.getResponseReference())
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(response)
+                .isNotNull();
+
+        return response;
+    }
+
+    private Response<MultiGetDto<UserDto>> executeGetUsersByIds(final List<Long> ids) {
+        final var response = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL)
+                        .queryParam("ids", ids.toArray())
+                        .build())
+                .exchange()
+                .expectStatus().isEqualTo(OK)
+                .expectBody(ParameterizedTypeReferenceTestUtil.getMultiGetResponseReference(UserDto.class))
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(response)
+                .isNotNull();
+
+        return response;
+    }
+
     private Response<List<UserDto>> executeGetAllUsers() {
+        return executeGetAllUsers("full");
+    }
+
+    private Response<List<UserDto>> executeGetAllUsers(final String view) {
         final var response = webTestClient
                 .get()
                 .uri(uriBuilder -> uriBuilder
                         .pathSegment(BASE_URL)
                         .queryParam("page", 0)
                         .queryParam("size", 20)
+                        .queryParam("view", view)
                         .build())
                 .exchange()
                 .expectStatus().isEqualTo(OK)
@@ -253,6 +736,28 @@ public class ReaderControllerTest extends TestBase {
         return response;
     }
 
+    private CursorPageDto<UserDto> executeGetUserPage(final String cursor, final int size) {
+        final var response = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL)
+                        .queryParam("cursor", cursor)
+                        .queryParam("size", size)
+                        .build())
+                .exchange()
+                .expectStatus().isEqualTo(OK)
+                .expectBody(ParameterizedTypeReferenceTestUtil.getCursorPageResponseReference(UserDto.class))
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(response)
+                .isNotNull();
+        TestAssertUtil
+                .assertSuccess(OK, "Page of users", response);
+
+        return response.getData();
+    }
+
     private <T> Response<T> executeGetUserById(
             final HttpStatus status,
             final long id,
@@ -276,6 +781,36 @@ public class ReaderControllerTest extends TestBase {
         return response;
     }
 
+    private <T> Response<T> executeGetUserBooks(
+            final HttpStatus status,
+            final long id,
+            final int page,
+            final String sort,
+            final String direction,
+            final ParameterizedTypeReference<Response<T>> responseType
+    ) {
+        final var response = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL, String.valueOf(id), "books")
+                        .queryParam("page", page)
+                        .queryParam("size", 2)
+                        .queryParam("sort", sort)
+                        .queryParam("direction", direction)
+                        .build()
+                )
+                .exchange()
+                .expectStatus().isEqualTo(status)
+                .expectBody(responseType)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(response)
+                .isNotNull();
+
+        return response;
+    }
+
     private Response<FileDto> executeGetUserDocument(final long id) {
         final var response = webTestClient
                 .get()
@@ -301,6 +836,16 @@ public class ReaderControllerTest extends TestBase {
             final UserDto userDto,
             final Class<T> responseType,
             final MultipartFile file
+    ) {
+        return executeCreateUser(status, userDto, responseType, file, null);
+    }
+
+    private <T> Response<T> executeCreateUser(
+            final HttpStatus status,
+            final UserDto userDto,
+            final Class<T> responseType,
+            final MultipartFile file,
+            final String idempotencyKey
     ) {
         final var multipartBodyBuilder = new MultipartBodyBuilder();
         multipartBodyBuilder.part("file", file.getResource())
@@ -314,6 +859,11 @@ public class ReaderControllerTest extends TestBase {
                         .pathSegment(BASE_URL)
                         .build()
                 )
+                .headers(headers -> {
+                    if (idempotencyKey != null) {
+                        headers.set(IdempotencyService.HEADER, idempotencyKey);
+                    }
+                })
                 .contentType(MediaType.MULTIPART_FORM_DATA)
                 .body(BodyInserters.fromMultipartData(multipartBodyBuilder.build()))
                 .exchange()
@@ -328,6 +878,67 @@ public class ReaderControllerTest extends TestBase {
         return response;
     }
 
+    private EntityExchangeResult<byte[]> executeConditionalGetUser(
+            final HttpStatus status,
+            final Long id,
+            final String ifNoneMatch
+    ) {
+        return webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL, String.valueOf(id))
+                        .build())
+                .headers(headers -> {
+                    if (ifNoneMatch != null) {
+                        headers.setIfNoneMatch(ifNoneMatch);
+                    }
+                })
+                .exchange()
+                .expectStatus().isEqualTo(status)
+                .expectBody()
+                .returnResult();
+    }
+
+    private <T> Response<T> executePatchUser(
+            final HttpStatus status,
+            final Long id,
+            final Map<String, ?> patch,
+            final Class<T> responseType
+    ) {
+        return executePatchUser(status, id, patch, responseType, null);
+    }
+
+    private <T> Response<T> executePatchUser(
+            final HttpStatus status,
+            final Long id,
+            final Map<String, ?> patch,
+            final Class<T> responseType,
+            final String ifMatch
+    ) {
+        final var response = webTestClient
+                .patch()
+                .uri(uriBuilder -> uriBuilder
+                        .pathSegment(BASE_URL, String.valueOf(id))
+                        .build())
+                .headers(headers -> {
+                    if (ifMatch != null) {
+                        headers.setIfMatch(ifMatch);
+                    }
+                })
+                .contentType(MediaType.valueOf(JsonMergePatch.MEDIA_TYPE))
+                .bodyValue(patch)
+                .exchange()
+                .expectStatus().isEqualTo(status)
+                .expectBody(ParameterizedTypeReferenceTestUtil.getResponseReference(responseType))
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(response)
+                .isNotNull();
+
+        return response;
+    }
+
     private <T> Response<T> executeUpdateUser(
             final HttpStatus status,
             final UserDto userDto,
@@ -398,6 +1009,7 @@ public class ReaderControllerTest extends TestBase {
 
     @Override
     protected void clearDatabase() {
+        bookRepository.deleteAll();
         userRepository.deleteAll();
     }
 }
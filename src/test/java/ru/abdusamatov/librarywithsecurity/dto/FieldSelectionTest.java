@@ -0,0 +1,55 @@
+package ru.abdusamatov.librarywithsecurity.dto;
+
+import org.junit.jupiter.api.Test;
+import ru.abdusamatov.librarywithsecurity.exception.InvalidFieldSelectionException;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FieldSelectionTest {
+
+    private static final Set<String> FIELDS = Set.of("id", "title", "authorName");
+    private static final Set<String> EXPANSIONS = Set.of("owner");
+
+    @Test
+    void shouldIncludeIdAndRequestedFields_whenFieldsProvided() {
+        final var selection = FieldSelection.parse(" title , ", null, FIELDS, EXPANSIONS);
+
+        assertThat(selection.getFields())
+                .containsExactlyInAnyOrder("id", "title");
+        assertThat(selection.includes("authorName"))
+                .isFalse();
+        assertThat(selection.expands("owner"))
+                .isFalse();
+    }
+
+    @Test
+    void shouldIncludeEveryField_whenOnlyExpandProvided() {
+        final var selection = FieldSelection.parse(null, "owner", FIELDS, EXPANSIONS);
+
+        assertThat(selection.includes("authorName"))
+                .isTrue();
+        assertThat(selection.expands("owner"))
+                .isTrue();
+    }
+
+    @Test
+    void shouldThrow_whenUnknownFieldOrExpansionRequested() {
+        assertThatThrownBy(() -> FieldSelection.parse("title,isbn", null, FIELDS, EXPANSIONS))
+                .isInstanceOf(InvalidFieldSelectionException.class)
+                .hasMessageContaining("fields value isbn");
+        assertThatThrownBy(() -> FieldSelection.parse(null, "books", FIELDS, EXPANSIONS))
+                .isInstanceOf(InvalidFieldSelectionException.class)
+                .hasMessageContaining("expand value books");
+    }
+
+    @Test
+    void shouldReportRequested_whenAnyParameterPresent() {
+        assertThat(FieldSelection.isRequested(null, null))
+                .isFalse();
+        assertThat(FieldSelection.isRequested("", null))
+                .isTrue();
+    }
+}
@@ -10,6 +10,10 @@ import ru.abdusamatov.librarywithsecurity.model.Book;
 import ru.abdusamatov.librarywithsecurity.support.TestBase;
 import ru.abdusamatov.librarywithsecurity.support.TestDataProvider;
 
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -22,6 +26,7 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 public class BookServiceCacheTest extends TestBase {
 
     private static final String BOOK_CACHE = "book";
+    private static final int READERS = 32;
 
     @Override
     protected void clearDatabase() {
@@ -47,20 +52,20 @@ public class BookServiceCacheTest extends TestBase {
         verify(spyBookRepository)
                 .save(any(Book.class));
         verify(spyBookRepository)
-                .findById(savedBook.getId());
+                .findViewById(savedBook.getId());
     }
 
     @ParameterizedTest
     @MethodSource("createBook")
-    void shouldUpdateCacheBook_whenUpdateBook(final BookDto dtoToBeSaved) {
+    void shouldEvictCacheBook_whenUpdateBook(final BookDto dtoToBeSaved) {
         final var savedBook = addSavedEntityToCache(dtoToBeSaved);
 
         final var updatedBook = bookService
                 .updateBook(TestDataProvider
                         .updateBookDto(savedBook)
-                        .build());
+                        .build(), null);
 
-        assertBookInCache(savedBook.getId(), updatedBook);
+        assertBookNotInCache(savedBook.getId());
         verify(spyBookRepository, times(2))
                 .save(any(Book.class));
         verify(spyBookRepository)
@@ -78,9 +83,33 @@ public class BookServiceCacheTest extends TestBase {
         verify(spyBookRepository)
                 .save(any(Book.class));
         verify(spyBookRepository)
-                .findById(savedBook.getId());
+                .deleteBookById(savedBook.getId());
+    }
+
+    @ParameterizedTest
+    @MethodSource("createBook")
+    void shouldLoadBookOnce_whenConcurrentReadersMissCache(final BookDto dtoToBeSaved) throws Exception {
+        final var savedBook = bookService.createBook(dtoToBeSaved);
+        final var start = new CountDownLatch(1);
+        final var results = new ArrayList<Future<BookDto>>(READERS);
+        try (var executor = Executors.newFixedThreadPool(READERS)) {
+            for (var i = 0; i < READERS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return bookService.getBookById(savedBook.getId());
+                }));
+            }
+            start.countDown();
+        }
+
+        for (final var result : results) {
+            assertThat(result.get().getId())
+                    .isEqualTo(savedBook.getId());
+        }
+        verify(spyBookRepository)
+                .save(any(Book.class));
         verify(spyBookRepository)
-                .delete(any(Book.class));
+                .findViewById(savedBook.getId());
     }
 
     private void assertBookInCache(final Long id, final BookDto expectedBook) {
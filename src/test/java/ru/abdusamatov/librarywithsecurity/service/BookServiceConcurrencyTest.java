@@ -0,0 +1,134 @@
+package ru.abdusamatov.librarywithsecurity.service;
+
+import org.junit.jupiter.api.Test;
+import ru.abdusamatov.librarywithsecurity.exception.BookAlreadyAssignedException;
+import ru.abdusamatov.librarywithsecurity.model.Book;
+import ru.abdusamatov.librarywithsecurity.model.User;
+import ru.abdusamatov.librarywithsecurity.support.TestBase;
+import ru.abdusamatov.librarywithsecurity.support.TestDataProvider;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookServiceConcurrencyTest extends TestBase {
+
+    private static final int ASSIGNERS = 200;
+    private static final int THREADS = 50;
+
+    @Override
+    protected void clearDatabase() {
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldAssignBookExactlyOnce_whenManyReadersRaceForIt() throws Exception {
+        final var bookId = bookRepository
+                .save(TestDataProvider.createBook().build())
+                .getId();
+        final var userIds = userRepository
+                .saveAll(TestDataProvider.createListUser(ASSIGNERS))
+                .stream()
+                .map(User::getId)
+                .toList();
+
+        final var start = new CountDownLatch(1);
+        final var results = new ArrayList<Future<Long>>(ASSIGNERS);
+        try (var executor = Executors.newFixedThreadPool(THREADS)) {
+            for (final var userId : userIds) {
+                results.add(executor.submit(assigner(start, bookId, userId)));
+            }
+            start.countDown();
+        }
+
+        final var winners = new ArrayList<Long>();
+        var conflicts = 0;
+        for (final var result : results) {
+            try {
+                winners.add(result.get());
+            } catch (ExecutionException ex) {
+                assertThat(ex.getCause())
+                        .isInstanceOf(BookAlreadyAssignedException.class);
+                conflicts++;
+            }
+        }
+
+        assertThat(winners)
+                .hasSize(1);
+        assertThat(conflicts)
+                .isEqualTo(ASSIGNERS - 1);
+        assertThat(bookRepository.findById(bookId))
+                .get()
+                .satisfies(book -> {
+                    assertThat(book.getOwner().getId()).isEqualTo(winners.getFirst());
+                    assertThat(book.getTakenAt()).isNotNull();
+                })
+                .extracting(Book::getBorrowCount)
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldLeaveBookFree_whenEveryAssignmentIsReleased() throws Exception {
+        final var bookId = bookRepository
+                .save(TestDataProvider.createBook().build())
+                .getId();
+        final var userId = userRepository
+                .save(TestDataProvider.createUser())
+                .getId();
+
+        final var start = new CountDownLatch(1);
+        final var results = new ArrayList<Future<Long>>(ASSIGNERS);
+        try (var executor = Executors.newFixedThreadPool(THREADS)) {
+            for (var i = 0; i < ASSIGNERS; i++) {
+                results.add(executor.submit(i % 2 == 0
+                        ? assigner(start, bookId, userId)
+                        : releaser(start, bookId)));
+            }
+            start.countDown();
+        }
+
+        var assignments = 0;
+        for (final var result : results) {
+            try {
+                if (result.get() != null) {
+                    assignments++;
+                }
+            } catch (ExecutionException ex) {
+                assertThat(ex.getCause())
+                        .isInstanceOf(BookAlreadyAssignedException.class);
+            }
+        }
+
+        bookService.releaseBook(bookId);
+
+        assertThat(bookRepository.findById(bookId))
+                .get()
+                .satisfies(book -> {
+                    assertThat(book.getOwner()).isNull();
+                    assertThat(book.getTakenAt()).isNull();
+                })
+                .extracting(Book::getBorrowCount)
+                .isEqualTo(assignments);
+    }
+
+    private Callable<Long> assigner(final CountDownLatch start, final Long bookId, final Long userId) {
+        return () -> {
+            start.await();
+            return bookService.assignBook(bookId, userId, null).getUserId();
+        };
+    }
+
+    private Callable<Long> releaser(final CountDownLatch start, final Long bookId) {
+        return () -> {
+            start.await();
+            bookService.releaseBook(bookId);
+            return null;
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package ru.abdusamatov.librarywithsecurity.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import ru.abdusamatov.librarywithsecurity.config.LibraryProperties;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.BookSearchMode;
+import ru.abdusamatov.librarywithsecurity.service.cache.CatalogueCache;
+import ru.abdusamatov.librarywithsecurity.support.TestBase;
+import ru.abdusamatov.librarywithsecurity.support.TestDataProvider;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class CatalogueCacheTest extends TestBase {
+
+    @Autowired
+    private CatalogueCache catalogueCache;
+
+    @Autowired
+    private LibraryProperties properties;
+
+    @Override
+    protected void clearDatabase() {
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+        catalogueCache.invalidate();
+    }
+
+    @BeforeEach
+    public void enableCatalogueCache() {
+        properties.getCache().getCatalogue().setEnabled(true);
+    }
+
+    @AfterEach
+    public void disableCatalogueCache() {
+        properties.getCache().getCatalogue().setEnabled(false);
+    }
+
+    @Test
+    void shouldQueryListOnce_whenCatalogueUnchanged() {
+        final var book = bookService.createBook(TestDataProvider.createBookDto().build());
+
+        final var first = bookService.getBookList(0, 10, false);
+        final var second = bookService.getBookList(0, 10, false);
+
+        assertThat(second)
+                .extracting(BookDto::getId)
+                .containsExactly(book.getId());
+        assertThat(second)
+                .isEqualTo(first);
+        verify(spyBookRepository)
+                .findAllViews(any(Pageable.class));
+    }
+
+    @Test
+    void shouldMoveVersionOnce_whenBookChanged() {
+        final var book = bookService.createBook(TestDataProvider.createBookDto().build());
+        bookService.getBookList(0, 10, false);
+        final var version = catalogueCache.version();
+
+        bookService.releaseBook(book.getId());
+        final var created = bookService.createBook(TestDataProvider.createBookDto().build());
+
+        assertThat(catalogueCache.version())
+                .isEqualTo(version + 2);
+        assertThat(bookService.getBookList(0, 10, false))
+                .extracting(BookDto::getId)
+                .containsExactlyInAnyOrder(book.getId(), created.getId());
+        verify(spyBookRepository, times(2))
+                .findAllViews(any(Pageable.class));
+    }
+
+    @Test
+    void shouldMoveVersionOncePerTransaction_whenBooksDeletedInBulk() {
+        final var ids = List.of(
+                bookService.createBook(TestDataProvider.createBookDto().build()).getId(),
+                bookService.createBook(TestDataProvider.createBookDto().build()).getId());
+        final var version = catalogueCache.version();
+
+        bookService.deleteBooks(ids);
+
+        assertThat(catalogueCache.version())
+                .isEqualTo(version + 1);
+    }
+
+    @Test
+    void shouldMoveVersionAndEvictFreedBooks_whenOwnerDeleted() {
+        final var owner = userRepository.save(TestDataProvider.createUser());
+        final var book = bookService.createBook(TestDataProvider.createBookDto().build());
+        bookService.assignBook(book.getId(), owner.getId(), null);
+        bookService.getBookById(book.getId());
+        bookService.getBookList(0, 10, false);
+        final var version = catalogueCache.version();
+
+        userService.deleteUserById(owner.getId());
+
+        assertThat(catalogueCache.version())
+                .isEqualTo(version + 1);
+        assertThat(cacheManager.getCache(BookService.CACHE_NAME).get(book.getId()))
+                .isNull();
+        assertThat(bookService.getBookList(0, 10, false))
+                .extracting(BookDto::getUserId)
+                .containsOnlyNulls();
+    }
+
+    @Test
+    void shouldCacheSearchResultsPerQuery() {
+        final var book = bookService.createBook(TestDataProvider.createBookDto().build());
+        final var prefix = book.getTitle().substring(0, 3);
+
+        bookService.searchByTitle(prefix, BookSearchMode.PREFIX, 0, 10);
+        final var found = bookService.searchByTitle(prefix, BookSearchMode.PREFIX, 0, 10);
+        final var missing = bookService.searchByTitle("zzz" + prefix, BookSearchMode.PREFIX, 0, 10);
+
+        assertThat(found)
+                .extracting(BookDto::getId)
+                .containsExactly(book.getId());
+        assertThat(missing)
+                .isEmpty();
+        verify(spyBookRepository, times(2))
+                .findByTitleStartingWith(anyString(), anyInt(), anyLong());
+    }
+}
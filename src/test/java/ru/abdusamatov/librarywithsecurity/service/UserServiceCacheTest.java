@@ -53,15 +53,15 @@ public class UserServiceCacheTest extends TestBase {
 
     @ParameterizedTest
     @MethodSource("createUser")
-    void shouldUpdateCacheUser_whenUpdateUser(final UserDto dtoToSaved) {
+    void shouldEvictCacheUser_whenUpdateUser(final UserDto dtoToSaved) {
         final var savedUser = addSavedEntityToCache(dtoToSaved);
 
         final var updatedUser = userService
                 .updateUser(TestDataProvider
                         .updateUserDto(savedUser)
-                        .build());
+                        .build(), null);
 
-        assertUserInCache(updatedUser);
+        assertUserNotInCache(updatedUser.getId());
         verify(spyUserRepository, times(2))
                 .save(any(User.class));
         verify(spyUserRepository)
@@ -0,0 +1,109 @@
+package ru.abdusamatov.librarywithsecurity.service.cache;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+import ru.abdusamatov.librarywithsecurity.support.TestDataProvider;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BinaryCacheSerializerTest {
+
+    private static final int NO_COMPRESSION = Integer.MAX_VALUE;
+
+    @Test
+    void shouldReadBackBookWithOwner_andBeSmallerThanJdkSerialization() {
+        final var serializer = serializer(NO_COMPRESSION);
+        final var book = book();
+
+        final var bytes = serializer.serialize(book);
+
+        assertThat(serializer.deserialize(bytes))
+                .isEqualTo(book);
+        assertThat(bytes.length)
+                .isLessThan(RedisSerializer.java().serialize(book).length / 3);
+    }
+
+    @Test
+    void shouldCompressLargeValues() {
+        final var book = book();
+        book.setTitle("A".repeat(200));
+
+        final var plain = serializer(NO_COMPRESSION).serialize(book);
+        final var compressed = serializer(64).serialize(book);
+
+        assertThat(compressed.length)
+                .isLessThan(plain.length);
+        assertThat(serializer(64).deserialize(compressed))
+                .isEqualTo(book);
+    }
+
+    @Test
+    void shouldReadBackBookPage() {
+        final var serializer = serializer(NO_COMPRESSION);
+        final var page = new BookDto[]{book(), TestDataProvider.createBookDto().id(43L).version(0L).build()};
+
+        assertThat(serializer.deserialize(serializer.serialize(page)))
+                .isEqualTo(page);
+    }
+
+    @Test
+    void shouldKeepCachedNull() {
+        final var serializer = serializer(NO_COMPRESSION);
+
+        assertThat(serializer.deserialize(serializer.serialize(NullValue.INSTANCE)))
+                .isEqualTo(NullValue.INSTANCE);
+    }
+
+    @Test
+    void shouldReadAsMiss_whenValueHasUnknownFormat() {
+        final var serializer = serializer(NO_COMPRESSION);
+        final var bytes = serializer.serialize(book());
+        bytes[0] = BinaryCacheSerializer.FORMAT_VERSION + 1;
+
+        assertThat(serializer.deserialize(bytes))
+                .isNull();
+        assertThat(serializer.deserialize(RedisSerializer.java().serialize(book())))
+                .isNull();
+    }
+
+    @Test
+    void shouldRejectUnregisteredType() {
+        assertThatThrownBy(() -> serializer(NO_COMPRESSION).serialize("text"))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    private static BinaryCacheSerializer serializer(final int compressionThreshold) {
+        return new BinaryCacheSerializer(
+                Jackson2ObjectMapperBuilder.smile()
+                        .serializationInclusion(JsonInclude.Include.NON_NULL)
+                        .build(),
+                List.of(BookDto.class, UserDto.class, BookDto[].class),
+                compressionThreshold);
+    }
+
+    private static BookDto book() {
+        final var owner = TestDataProvider.createUserDto()
+                .id(7L)
+                .documentDto(TestDataProvider.createDocumentDto().id(3L).build())
+                .loanCount(1)
+                .version(2L)
+                .build();
+        return TestDataProvider.createBookDto()
+                .id(42L)
+                .takenAt(LocalDateTime.of(2024, 5, 1, 12, 30))
+                .userId(owner.getId())
+                .owner(owner)
+                .version(5L)
+                .build();
+    }
+}
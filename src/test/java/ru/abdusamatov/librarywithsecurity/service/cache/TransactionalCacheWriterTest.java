@@ -0,0 +1,103 @@
+package ru.abdusamatov.librarywithsecurity.service.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+public class TransactionalCacheWriterTest {
+
+    private RedisBatchCache batchCache;
+    private TransactionalCacheWriter cacheWriter;
+
+    @BeforeEach
+    void setUp() {
+        batchCache = mock(RedisBatchCache.class);
+        cacheWriter = new TransactionalCacheWriter(batchCache);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    void shouldEvictEachKeyOnce_afterCommit() {
+        cacheWriter.evict("book", 1L);
+        cacheWriter.evictAll("book", List.of(1L, 2L));
+        cacheWriter.evictAll("user", List.of(7L, 8L));
+
+        verifyNoInteractions(batchCache);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(evictions())
+                .isEqualTo(Map.of("book", Set.of(1L, 2L), "user", Set.of(7L, 8L)));
+        assertThat(TransactionSynchronizationManager.getResource(cacheWriter))
+                .isNull();
+    }
+
+    @Test
+    void shouldEvictTouchedKeys_afterRollback() {
+        cacheWriter.evict("book", 1L);
+        cacheWriter.evict("user", 7L);
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(evictions())
+                .isEqualTo(Map.of("book", Set.of(1L), "user", Set.of(7L)));
+    }
+
+    @Test
+    void shouldNotFailCommittedTransaction_whenRedisEvictionFails() {
+        doThrow(new IllegalStateException("Redis is down"))
+                .when(batchCache).evictAll(any());
+        cacheWriter.evict("book", 1L);
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        verify(batchCache)
+                .evictAll(any());
+    }
+
+    @Test
+    void shouldEvictRightAway_outsideTransaction() {
+        TransactionSynchronizationManager.clear();
+
+        cacheWriter.evict("book", 1L);
+
+        assertThat(evictions())
+                .isEqualTo(Map.of("book", Set.of(1L)));
+    }
+
+    private void complete(final int status) {
+        final var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertThat(synchronizations)
+                .hasSize(1);
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Set<Long>> evictions() {
+        final ArgumentCaptor<Map<String, Set<Long>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(batchCache)
+                .evictAll(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,249 @@
+package ru.abdusamatov.librarywithsecurity.service.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import ru.abdusamatov.librarywithsecurity.config.LibraryProperties;
+import ru.abdusamatov.librarywithsecurity.dto.CacheStatsDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class TwoLevelCacheManagerTest {
+
+    private static final String CHANNEL = "library:cache:invalidation";
+    private static final int CALLERS = 8;
+
+    private ConcurrentMapCacheManager remote;
+    private StringRedisTemplate redisTemplate;
+    private LibraryProperties.Cache properties;
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCacheManager();
+        redisTemplate = mock(StringRedisTemplate.class);
+        properties = new LibraryProperties.Cache();
+        cacheManager = new TwoLevelCacheManager(remote, redisTemplate, properties, value -> 1);
+    }
+
+    @Test
+    void shouldAnswerFromNearCache_whenRemoteEntryChangedBehindIt() {
+        final var cache = cacheManager.getCache("book");
+        cache.put(1L, "first");
+        remoteCache("book").put(1L, "changed elsewhere");
+
+        assertThat(cache.get(1L, String.class))
+                .isEqualTo("first");
+        assertThat(cacheManager.stats())
+                .extracting(CacheStatsDto::getName, CacheStatsDto::getNearHits, CacheStatsDto::getRemoteHits)
+                .containsExactly(tuple("book", 1L, 0L));
+    }
+
+    @Test
+    void shouldCountHitsPerLevel() {
+        final var cache = cacheManager.getCache("book");
+        remoteCache("book").put(1L, "remote");
+
+        cache.get(1L);
+        cache.get(1L);
+        cache.get(2L);
+
+        final var stats = cacheManager.stats().getFirst();
+        assertThat(stats.getNearHits())
+                .isEqualTo(1);
+        assertThat(stats.getNearMisses())
+                .isEqualTo(2);
+        assertThat(stats.getRemoteHits())
+                .isEqualTo(1);
+        assertThat(stats.getRemoteMisses())
+                .isEqualTo(1);
+        assertThat(stats.getRemoteHitRatio())
+                .isEqualTo(0.5);
+    }
+
+    @Test
+    void shouldPublishChangedKeys_whenPutOrEvict() {
+        final var cache = cacheManager.getCache("user");
+
+        cache.put(7L, "reader");
+        cache.evict(8L);
+
+        assertThat(publishedMessages())
+                .extracting(message -> message.substring(message.indexOf('\n') + 1))
+                .containsExactly("user\n7", "user\n8");
+    }
+
+    @Test
+    void shouldDropNearEntry_whenAnotherInstanceInvalidatesIt() {
+        final var cache = cacheManager.getCache("book");
+        cache.put(1L, "stale");
+        cache.put(2L, "kept");
+        remoteCache("book").put(1L, "fresh");
+
+        cacheManager.onMessage(message("other-instance\nbook\n1"), null);
+
+        assertThat(cache.get(1L, String.class))
+                .isEqualTo("fresh");
+        assertThat(cacheManager.stats().getFirst().getNearSize())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void shouldIgnoreOwnInvalidation() {
+        final var cache = cacheManager.getCache("book");
+        cache.put(1L, "local");
+        remoteCache("book").put(1L, "changed elsewhere");
+
+        cacheManager.onMessage(message(publishedMessages().getFirst()), null);
+
+        assertThat(cache.get(1L, String.class))
+                .isEqualTo("local");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void shouldRunOneLoader_whenConcurrentCallersMissSameKey(final boolean nearEnabled) throws Exception {
+        if (!nearEnabled) {
+            disableNearCache("book");
+        }
+        final var cache = cacheManager.getCache("book");
+        final var loads = new AtomicInteger();
+        final var loading = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        final Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            release.await();
+            return "loaded";
+        };
+
+        try (var executor = Executors.newFixedThreadPool(CALLERS)) {
+            final var first = executor.submit(() -> cache.get(1L, loader));
+            loading.await();
+            final var others = IntStream.range(1, CALLERS)
+                    .mapToObj(i -> executor.submit(() -> cache.get(1L, loader)))
+                    .toList();
+            release.countDown();
+
+            assertThat(first.get())
+                    .isEqualTo("loaded");
+            for (final var other : others) {
+                assertThat(other.get())
+                        .isEqualTo("loaded");
+            }
+        }
+        assertThat(loads)
+                .hasValue(1);
+        assertThat(remoteCache("book").get(1L, String.class))
+                .isEqualTo("loaded");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void shouldNotStoreLoadedValue_whenKeyEvictedWhileLoading(final boolean nearEnabled) {
+        if (!nearEnabled) {
+            disableNearCache("book");
+        }
+        final var cache = cacheManager.getCache("book");
+        final Callable<String> loader = () -> {
+            // The change behind the eviction commits after the loader has read the old row.
+            cacheManager.beforeEvict("book", List.of(1L));
+            remoteCache("book").evict(1L);
+            cacheManager.invalidate("book", List.of(1L));
+            return "stale";
+        };
+
+        assertThat(cache.get(1L, loader))
+                .isEqualTo("stale");
+        assertThat(remoteCache("book").get(1L))
+                .isNull();
+        assertThat(cache.get(1L))
+                .isNull();
+    }
+
+    @Test
+    void shouldShareLoaderError_withWaitingCallers() throws Exception {
+        final var cache = cacheManager.getCache("book");
+        final var loading = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        final var failure = new IllegalStateException("not found");
+        final Callable<String> loader = () -> {
+            loading.countDown();
+            release.await();
+            throw failure;
+        };
+
+        try (var executor = Executors.newFixedThreadPool(2)) {
+            final var first = executor.submit(() -> cache.get(1L, loader));
+            loading.await();
+            final var waiting = executor.submit(() -> cache.get(1L, loader));
+            release.countDown();
+
+            for (final var result : List.of(first, waiting)) {
+                assertThatThrownBy(result::get)
+                        .cause()
+                        .isInstanceOf(Cache.ValueRetrievalException.class)
+                        .cause()
+                        .isSameAs(failure);
+            }
+        }
+        assertThat(cache.get(1L))
+                .isNull();
+    }
+
+    @Test
+    void shouldUseRemoteCacheOnly_whenNearCacheDisabledForName() {
+        disableNearCache("user");
+
+        assertThat(cacheManager.getCache("user"))
+                .isInstanceOf(SingleFlightCache.class);
+        assertThat(cacheManager.getCache("book"))
+                .isInstanceOf(TwoLevelCache.class);
+        assertThat(cacheManager.stats())
+                .extracting(CacheStatsDto::getName)
+                .containsExactly("book");
+    }
+
+    private void disableNearCache(final String name) {
+        final var override = new LibraryProperties.NearCacheOverride();
+        override.setEnabled(false);
+        properties.getNear().getCaches().put(name, override);
+    }
+
+    private ConcurrentMapCache remoteCache(final String name) {
+        return (ConcurrentMapCache) remote.getCache(name);
+    }
+
+    private List<String> publishedMessages() {
+        final var published = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate, atLeastOnce())
+                .convertAndSend(eq(CHANNEL), published.capture());
+        return published.getAllValues();
+    }
+
+    private static Message message(final String body) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,70 @@
+package ru.abdusamatov.librarywithsecurity.service.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import reactor.core.publisher.Mono;
+import ru.abdusamatov.librarywithsecurity.config.LibraryProperties;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IdempotencyServiceTest {
+
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> operations;
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        operations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue())
+                .thenReturn(operations);
+        when(operations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenReturn(true);
+        idempotencyService = new IdempotencyService(redisTemplate, new ObjectMapper(), new LibraryProperties());
+    }
+
+    @Test
+    void shouldReturnResponseAndKeepClaim_whenStoringResponseFails() {
+        doThrow(new RedisConnectionFailureException("Redis is down"))
+                .when(operations).set(anyString(), anyString(), any(Duration.class));
+
+        final var response = idempotencyService
+                .execute("book", "key", "request", String.class, () -> Mono.just("created"))
+                .block();
+
+        assertThat(response)
+                .isEqualTo("created");
+        verify(redisTemplate, never())
+                .delete(anyString());
+    }
+
+    @Test
+    void shouldDropClaim_whenActionFails() {
+        final var failure = new IllegalStateException("action failed");
+
+        final var result = idempotencyService
+                .execute("book", "key", "request", String.class, () -> Mono.<String>error(failure))
+                .onErrorResume(ex -> Mono.just(ex.getMessage()))
+                .block();
+
+        assertThat(result)
+                .isEqualTo(failure.getMessage());
+        verify(redisTemplate)
+                .delete("idempotency::book::key");
+    }
+}
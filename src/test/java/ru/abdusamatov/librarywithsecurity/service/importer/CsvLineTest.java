@@ -0,0 +1,28 @@
+package ru.abdusamatov.librarywithsecurity.service.importer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CsvLineTest {
+
+    @Test
+    void shouldSplitPlainAndQuotedFields() {
+        assertThat(CsvLine.parse("\"War and Peace, Vol. 1\",Leo,\"He said \"\"hi\"\"\",1869"))
+                .containsExactly("War and Peace, Vol. 1", "Leo", "He said \"hi\"", "1869");
+    }
+
+    @Test
+    void shouldKeepEmptyFields() {
+        assertThat(CsvLine.parse(",a,,"))
+                .containsExactly("", "a", "", "");
+    }
+
+    @Test
+    void shouldThrow_whenQuoteIsNotClosed() {
+        assertThatThrownBy(() -> CsvLine.parse("\"open,1"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unterminated quoted field");
+    }
+}
@@ -4,13 +4,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
-import ru.abdusamatov.librarywithsecurity.dto.BookDto;
 import ru.abdusamatov.librarywithsecurity.dto.UserDto;
-import ru.abdusamatov.librarywithsecurity.model.Book;
 import ru.abdusamatov.librarywithsecurity.model.User;
 import ru.abdusamatov.librarywithsecurity.support.TestDataProvider;
 
-import java.util.Collections;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -18,8 +15,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 public class UserMapperTest {
 
     private final DocumentMapper documentMapper = new DocumentMapperImpl();
-    private final BookMapper bookMapper = new BookMapperImpl();
-    private final UserMapper mapper = new UserMapperImpl(documentMapper, bookMapper);
+    private final UserMapper mapper = new UserMapperImpl(documentMapper);
 
     @ParameterizedTest
     @MethodSource("shouldMapUserToDto")
@@ -71,37 +67,22 @@ public class UserMapperTest {
 
     @ParameterizedTest
     @MethodSource("shouldUpdateUserFromDto")
-    void shouldUpdateUserFromDto_whenUserHasNullBookList(
-            UserDto newUserDto,
-            User userToBeUpdated,
-            final User expected
-    ) {
-        final var listSize = 10;
-        newUserDto.setBooks(TestDataProvider.createListBookDto(listSize));
-        userToBeUpdated.setBooks(null);
-
-        final var actual = mapper.updateUserFromDto(newUserDto, userToBeUpdated);
-
-        assertThat(actual.getBooks())
-                .isNotNull()
-                .hasSize(listSize);
-    }
-
-    @ParameterizedTest
-    @MethodSource("shouldUpdateUserFromDto")
-    void shouldUpdateUserFromDto_whenDtoHasNullBookList(
+    void shouldKeepBooksAndLoanCount_whenUserUpdatedFromDto(
             UserDto newUserDto,
             User userToBeUpdated,
             final User expected
     ) {
         final var listSize = 10;
         userToBeUpdated.setBooks(TestDataProvider.createListBook(listSize));
-        newUserDto.setBooks(null);
+        userToBeUpdated.setLoanCount(listSize);
+        newUserDto.setLoanCount(0);
 
         final var actual = mapper.updateUserFromDto(newUserDto, userToBeUpdated);
 
         assertThat(actual.getBooks())
-                .isNull();
+                .hasSize(listSize);
+        assertThat(actual.getLoanCount())
+                .isEqualTo(listSize);
     }
 
     @ParameterizedTest
@@ -131,6 +112,7 @@ public class UserMapperTest {
 
     public static Stream<Arguments> shouldMapUserToDto() {
         final var user = TestDataProvider.createUser();
+        user.setLoanCount(3);
         final var document = user.getDocument();
 
         final var expected = TestDataProvider
@@ -139,7 +121,7 @@ public class UserMapperTest {
                 .fullName(user.getFullName())
                 .email(user.getEmail())
                 .dateOfBirth(user.getDateOfBirth())
-                .books(Collections.emptyList())
+                .loanCount(3)
                 .documentDto(TestDataProvider.createDocumentDto()
                         .id(document.getId())
                         .bucketName(document.getBucketName())
@@ -154,7 +136,6 @@ public class UserMapperTest {
     public static Stream<Arguments> shouldMapDtoToUser() {
         final var dtoToBeMapped = TestDataProvider
                 .createUserDto()
-                .books(Collections.emptyList())
                 .build();
         final var document = dtoToBeMapped.getDocumentDto();
 
@@ -163,7 +144,6 @@ public class UserMapperTest {
                 .fullName(dtoToBeMapped.getFullName())
                 .email(dtoToBeMapped.getEmail())
                 .dateOfBirth(dtoToBeMapped.getDateOfBirth())
-                .books(Collections.emptyList())
                 .document(TestDataProvider.createDocument()
                         .id(document.getId())
                         .bucketName(document.getBucketName())
@@ -185,7 +165,6 @@ public class UserMapperTest {
                 .fullName("Updated FullName")
                 .email("updated@example.com")
                 .dateOfBirth(existingUser.getDateOfBirth())
-                .books(Collections.emptyList())
                 .documentDto(TestDataProvider.createDocumentDto()
                         .id(document.getId())
                         .bucketName(document.getBucketName())
@@ -199,11 +178,7 @@ public class UserMapperTest {
                 .fullName(newDto.getFullName())
                 .email(newDto.getEmail())
                 .dateOfBirth(existingUser.getDateOfBirth())
-                .books(newDto
-                        .getBooks()
-                        .stream()
-                        .map(UserMapperTest::getBook)
-                        .toList())
+                .books(existingUser.getBooks())
                 .document(TestDataProvider
                         .createDocument()
                         .id(document.getId())
@@ -215,18 +190,4 @@ public class UserMapperTest {
 
         return Stream.of(Arguments.arguments(newDto, existingUser, expected));
     }
-
-    private static Book getBook(BookDto bookDto) {
-        return TestDataProvider.createBook()
-                .id(bookDto.getId())
-                .title(bookDto.getTitle())
-                .authorName(bookDto.getAuthorName())
-                .authorSurname(bookDto.getAuthorSurname())
-                .takenAt(bookDto.getTakenAt())
-                .yearOfPublication(bookDto.getYearOfPublication())
-                .owner(User.builder()
-                        .id(bookDto.getUserId())
-                        .build())
-                .build();
-    }
 }
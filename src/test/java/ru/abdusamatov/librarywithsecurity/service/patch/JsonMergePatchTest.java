@@ -0,0 +1,73 @@
+package ru.abdusamatov.librarywithsecurity.service.patch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.exception.InvalidPatchException;
+import ru.abdusamatov.librarywithsecurity.support.TestDataProvider;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JsonMergePatchTest {
+
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("title", "yearOfPublication", "takenAt");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final JsonMergePatch mergePatch = new JsonMergePatch(
+            objectMapper, Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Test
+    void shouldReplacePresentAndClearNullMembers_whenPatchApplied() throws Exception {
+        final var book = TestDataProvider.createBookDto().id(1L).build();
+        final var patch = objectMapper.readTree("{\"title\":\"New title\",\"takenAt\":null}");
+
+        final var patched = mergePatch.apply(book, patch, PATCHABLE_FIELDS);
+
+        assertThat(patched)
+                .isNotSameAs(book)
+                .usingRecursiveComparison()
+                .ignoringFields("title", "takenAt")
+                .isEqualTo(book);
+        assertThat(patched.getTitle())
+                .isEqualTo("New title");
+        assertThat(patched.getTakenAt())
+                .isNull();
+    }
+
+    @Test
+    void shouldRejectPatch_whenFieldIsNotPatchable() throws Exception {
+        final var book = TestDataProvider.createBookDto().build();
+        final var patch = objectMapper.readTree("{\"userId\":5}");
+
+        assertThatThrownBy(() -> mergePatch.apply(book, patch, PATCHABLE_FIELDS))
+                .isInstanceOf(InvalidPatchException.class)
+                .extracting("errors")
+                .isEqualTo(Map.of("userId", "Field cannot be patched"));
+    }
+
+    @Test
+    void shouldRejectPatch_whenPatchedValueViolatesConstraints() throws Exception {
+        final var book = TestDataProvider.createBookDto().build();
+        final var patch = objectMapper.readTree("{\"title\":null}");
+
+        assertThatThrownBy(() -> mergePatch.apply(book, patch, PATCHABLE_FIELDS))
+                .isInstanceOf(InvalidPatchException.class)
+                .satisfies(ex -> assertThat(((InvalidPatchException) ex).getErrors())
+                        .containsOnlyKeys("title"));
+    }
+
+    @Test
+    void shouldRejectPatch_whenPatchIsNotAnObject() throws Exception {
+        final var book = TestDataProvider.createBookDto().build();
+
+        assertThatThrownBy(() -> mergePatch.apply(book, objectMapper.readTree("[1]"), PATCHABLE_FIELDS))
+                .isInstanceOf(InvalidPatchException.class);
+    }
+}
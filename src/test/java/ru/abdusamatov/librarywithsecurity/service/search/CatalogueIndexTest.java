@@ -0,0 +1,136 @@
+package ru.abdusamatov.librarywithsecurity.service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CatalogueIndexTest {
+
+    private CatalogueIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CatalogueIndex();
+        index.add(book(1L, "War and Peace", "Leo", "Tolstoy"));
+        index.add(book(2L, "Anna Karenina", "Leo", "Tolstoy"));
+        index.add(book(3L, "Crime and Punishment", "Fyodor", "Dostoevsky"));
+        index.add(book(4L, "Peace Talks", "Jim", "Butcher"));
+    }
+
+    @Test
+    void shouldRankTitleMatchAboveAuthorMatch() {
+        index.add(book(5L, "Tolstoy: a biography", "Henri", "Troyat"));
+
+        final var result = index.search("tolstoy", 0, 10);
+
+        assertThat(result)
+                .extracting(BookDto::getId)
+                .containsExactly(5L, 1L, 2L);
+    }
+
+    @Test
+    void shouldRequireEveryQueryToken() {
+        final var result = index.search("peace war", 0, 10);
+
+        assertThat(result)
+                .extracting(BookDto::getId)
+                .containsExactly(1L);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "Dostoyevsky, 3",
+            "karenia, 2",
+            "PUNISHMENT, 3",
+            "tolstoj anna, 2"
+    })
+    void shouldTolerateTyposAndCase(final String query, final long expectedId) {
+        final var result = index.search(query, 0, 10);
+
+        assertThat(result)
+                .extracting(BookDto::getId)
+                .containsExactly(expectedId);
+    }
+
+    @Test
+    void shouldNotFuzzyMatchShortTokens() {
+        assertThat(index.search("lea", 0, 10))
+                .isEmpty();
+    }
+
+    @Test
+    void shouldReflectUpdatesAndDeletes() {
+        index.add(book(4L, "Storm Front", "Jim", "Butcher"));
+        index.remove(1L);
+
+        assertThat(index.search("peace", 0, 10))
+                .isEmpty();
+        assertThat(index.search("storm", 0, 10))
+                .extracting(BookDto::getId)
+                .containsExactly(4L);
+        assertThat(index.size())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void shouldReturnRequestedWindowOfTopResults() {
+        final var leoBooks = index.search("leo", 0, 10);
+
+        assertThat(index.search("leo", 1, 1))
+                .containsExactly(leoBooks.get(1));
+    }
+
+    @Test
+    void shouldKeepResultsAfterCompaction() {
+        LongStream.rangeClosed(100, 2200)
+                .forEach(id -> index.add(book(id, "Filler " + id, "Some", "Author")));
+        LongStream.rangeClosed(100, 2200)
+                .forEach(index::remove);
+
+        assertThat(index.needsCompaction())
+                .isTrue();
+
+        final var compacted = CatalogueIndex.of(index.liveDocuments());
+
+        assertThat(compacted.needsCompaction())
+                .isFalse();
+        assertThat(compacted.size())
+                .isEqualTo(4);
+        assertThat(compacted.search("crime", 0, 10))
+                .extracting(BookDto::getId)
+                .containsExactly(3L);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "kitten, sitting, 3, 3",
+            "flaw, lawn, 2, 2",
+            "book, book, 1, 0",
+            "abcdefgh, hgfedcba, 2, 3"
+    })
+    void shouldComputeBoundedEditDistance(
+            final String left,
+            final String right,
+            final int max,
+            final int expected
+    ) {
+        assertThat(CatalogueIndex.boundedEditDistance(left, right, max))
+                .isEqualTo(expected);
+    }
+
+    private static BookDto book(final long id, final String title, final String name, final String surname) {
+        return BookDto.builder()
+                .id(id)
+                .title(title)
+                .authorName(name)
+                .authorSurname(surname)
+                .yearOfPublication(1900)
+                .build();
+    }
+}
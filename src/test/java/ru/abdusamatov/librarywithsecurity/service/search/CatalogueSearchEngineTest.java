@@ -0,0 +1,94 @@
+package ru.abdusamatov.librarywithsecurity.service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.abdusamatov.librarywithsecurity.config.LibraryProperties;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.model.projection.BookView;
+import ru.abdusamatov.librarywithsecurity.repository.BookRepository;
+import ru.abdusamatov.librarywithsecurity.service.mapper.BookMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CatalogueSearchEngineTest {
+
+    private static final int BOOKS = 2000;
+
+    private BookRepository bookRepository;
+    private BookMapper bookMapper;
+    private CatalogueSearchEngine searchEngine;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        bookMapper = mock(BookMapper.class);
+        when(bookRepository.findAfterOrderById(anyLong(), anyInt()))
+                .thenReturn(List.of());
+        final var properties = new LibraryProperties();
+        properties.getSearch().setEngine(LibraryProperties.Search.Engine.IN_MEMORY);
+
+        searchEngine = new CatalogueSearchEngine(bookRepository, bookMapper, properties);
+        searchEngine.rebuild();
+    }
+
+    @Test
+    void shouldKeepChangesMadeWhileCompacting() {
+        LongStream.rangeClosed(1, BOOKS)
+                .forEach(id -> searchEngine.index(book(id, "Draft " + id)));
+
+        // Replacing most books leaves enough tombstones to start a compaction, which the later changes race.
+        LongStream.rangeClosed(1, BOOKS)
+                .forEach(id -> searchEngine.index(book(id, "Final " + id)));
+        LongStream.rangeClosed(1, BOOKS / 2)
+                .forEach(searchEngine::remove);
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(searchEngine.search("draft", 0, 10))
+                    .isEmpty();
+            assertThat(searchEngine.search("final " + BOOKS, 0, 10))
+                    .extracting(BookDto::getId)
+                    .first()
+                    .isEqualTo((long) BOOKS);
+            assertThat(searchEngine.search("final 1", 0, 10))
+                    .extracting(BookDto::getId)
+                    .doesNotContain(1L);
+        });
+    }
+
+    @Test
+    void shouldFindBooksAddedWithoutEvent_afterRefresh() {
+        final var imported = mock(BookView.class);
+        when(bookRepository.findAfterOrderById(anyLong(), anyInt()))
+                .thenReturn(List.of(imported));
+        when(bookMapper.bookViewToBookDto(imported))
+                .thenReturn(book(1L, "Imported"));
+
+        assertThat(searchEngine.search("imported", 0, 10))
+                .isEmpty();
+
+        searchEngine.refresh();
+
+        assertThat(searchEngine.search("imported", 0, 10))
+                .extracting(BookDto::getId)
+                .containsExactly(1L);
+    }
+
+    private static BookDto book(final long id, final String title) {
+        return BookDto.builder()
+                .id(id)
+                .title(title)
+                .authorName("Some")
+                .authorSurname("Author")
+                .yearOfPublication(2000)
+                .build();
+    }
+}
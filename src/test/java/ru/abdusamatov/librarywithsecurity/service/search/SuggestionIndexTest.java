@@ -0,0 +1,77 @@
+package ru.abdusamatov.librarywithsecurity.service.search;
+
+import org.junit.jupiter.api.Test;
+import ru.abdusamatov.librarywithsecurity.dto.SuggestionDto;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.abdusamatov.librarywithsecurity.dto.SuggestionDto.Type.AUTHOR;
+import static ru.abdusamatov.librarywithsecurity.dto.SuggestionDto.Type.TITLE;
+
+public class SuggestionIndexTest {
+
+    private final SuggestionIndex index = SuggestionIndex.builder()
+            .add("War and Peace", TITLE, 10)
+            .add("Warlock", TITLE, 3)
+            .add("Wardrobe Stories", TITLE, 25)
+            .add("Walden", TITLE, 100)
+            .add("Émile Zola", AUTHOR, 7)
+            .build();
+
+    @Test
+    void shouldReturnCompletionsOfPrefixByWeight() {
+        assertThat(index.suggest("war", 10))
+                .extracting(SuggestionDto::getText)
+                .containsExactly("Wardrobe Stories", "War and Peace", "Warlock");
+    }
+
+    @Test
+    void shouldLimitNumberOfCompletions() {
+        assertThat(index.suggest("wa", 2))
+                .extracting(SuggestionDto::getText)
+                .containsExactly("Walden", "Wardrobe Stories");
+    }
+
+    @Test
+    void shouldNormalizeCaseAndDiacritics() {
+        assertThat(index.suggest("  EMI", 5))
+                .containsExactly(new SuggestionDto("Émile Zola", AUTHOR));
+    }
+
+    @Test
+    void shouldReturnNothing_whenPrefixMatchesNoKeyOrIsBlank() {
+        assertThat(index.suggest("zz", 5))
+                .isEmpty();
+        assertThat(index.suggest(" ", 5))
+                .isEmpty();
+        assertThat(SuggestionIndex.empty().suggest("war", 5))
+                .isEmpty();
+    }
+
+    @Test
+    void shouldMergeDuplicateKeysAndSumWeights() {
+        final var merged = SuggestionIndex.builder()
+                .add("Dune", TITLE, 1)
+                .add("dune", TITLE, 1)
+                .add("Dune Messiah", TITLE, 1)
+                .build();
+
+        assertThat(merged.size())
+                .isEqualTo(2);
+        assertThat(merged.suggest("dun", 5))
+                .extracting(SuggestionDto::getText)
+                .containsExactly("Dune", "Dune Messiah");
+    }
+
+    @Test
+    void shouldPickHeaviestEntries_whenRangeIsLarge() {
+        final var builder = SuggestionIndex.builder();
+        IntStream.range(0, 10_000)
+                .forEach(i -> builder.add("Book " + i, TITLE, i % 1000));
+
+        assertThat(builder.build().suggest("book", 3))
+                .extracting(SuggestionDto::getText)
+                .containsExactly("Book 1999", "Book 2999", "Book 3999");
+    }
+}
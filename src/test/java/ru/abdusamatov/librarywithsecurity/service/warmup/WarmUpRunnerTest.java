@@ -0,0 +1,102 @@
+package ru.abdusamatov.librarywithsecurity.service.warmup;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.abdusamatov.librarywithsecurity.config.LibraryProperties;
+import ru.abdusamatov.librarywithsecurity.dto.CacheStatsDto;
+import ru.abdusamatov.librarywithsecurity.service.BookService;
+import ru.abdusamatov.librarywithsecurity.service.cache.TwoLevelCacheManager;
+import ru.abdusamatov.librarywithsecurity.support.TestBase;
+import ru.abdusamatov.librarywithsecurity.support.TestDataProvider;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WarmUpRunnerTest extends TestBase {
+
+    @Autowired
+    private WarmUpRunner warmUpRunner;
+
+    @Autowired
+    private HotKeySnapshot hotKeySnapshot;
+
+    @Autowired
+    private TwoLevelCacheManager twoLevelCacheManager;
+
+    @Autowired
+    private LibraryProperties properties;
+
+    @TempDir
+    private Path directory;
+
+    private Path defaultSnapshotFile;
+
+    @Override
+    protected void clearDatabase() {
+        bookRepository.deleteAll();
+        cacheManager.getCache(BookService.CACHE_NAME).clear();
+    }
+
+    @BeforeEach
+    public void enableWarmUp() {
+        final var warmUp = properties.getWarmUp();
+        defaultSnapshotFile = warmUp.getSnapshotFile();
+        warmUp.setEnabled(true);
+        warmUp.setSnapshotFile(directory.resolve("hot-keys.json"));
+    }
+
+    @AfterEach
+    public void disableWarmUp() {
+        final var warmUp = properties.getWarmUp();
+        warmUp.setEnabled(false);
+        warmUp.setSnapshotFile(defaultSnapshotFile);
+    }
+
+    @Test
+    void shouldSaveHotBooks_andPreloadThemOnNextStart() {
+        final var book = bookService.createBook(TestDataProvider.createBookDto().build());
+        bookService.getBookById(book.getId());
+
+        hotKeySnapshot.save();
+        cacheManager.getCache(BookService.CACHE_NAME).clear();
+
+        assertThat(hotKeySnapshot.load())
+                .hasValueSatisfying(hotKeys -> assertThat(hotKeys.books())
+                        .containsExactly(book.getId()));
+        assertThat(nearSize())
+                .isZero();
+
+        warmUpRunner.run(null);
+
+        assertThat(nearSize())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldPreloadMostBorrowedBooks_whenNoSnapshot() {
+        final var books = List.of(
+                bookService.createBook(TestDataProvider.createBookDto().build()),
+                bookService.createBook(TestDataProvider.createBookDto().build()));
+        cacheManager.getCache(BookService.CACHE_NAME).clear();
+
+        assertThat(hotKeySnapshot.load())
+                .isEmpty();
+
+        warmUpRunner.run(null);
+
+        assertThat(nearSize())
+                .isEqualTo(books.size());
+    }
+
+    private long nearSize() {
+        return twoLevelCacheManager.stats().stream()
+                .filter(stats -> BookService.CACHE_NAME.equals(stats.getName()))
+                .mapToLong(CacheStatsDto::getNearSize)
+                .sum();
+    }
+}
@@ -1,5 +1,8 @@
 package ru.abdusamatov.librarywithsecurity.support;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -70,6 +73,9 @@ public abstract class TestBase {
     @Autowired
     protected OutboxDomainEventRepository repository;
 
+    @Autowired
+    protected EntityManagerFactory entityManagerFactory;
+
     @MockBean
     protected TopPdfConverterClient topPdfConverterClient;
 
@@ -88,4 +94,16 @@ public abstract class TestBase {
     }
 
     protected abstract void clearDatabase();
+
+    /**
+     * Resets Hibernate statistics, so a test can count the SQL statements issued by the request that follows.
+     */
+    protected Statistics clearStatistics() {
+        final var statistics = entityManagerFactory
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        return statistics;
+    }
 }
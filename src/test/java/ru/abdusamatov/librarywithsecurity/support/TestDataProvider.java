@@ -135,7 +135,6 @@ public class TestDataProvider {
                 .fullName("Fullname updated")
                 .email("testuser" + getLimitUUID(10) + "@example.com")
                 .dateOfBirth(getRandomDate(LocalDate.now()))
-                .books(userToBeUpdated.getBooks())
                 .documentDto(userToBeUpdated.getDocumentDto());
     }
 
@@ -0,0 +1,75 @@
+package ru.abdusamatov.librarywithsecurity.util;
+
+import org.junit.jupiter.api.Test;
+import ru.abdusamatov.librarywithsecurity.dto.BookDto;
+import ru.abdusamatov.librarywithsecurity.dto.UserDto;
+import ru.abdusamatov.librarywithsecurity.exception.PreconditionFailedException;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EntityTagTest {
+
+    @Test
+    void shouldMatchStrongly_whenIfMatchListsCurrentTag() {
+        final var tag = EntityTag.of(BookDto.builder().version(3L).build());
+
+        assertThat(tag)
+                .isEqualTo("\"3\"");
+        assertThat(EntityTag.matchesIfMatch("\"1\", \"3\"", tag))
+                .isTrue();
+        assertThat(EntityTag.matchesIfMatch("W/\"3\"", tag))
+                .isFalse();
+        assertThat(EntityTag.matchesIfMatch("*", tag))
+                .isTrue();
+        assertThat(EntityTag.matchesIfMatch("\"2\"", tag))
+                .isFalse();
+        assertThat(EntityTag.matchesIfMatch(null, tag))
+                .isTrue();
+    }
+
+    @Test
+    void shouldMatchWeakly_whenIfNoneMatchListsCurrentTag() {
+        final var tag = EntityTag.of(BookDto.builder().version(3L).build());
+
+        assertThat(EntityTag.matchesIfNoneMatch("\"1\", W/\"3\"", tag))
+                .isTrue();
+        assertThat(EntityTag.matchesIfNoneMatch("\"3\"", tag))
+                .isTrue();
+        assertThat(EntityTag.matchesIfNoneMatch("*", tag))
+                .isTrue();
+        assertThat(EntityTag.matchesIfNoneMatch("W/\"2\"", tag))
+                .isFalse();
+    }
+
+    @Test
+    void shouldChangeUserTag_whenLoanCountChanges() {
+        final var user = UserDto.builder().version(2L).loanCount(0).build();
+        final var before = EntityTag.of(user);
+
+        user.setLoanCount(1);
+
+        assertThat(EntityTag.of(user))
+                .isEqualTo("\"2-1\"")
+                .isNotEqualTo(before);
+        assertThat(EntityTag.of(UserDto.builder().version(2L).build()))
+                .isEqualTo("\"2\"");
+        assertThat(EntityTag.of(UserDto.builder().build()))
+                .isNull();
+    }
+
+    @Test
+    void shouldParseExpectedVersion_whenSingleTagProvided() {
+        assertThat(EntityTag.expectedVersion("\"5\"", "Book", 1L))
+                .isEqualTo(5L);
+        assertThat(EntityTag.expectedVersion("*", "Book", 1L))
+                .isNull();
+        assertThat(EntityTag.expectedVersion(null, "Book", 1L))
+                .isNull();
+        assertThatThrownBy(() -> EntityTag.expectedVersion("\"abc\"", "Book", 1L))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> EntityTag.expectedVersion("W/\"5\"", "Book", 1L))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+}
@@ -3,6 +3,8 @@ package ru.abdusamatov.librarywithsecurity.util;
 import lombok.experimental.UtilityClass;
 import org.springframework.core.ParameterizedTypeReference;
 import org.testcontainers.shaded.org.apache.commons.lang3.reflect.TypeUtils;
+import ru.abdusamatov.librarywithsecurity.dto.CursorPageDto;
+import ru.abdusamatov.librarywithsecurity.dto.MultiGetDto;
 import ru.ilyam.http.Response;
 
 import java.util.List;
@@ -23,4 +25,18 @@ public class ParameterizedTypeReferenceTestUtil {
                 TypeUtils.parameterize(Response.class,
                         TypeUtils.parameterize(List.class, type)));
     }
+
+    public static <T> ParameterizedTypeReference<Response<CursorPageDto<T>>> getCursorPageResponseReference(
+            final Class<T> type) {
+        return ParameterizedTypeReference.forType(
+                TypeUtils.parameterize(Response.class,
+                        TypeUtils.parameterize(CursorPageDto.class, type)));
+    }
+
+    public static <T> ParameterizedTypeReference<Response<MultiGetDto<T>>> getMultiGetResponseReference(
+            final Class<T> type) {
+        return ParameterizedTypeReference.forType(
+                TypeUtils.parameterize(Response.class,
+                        TypeUtils.parameterize(MultiGetDto.class, type)));
+    }
 }